@@ -0,0 +1,80 @@
+package ghost;
+
+import java.util.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * BenchmarkMaps resolves the map names used as benchmark parameters into map files. Names of the
+ * form "generated-N" produce a map made of N by N copies of "map.txt", so benchmarks can be run
+ * against maps of growing size.
+ */
+public class BenchmarkMaps {
+
+    /**
+     * The prefix of generated map names.
+     */
+    public static final String GENERATED = "generated-";
+
+    /**
+     * Returns the name of the map file for the given benchmark parameter, generating the map if
+     * required.
+     * 
+     * @param name either the name of an existing map file or "generated-N".
+     * @return the name of the map file.
+     */
+    public static String resolve(String name) throws IOException {
+
+        if (!name.startsWith(GENERATED)) {
+            return name;
+        }
+        int copies = Integer.parseInt(name.substring(GENERATED.length()));
+        File mapFile = File.createTempFile("generated-" + copies + "-", ".txt");
+        mapFile.deleteOnExit();
+        Files.write(mapFile.toPath(), generate(copies), StandardCharsets.UTF_8);
+        return mapFile.getPath();
+    }
+
+    /**
+     * Tiles the layout of "map.txt" into a grid of copies. Only the first copy keeps its player
+     * starting position; the others have a Fruit in its place. Every copy keeps its Ghosts.
+     * 
+     * @param copies the number of copies along each axis.
+     * @return the lines of the generated map.
+     */
+    public static List<String> generate(int copies) throws IOException {
+
+        List<String> base = Files.readAllLines(new File("map.txt").toPath());
+        List<String> lines = new ArrayList<String>();
+
+        for (int i = 0; i < copies; i ++) {
+            for (String row : base) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < copies; j ++) {
+                    if (i == 0 && j == 0) {
+                        line.append(row);
+                    } else {
+                        line.append(row.replace('p', '7'));
+                    }
+                }
+                lines.add(line.toString());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Creates game settings using the values of "config.json" and the given map file.
+     * 
+     * @param mapName the name of the map file.
+     * @return the game settings.
+     */
+    public static Settings settings(String mapName) {
+
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        settings.setMapName(mapName);
+        return settings;
+    }
+}
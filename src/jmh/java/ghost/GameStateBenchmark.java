@@ -0,0 +1,50 @@
+package ghost;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures forking a game into a GameState, and playing a short lookahead on a fork.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GameStateBenchmark {
+
+    @Param({"map.txt", "generated-8", "generated-50"})
+    public String mapName;
+
+    @Param({"objects", "swarm"})
+    public String ghostStore;
+
+    private GameState root;
+
+    /**
+     * Forks a game that has been played for a few seconds, so some Fruits have been eaten.
+     */
+    @Setup(Level.Trial)
+    public void playGame() throws Exception {
+        Settings settings = BenchmarkMaps.settings(BenchmarkMaps.resolve(this.mapName));
+        settings.setGhostSwarm(this.ghostStore.equals("swarm"));
+        GameManager game = new GameManager(settings);
+        for (int i = 0; i < 300; i ++) {
+            game.tick();
+        }
+        this.root = GameState.of(game);
+    }
+
+    @Benchmark
+    public GameState copy() {
+        return this.root.copy();
+    }
+
+    @Benchmark
+    public int lookahead() {
+        GameState state = this.root.copy();
+        for (int i = 0; i < 16; i ++) {
+            state.step(ghost.State.LEFT);
+        }
+        return state.getTicks();
+    }
+}
@@ -0,0 +1,73 @@
+package ghost;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the Ghost steering decisions made every tick: finding intersections and choosing the
+ * next move towards the target, by straight line or by maze distance.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GhostBenchmark {
+
+    @Param({"map.txt", "map1.txt", "generated-2", "generated-4", "generated-8"})
+    public String mapName;
+
+    @Param({"euclidean", "maze"})
+    public String targeting;
+
+    private Map map;
+    private Waka player;
+    private List<Ghost> ghosts;
+    private DistanceFields distances;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        Settings settings = BenchmarkMaps.settings(BenchmarkMaps.resolve(this.mapName));
+        this.map = new Map(settings.getMapName());
+        this.player = new Waka(this.map.getPlayerRow(), this.map.getPlayerCol(), 1);
+        this.ghosts = new ArrayList<Ghost>(this.map.getGhosts());
+
+        this.distances = null;
+        if (this.targeting.equals("maze")) {
+            this.distances = new DistanceFields(this.map, DistanceFields.DEFAULT_CAPACITY);
+        }
+        for (Ghost ghost : this.ghosts) {
+            ghost.setDistanceFields(this.distances);
+            ghost.setSpeed(settings.getSpeed());
+            ghost.setGhostMode(settings.getGhostModes());
+            ghost.setFrightenedLength(settings.getFrightenedLength());
+            ghost.changeTarget(this.map, this.player);
+        }
+        this.next = 0;
+    }
+
+    private Ghost nextGhost() {
+        Ghost ghost = this.ghosts.get(this.next);
+        this.next = (this.next + 1) % this.ghosts.size();
+        return ghost;
+    }
+
+    @Benchmark
+    public boolean atIntersection() {
+        return this.nextGhost().atIntersection(this.map);
+    }
+
+    @Benchmark
+    public State setNextMove() {
+
+        // Each decision counts as a tick of its own, so every target is steered by its field.
+        if (this.distances != null) {
+            this.distances.startTick();
+        }
+        Ghost ghost = this.nextGhost();
+        ghost.setNextMove(this.map);
+        return ghost.getNextMove();
+    }
+}
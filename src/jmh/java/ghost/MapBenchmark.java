@@ -0,0 +1,68 @@
+package ghost;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures loading a Map from its text and compiled files and checking Moving objects for Wall
+ * collisions.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapBenchmark {
+
+    @Param({"map.txt", "map1.txt", "generated-2", "generated-4", "generated-8"})
+    public String mapName;
+
+    private String mapFile;
+    private String compiledFile;
+    private Map map;
+    private Waka[] probes;
+    private int next;
+
+    /**
+     * Places collision probes at every tile of the Map, facing each direction in turn.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        this.mapFile = BenchmarkMaps.resolve(this.mapName);
+        this.map = new Map(this.mapFile);
+
+        java.io.File compiled = java.io.File.createTempFile(this.mapName, ".wkmp");
+        compiled.deleteOnExit();
+        this.compiledFile = compiled.getPath();
+        this.map.compile(this.compiledFile);
+
+        this.probes = new Waka[this.map.getRows() * this.map.getCols()];
+        for (int i = 0; i < this.map.getRows(); i ++) {
+            for (int j = 0; j < this.map.getCols(); j ++) {
+                Waka probe = new Waka(j, i, 1);
+                int index = i * this.map.getCols() + j;
+                probe.setNextMove(State.values()[index % 4]);
+                this.probes[index] = probe;
+            }
+        }
+        this.next = 0;
+    }
+
+    @Benchmark
+    public Map loadMap() throws Exception {
+        return new Map(this.mapFile);
+    }
+
+    @Benchmark
+    public Map loadCompiledMap() throws Exception {
+        return new Map(this.compiledFile);
+    }
+
+    @Benchmark
+    public boolean checkWallCollision() {
+
+        Waka probe = this.probes[this.next];
+        this.next = (this.next + 1) % this.probes.length;
+        return this.map.checkWallCollision(probe, true);
+    }
+}
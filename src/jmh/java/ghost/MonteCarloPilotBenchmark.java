@@ -0,0 +1,69 @@
+package ghost;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures how many futures a MonteCarloPilot simulates per second with each number of threads.
+ * Decisions take the whole time allowed, so the rate of decisions stays the same and the
+ * simulated futures are reported alongside as "iterations".
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MonteCarloPilotBenchmark {
+
+    @Param({"map.txt", "generated-8"})
+    public String mapName;
+
+    @Param({"objects", "swarm"})
+    public String ghostStore;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    /**
+     * Counts the futures simulated during each iteration of the benchmark.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    public static class Counters {
+        public long iterations;
+    }
+
+    private GameManager game;
+    private MonteCarloPilot pilot;
+
+    /**
+     * Plays a game for a few seconds, until the Waka reaches a tile where it can choose between
+     * directions.
+     */
+    @Setup(Level.Trial)
+    public void playGame() throws Exception {
+        Settings settings = BenchmarkMaps.settings(BenchmarkMaps.resolve(this.mapName));
+        settings.setGhostSwarm(this.ghostStore.equals("swarm"));
+        this.game = new GameManager(settings);
+        for (int i = 0; i < 300; i ++) {
+            this.game.tick();
+        }
+
+        Waka player = this.game.getPlayer();
+        while ((player.getX() % GameObject.SPRITE_SIZE != 0) 
+                || (player.getY() % GameObject.SPRITE_SIZE != 0) 
+                || (Integer.bitCount(this.game.getMap().getExits(player.getX(), 
+                        player.getY())) < 2)) {
+            this.game.tick();
+            player = this.game.getPlayer();
+        }
+        this.pilot = new MonteCarloPilot(4000000L, this.threads, 1);
+    }
+
+    @Benchmark
+    public ghost.State decide(Counters counters) {
+        long iterations = this.pilot.getIterations();
+        ghost.State move = this.pilot.nextMove(this.game);
+        counters.iterations += this.pilot.getIterations() - iterations;
+        return move;
+    }
+}
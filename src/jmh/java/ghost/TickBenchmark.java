@@ -0,0 +1,91 @@
+package ghost;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures a full game tick, i.e. collisions, player and ghost movement and fruit consumption.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TickBenchmark {
+
+    @Param({"map.txt", "map1.txt", "generated-2", "generated-4", "generated-8", "generated-50"})
+    public String mapName;
+
+    /**
+     * Either "objects" for a Ghost object each or "swarm" for a GhostSwarm. The largest generated
+     * map holds 10,000 Ghosts.
+     */
+    @Param({"objects", "swarm"})
+    public String ghostStore;
+
+    /**
+     * Places the Waka on a different Fruit before each call of eatFruit, so that every call eats
+     * one. Once every Fruit has been eaten, a new game is started.
+     */
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    public static class Fruits {
+        private GameManager game;
+        private int[] tiles;
+        private int count;
+        private int next;
+
+        @Setup(Level.Invocation)
+        public void placePlayer(TickBenchmark benchmark) throws Exception {
+            if (this.game != benchmark.game) {
+                this.game = benchmark.game;
+                this.tiles = new int[this.game.getFruits().getRemaining()];
+                this.count = this.game.getFruits().getTiles(this.tiles);
+                this.next = 0;
+
+            } else if (this.next == this.count) {
+                benchmark.game = new GameManager(benchmark.settings);
+                this.game = benchmark.game;
+                this.count = this.game.getFruits().getTiles(this.tiles);
+                this.next = 0;
+            }
+
+            int cols = this.game.getMap().getCols();
+            int tile = this.tiles[this.next ++];
+            Waka player = this.game.getPlayer();
+            player.x = (tile % cols) * GameObject.SPRITE_SIZE;
+            player.y = (tile / cols) * GameObject.SPRITE_SIZE;
+        }
+    }
+
+    private Settings settings;
+    private GameManager game;
+
+    @Setup(Level.Trial)
+    public void loadSettings() throws Exception {
+        this.settings = BenchmarkMaps.settings(BenchmarkMaps.resolve(this.mapName));
+        this.settings.setGhostSwarm(this.ghostStore.equals("swarm"));
+    }
+
+    /**
+     * Starts every iteration from a new game so that each one measures a comparable game phase.
+     * A game that ends during an iteration is restarted, so only live play is measured.
+     */
+    @Setup(Level.Iteration)
+    public void newGame() throws Exception {
+        this.game = new GameManager(this.settings);
+    }
+
+    @Benchmark
+    public int tick() {
+        if (!this.game.isRunning()) {
+            this.game.restart();
+        }
+        this.game.tick();
+        return this.game.getTicks();
+    }
+
+    @Benchmark
+    public int eatFruit(Fruits fruits) {
+        this.game.eatFruit();
+        return this.game.getFruits().getRemaining();
+    }
+}
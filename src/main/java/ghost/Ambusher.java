@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
  * Ambusher Class represents the Ambusher type Ghost.
@@ -15,17 +14,24 @@ public class Ambusher extends Ghost {
      * @param x starting x coordinate
      * @param y starting y coordinate
      * @param speed movement speed
-     * @param app
      */
-    public Ambusher(int x, int y, int speed, PApplet app) {
+    public Ambusher(int x, int y, int speed) {
 
-        super(x, y, speed, app);
-        this.sprite = app.loadImage("src/main/resources/ambusher.png");
-        this.normalSprite = this.sprite;
+        super(x, y, speed);
         this.orientation = State.RIGHT;
         this.nextMove = State.RIGHT;
     }
 
+    /**
+     * Loads the Ambusher and frightened sprites.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {
+        super.loadSprite(app);
+        this.normalSprite = Assets.getImage(app, "ambusher.png");
+    }
+
     /**
      * In Scatter mode, Ambusher targets top right corner of the Map. In Chase mode, Ambusher
      * targets the grid coordinate four spaces ahead of Waka's current direction.
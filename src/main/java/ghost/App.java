@@ -1,22 +1,58 @@
 package ghost;
 
+import java.io.*;
+
 import processing.core.PApplet;
 import processing.core.PImage;
 import processing.core.PFont;
 
 /**
- * App class draws the main body of the game as it runs.
+ * App class draws the main body of the game as it runs. The game itself is simulated by the
+ * GameManager; App only renders it and passes on key commands.
  */
 public class App extends PApplet {
 
     public static final int WIDTH = 448;
     public static final int HEIGHT = 576;
     public static final int FPS = 60;
+    public static final String CONFIG = "config.json";
     private PFont font;
-    private int frameCount;
+    private int endTime;
     boolean showText;
 
+    private long tickLength;
+    private long lastTime;
+    private long accumulator;
+    private int maxCatchUpTicks;
+    private boolean interpolate;
+    private boolean dirtyRendering;
+
     private GameManager game;
+    private Replay replay;
+    private String recordDirectory;
+    private ReplayWriter recorder;
+    private ConfigWatcher watcher;
+
+    /**
+     * Passes key presses from the event thread to the game loop, which takes them at the start
+     * of each tick, or checks them for a restart once the game has ended.
+     */
+    private InputQueue input;
+    private boolean restartPressed;
+
+    /**
+     * Steers the Waka in place of the player, e.g. as an attract mode, until the player presses
+     * a movement key.
+     */
+    private Pilot pilot;
+    private String autopilot;
+
+    /**
+     * Stores the seed given on the command line, if any, and whether every game is seeded from
+     * the clock rather than with a given seed.
+     */
+    private Long seed;
+    private boolean clockSeed;
 
     /**
      * Creates an instance of App.
@@ -24,19 +60,227 @@ public class App extends PApplet {
     public App() {}
 
     /**
-     * Sets up the framerate, font and game managing system to be used in the App.
+     * Sets up the framerate, font and game managing system to be used in the App. Unless a
+     * replay is being played back, the configuration file and Map are watched from then on, and
+     * any changes to them are swapped into the running App.
      */
     public void setup() {
 
         frameRate(FPS);
 
-        font = this.createFont("src/main/resources/PressStart2P-Regular.ttf", 44);
+        font = Assets.getFont(this, "PressStart2P-Regular.ttf", 44);
         this.textFont(font);
         this.textAlign(CENTER);
-        this.frameCount = 0;
+        this.endTime = -1;
         this.showText = true;
+        this.input = new InputQueue();
+
+        Settings settings = new Settings();
+        settings.parseConfigFile(CONFIG);
+
+        try {
+            this.parseArguments(settings);
+
+            // Replays are played with the settings they were recorded with.
+            if (this.replay != null) {
+                this.game = this.replay.newGame();
+            } else {
+                this.game = new GameManager(settings);
+                this.clockSeed = !settings.isSeeded();
+                this.startRecording(settings);
+            }
+            this.game.setInput(this.input);
+
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+
+        if (this.replay == null) {
+            try {
+                this.watcher = new ConfigWatcher(CONFIG, settings.getMapName(), this::override);
+            } catch (IOException e) {
+                System.out.println("Error: " + CONFIG + " cannot be watched for changes.");
+            }
+        }
+        this.applySettings(this.game.getSettings());
+    }
+
+    /**
+     * Takes the timing and rendering settings of the current game and restarts the game clock.
+     * 
+     * @param settings the settings of the current game.
+     */
+    private void applySettings(Settings settings) {
+
+        // The game is simulated at its own tick rate regardless of the frame rate.
+        this.tickLength = 1000000000L / settings.getTickRate();
+        this.lastTime = System.nanoTime();
+        this.accumulator = 0;
+        this.maxCatchUpTicks = settings.getMaxCatchUpTicks();
+        this.interpolate = settings.getInterpolate();
+        this.dirtyRendering = settings.getDirtyRendering();
+
+        // Every game starts under the autopilot, if there is one, even if the player took over
+        // the last.
+        this.pilot = (this.replay == null) ? Pilot.of(settings) : null;
+    }
+
+    /**
+     * Restarts the game once it has ended. The game is restored to the state it started in
+     * rather than created again, so nothing has to be loaded or decoded. Games seeded from the
+     * clock are given a new seed.
+     */
+    private void restart() {
+
+        this.finishRecording();
+        this.endTime = -1;
+        this.showText = true;
+
+        try {
+            if (this.replay != null) {
+                this.game = this.replay.newGame();
+                this.game.setInput(this.input);
+            } else {
+                Settings settings = this.game.getSettings();
+                if (this.clockSeed) {
+                    settings.setSeed(System.nanoTime());
+                }
+                this.game.restart();
+                this.startRecording(settings);
+            }
+
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        this.applySettings(this.game.getSettings());
+    }
+
+    /**
+     * Swaps in the game prepared from changes to the configuration file or Map, if there is one.
+     * The current game is ended and the new one started in its place.
+     */
+    private void reload() {
+
+        GameManager next = (this.watcher != null) ? this.watcher.poll() : null;
+        if (next == null) {
+            return;
+        }
+        this.finishRecording();
+        this.game = next;
+        this.game.setInput(this.input);
+        this.clockSeed = !next.getSettings().isSeeded();
+        this.endTime = -1;
+        this.showText = true;
+
+        try {
+            this.startRecording(next.getSettings());
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+        this.applySettings(next.getSettings());
+    }
+
+    /**
+     * Applies the command line arguments that override the configuration file to reloaded
+     * settings.
+     * 
+     * @param settings the settings parsed from the configuration file.
+     */
+    private void override(Settings settings) {
+
+        if (this.seed != null) {
+            settings.setSeed(this.seed);
+        }
+        if (this.autopilot != null) {
+            settings.setAutopilot(this.autopilot);
+        }
+    }
+
+    /**
+     * Overrides settings with any given command line arguments, i.e. "--seed <seed>", 
+     * "--record <directory>" to record every game into the directory, "--replay <file>" to
+     * play back a recorded game, and "--autopilot <off|greedy|mcts>" to choose what steers the
+     * Waka until a movement key is pressed.
+     * 
+     * @param settings the game settings parsed from the configuration file.
+     */
+    private void parseArguments(Settings settings) throws IOException {
+
+        if (this.args == null) {
+            return;
+        }
+        for (int i = 0; i < this.args.length - 1; i ++) {
+            if (this.args[i].equals("--seed")) {
+                this.seed = Long.parseLong(this.args[i + 1]);
+                settings.setSeed(this.seed);
+
+            } else if (this.args[i].equals("--record")) {
+                this.recordDirectory = this.args[i + 1];
 
-        this.game = new GameManager(this);
+            } else if (this.args[i].equals("--replay") && (this.replay == null)) {
+                this.replay = new Replay(this.args[i + 1]);
+
+            } else if (this.args[i].equals("--autopilot")) {
+                this.autopilot = this.args[i + 1];
+                settings.setAutopilot(this.autopilot);
+            }
+        }
+    }
+
+    /**
+     * Starts recording the current game into a new replay file if recording is enabled.
+     * 
+     * @param settings the settings of the current game.
+     */
+    private void startRecording(Settings settings) throws IOException {
+
+        if (this.recordDirectory == null) {
+            return;
+        }
+        File directory = new File(this.recordDirectory);
+        directory.mkdirs();
+        String filename = "game-" + System.currentTimeMillis() + ".wkrp";
+
+        this.recorder = new ReplayWriter(new File(directory, filename).getPath(), settings);
+        this.game.setRecorder(this.recorder);
+    }
+
+    /**
+     * Ends the recording of the current game, if it is being recorded.
+     */
+    private void finishRecording() {
+
+        if (this.recorder != null) {
+            this.recorder.finish(this.game.getTicks());
+            this.game.setRecorder(null);
+            this.recorder = null;
+        }
+    }
+
+    /**
+     * Finishes writing any recording before the application exits.
+     */
+    public void exit() {
+
+        ReplayWriter recorder = this.recorder;
+        this.finishRecording();
+        if (this.watcher != null) {
+            try {
+                this.watcher.close();
+            } catch (IOException e) {
+                System.out.println("Error: Watching " + CONFIG + " could not be stopped.");
+            }
+        }
+        if (recorder != null) {
+            try {
+                recorder.await();
+            } catch (IOException | InterruptedException e) {
+                System.out.println("Error: Replay could not be saved.");
+            }
+        }
+        super.exit();
     }
 
     /**
@@ -47,16 +291,58 @@ public class App extends PApplet {
     }
 
     /**
-     * Draws in all GameObjects as directed by the GameManager.
+     * Draws in all GameObjects as directed by the GameManager. The game is advanced by as many
+     * fixed ticks as real time has passed since the last frame, up to the catch up limit. When
+     * rendering dirty regions, the screen is kept between frames while the game runs. A game
+     * reloaded from changed files is swapped in before the first tick of a frame.
      */
-    public void draw() { 
+    public void draw() {
 
-        background(0, 0, 0);
+        this.reload();
+        if (!this.dirtyRendering || !this.game.isRunning()) {
+            background(0, 0, 0);
+        }
 
         // Draws in GameObjects as long as GameSystem is active and running.
         if (this.game.isRunning()) {
-            this.game.tick(this);
-            this.game.draw(this);
+            long now = System.nanoTime();
+            this.accumulator += now - this.lastTime;
+            this.lastTime = now;
+
+            int ticks = 0;
+            while ((this.accumulator >= this.tickLength) && this.game.isRunning()) {
+                if (ticks == this.maxCatchUpTicks) {
+                    // Drops the backlog rather than stalling to catch up after a long pause.
+                    this.accumulator = 0;
+                    break;
+                }
+                if (this.replay != null) {
+                    this.replay.apply(this.game);
+                } else if ((this.pilot != null) && !this.game.hasPlayerInput()) {
+                    State move = this.pilot.nextMove(this.game);
+                    if (move != null) {
+                        this.game.setPlayerMove(move);
+                    }
+                }
+                this.game.tick();
+                this.accumulator -= this.tickLength;
+                ticks ++;
+            }
+
+            float alpha = 1;
+            if (this.interpolate) {
+                alpha = (float) this.accumulator / this.tickLength;
+            }
+            if (this.dirtyRendering) {
+                this.game.drawDirty(this, alpha);
+            } else {
+                this.game.draw(this, alpha);
+            }
+
+            if (!this.game.isRunning()) {
+                this.finishRecording();
+                this.endTime = this.millis();
+            }
 
         } else {
 
@@ -69,50 +355,64 @@ public class App extends PApplet {
             }
             this.text(endText, WIDTH / 2, 235);
             
-            // Reloads game after 10 seconds.
-            this.frameCount ++;
-            if (this.frameCount > 10 * 60) {
-                this.setup();
+            // Reloads game after 10 seconds, or as soon as the spacebar is pressed.
+            if (this.endTime < 0) {
+                this.endTime = this.millis();
+            }
+            int elapsed = this.millis() - this.endTime;
+            this.restartPressed = false;
+            this.input.drain(this::takeRestartKey);
+            if (this.restartPressed || (elapsed > 10 * 1000)) {
+                this.restart();
 
             } else {
                 // Draws in remaining seconds until restart
                 this.textFont(font, 15);
                 String reloadText = "Restarting in... ";
-                this.text(reloadText + (10 - this.frameCount / 60), (WIDTH - WIDTH / 3 - 15), 40);
+                this.text(reloadText + (10 - elapsed / 1000), (WIDTH - WIDTH / 3 - 15), 40);
                 this.textFont(font);
 
-                // Flashes force restart text
+                // Flashes force restart text every half second
+                showText = ((elapsed / 500) % 2) == 0;
                 if (showText) {
                     this.textFont(font, 24);
                     this.textLeading(50);
                     this.text("Press\n[ Spacebar ]\nto restart", WIDTH / 2, 340);
                     this.textFont(font);
                 }
-                if ((this.frameCount % 30) == 0) {
-                    showText = !showText;
-                }
             }
         }
         
     }
 
     /**
-     * Either restarts game from Game Over page when spacebar is pressed or passes any received
-     * key commands to be processed by the GameManager.
+     * Queues received key commands for the game loop, which either restarts the game from the
+     * Game Over page when spacebar is pressed or passes them on to the GameManager. Called on
+     * the event thread, so nothing else is touched here. Movement keys are ignored while a
+     * replay is being played back, and take over from the autopilot until the game ends.
      */
     public void keyPressed() {
 
-        if ((keyCode == 32) && (!this.game.isRunning())) {
-            this.setup();
-        } else {
-            this.game.keyCommands(keyCode, this);
+        if ((this.replay == null) || (keyCode == 32)) {
+            if (!this.input.offer(keyCode, System.nanoTime())) {
+                System.out.println("Error: Input queue is full.");
+            }
         }
     }
 
+    /**
+     * Notes a spacebar press taken from the input queue while the game has ended. Other keys
+     * are dropped.
+     */
+    private boolean takeRestartKey(int key, long time) {
+        this.restartPressed = this.restartPressed || (key == 32);
+        return true;
+    }
+
     /**
      * Initiates the Application and game.
      */
     public static void main(String[] args) {
-        PApplet.main("ghost.App");
+        PApplet.main("ghost.App", args);
     }
 }
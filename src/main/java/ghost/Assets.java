@@ -0,0 +1,84 @@
+package ghost;
+
+import java.util.*;
+
+import processing.core.PApplet;
+import processing.core.PFont;
+import processing.core.PImage;
+
+/**
+ * Assets class is the central registry of game images and fonts. Every resource is decoded the
+ * first time it is requested and the same instance is handed out to every object afterwards, so
+ * the number of decoded images does not grow with the size of the Map or with game restarts.
+ */
+public class Assets {
+
+    /**
+     * The directory all game resources are loaded from.
+     */
+    public static final String RESOURCES = "src/main/resources/";
+
+    private static final HashMap<String, PImage> images = new HashMap<String, PImage>();
+    private static final HashMap<String, PFont> fonts = new HashMap<String, PFont>();
+
+    /**
+     * Returns the shared image with the given file name, decoding it if it has not been loaded.
+     * 
+     * @param app
+     * @param name the file name of the image within the resources directory.
+     * @return the shared image.
+     */
+    public static PImage getImage(PApplet app, String name) {
+
+        PImage image = images.get(name);
+        if (image == null) {
+            GameEvents.AssetLoad event = new GameEvents.AssetLoad();
+            event.begin();
+            image = app.loadImage(RESOURCES + name);
+            images.put(name, image);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.name = name;
+                event.kind = "image";
+                if (image != null) {
+                    event.width = image.width;
+                    event.height = image.height;
+                    event.bytes = 4L * image.width * image.height;
+                }
+                event.commit();
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Returns the shared font with the given file name and size, creating it if it has not been
+     * loaded.
+     * 
+     * @param app
+     * @param name the file name of the font within the resources directory.
+     * @param size the font size.
+     * @return the shared font.
+     */
+    public static PFont getFont(PApplet app, String name, int size) {
+
+        String key = name + ":" + size;
+        PFont font = fonts.get(key);
+        if (font == null) {
+            GameEvents.AssetLoad event = new GameEvents.AssetLoad();
+            event.begin();
+            font = app.createFont(RESOURCES + name, size);
+            fonts.put(key, font);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.name = name;
+                event.kind = "font";
+                event.width = size;
+                event.commit();
+            }
+        }
+        return font;
+    }
+}
@@ -0,0 +1,333 @@
+package ghost;
+
+import java.util.*;
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * BatchRunner simulates many games without a window to compare game settings. Every combination
+ * of the given settings values is played a number of times on every given map, with a
+ * GreedyPilot or MonteCarloPilot steering the Waka, and the result of each game is written to a
+ * CSV file.
+ * 
+ * Games run in parallel on a pool of threads, but each game owns its own GameManager, Map and
+ * random generator, and results are written in the order games were scheduled, so the output
+ * only depends on the arguments and the seed.
+ * 
+ * Usage: BatchRunner [--maps map.txt,map1.txt] [--lives 3,5] [--speed 1,2] [--frightened 5,7]
+ * [--modes "7,20,7,20;5,10,5,10"] [--targeting euclidean,maze] [--runs 100] [--seed 1]
+ * [--max-ticks 36000] [--threads 8] [--pilot greedy|mcts] [--budget 200] [--out batch.csv].
+ * Values that are not given are taken from "config.json". Each MonteCarloPilot searches on a
+ * single thread, as games already run in parallel, and its budget is a number of simulated
+ * futures per decision rather than a time, so its moves do not depend on the machine's speed.
+ */
+public class BatchRunner {
+
+    /**
+     * The default number of futures a MonteCarloPilot simulates per decision.
+     */
+    public static final int DEFAULT_ITERATIONS = 200;
+
+    /**
+     * The time allowed for each decision of a MonteCarloPilot, long enough for the number of
+     * futures to always run out first.
+     */
+    private static final long UNTIMED = 3600L * 1000000000L;
+
+    /**
+     * The outcome of a single simulated game.
+     */
+    public static class Result {
+        public int ticks;
+        public int fruitsEaten;
+        public int livesLost;
+        public boolean win;
+    }
+
+    private List<String> maps;
+    private List<Integer> lives;
+    private List<Integer> speeds;
+    private List<Integer> frightenedLengths;
+    private List<int[]> modeLengths;
+    private List<Boolean> mazeTargeting;
+    private int runs;
+    private long seed;
+    private int maxTicks;
+    private int threads;
+    private String pilot;
+    private int iterations;
+    private String output;
+
+    /**
+     * Creates an instance of BatchRunner that varies nothing but the seed of the given settings.
+     * 
+     * @param settings the default game settings.
+     */
+    public BatchRunner(Settings settings) {
+
+        this.maps = new ArrayList<String>(Arrays.asList(settings.getMapName()));
+        this.lives = new ArrayList<Integer>(Arrays.asList(settings.getPlayerLives()));
+        this.speeds = new ArrayList<Integer>(Arrays.asList(settings.getSpeed()));
+        this.frightenedLengths = new ArrayList<Integer>(
+                Arrays.asList(settings.getFrightenedLength()));
+        this.modeLengths = new ArrayList<int[]>();
+        this.modeLengths.add(settings.getGhostModes());
+        this.mazeTargeting = new ArrayList<Boolean>(Arrays.asList(settings.getMazeTargeting()));
+
+        this.runs = 100;
+        this.seed = settings.getSeed();
+        this.maxTicks = 10 * 60 * 60;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.pilot = settings.getAutopilot().equals("mcts") ? "mcts" : "greedy";
+        this.iterations = DEFAULT_ITERATIONS;
+        this.output = "batch.csv";
+    }
+
+    /**
+     * Overrides the defaults with the given command line arguments.
+     * 
+     * @param args the command line arguments.
+     */
+    public void parseArguments(String[] args) {
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            String value = args[i + 1];
+
+            switch (args[i]) {
+                case "--maps":
+                    this.maps = new ArrayList<String>(Arrays.asList(value.split(",")));
+                    break;
+                case "--lives":
+                    this.lives = BatchRunner.parseInts(value);
+                    break;
+                case "--speed":
+                    this.speeds = BatchRunner.parseInts(value);
+                    break;
+                case "--frightened":
+                    this.frightenedLengths = BatchRunner.parseInts(value);
+                    break;
+                case "--modes":
+                    this.modeLengths = new ArrayList<int[]>();
+                    for (String modes : value.split(";")) {
+                        List<Integer> lengths = BatchRunner.parseInts(modes);
+                        int[] array = new int[lengths.size()];
+                        for (int j = 0; j < array.length; j ++) {
+                            array[j] = lengths.get(j);
+                        }
+                        this.modeLengths.add(array);
+                    }
+                    break;
+                case "--targeting":
+                    this.mazeTargeting = new ArrayList<Boolean>();
+                    for (String targeting : value.split(",")) {
+                        if (!targeting.equals("maze") && !targeting.equals("euclidean")) {
+                            throw new IllegalArgumentException("Unknown targeting: " + targeting);
+                        }
+                        this.mazeTargeting.add(targeting.equals("maze"));
+                    }
+                    break;
+                case "--runs":
+                    this.runs = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    this.seed = Long.parseLong(value);
+                    break;
+                case "--max-ticks":
+                    this.maxTicks = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    this.threads = Integer.parseInt(value);
+                    break;
+                case "--pilot":
+                    if (!value.equals("greedy") && !value.equals("mcts")) {
+                        throw new IllegalArgumentException("Unknown pilot: " + value);
+                    }
+                    this.pilot = value;
+                    break;
+                case "--budget":
+                    this.iterations = Integer.parseInt(value);
+                    if (this.iterations <= 0) {
+                        throw new IllegalArgumentException("The budget must be positive");
+                    }
+                    break;
+                case "--out":
+                    this.output = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the settings for every combination of the values to be varied.
+     * 
+     * @return the list of settings combinations.
+     */
+    public List<Settings> settingsGrid() {
+
+        List<Settings> grid = new ArrayList<Settings>();
+        for (String map : this.maps) {
+            for (int lives : this.lives) {
+                for (int speed : this.speeds) {
+                    for (int frightenedLength : this.frightenedLengths) {
+                        for (int[] modes : this.modeLengths) {
+                            for (boolean maze : this.mazeTargeting) {
+                                Settings settings = new Settings();
+                                settings.setMapName(map);
+                                settings.setPlayerLives(lives);
+                                settings.setSpeed(speed);
+                                settings.setFrightenedLength(frightenedLength);
+                                settings.setGhostModes(modes);
+                                settings.setMazeTargeting(maze);
+                                settings.setAutopilot(this.pilot);
+                                grid.add(settings);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Plays every combination of settings the given number of times and writes the results.
+     */
+    public void run() throws IOException, InterruptedException, ExecutionException {
+
+        List<Settings> grid = this.settingsGrid();
+        SplittableRandom seeds = new SplittableRandom(this.seed);
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        
+        // Seeds are drawn in scheduling order so every game's seed is fixed up front.
+        List<Settings> games = new ArrayList<Settings>();
+        List<Future<Result>> results = new ArrayList<Future<Result>>();
+        for (Settings combination : grid) {
+            for (int i = 0; i < this.runs; i ++) {
+                final Settings settings = BatchRunner.copy(combination);
+                settings.setSeed(seeds.nextLong());
+                final int maxTicks = this.maxTicks;
+                final int iterations = this.iterations;
+                games.add(settings);
+                results.add(pool.submit(() -> BatchRunner.play(settings, maxTicks, iterations)));
+            }
+        }
+
+        int[] wins = new int[grid.size()];
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(output)))) {
+            writer.println("run,map,lives,speed,frightenedLength,modeLengths,targeting,seed," 
+                    + "ticks,fruitsEaten,livesLost,win");
+
+            for (int i = 0; i < results.size(); i ++) {
+                Settings settings = games.get(i);
+                Result result = results.get(i).get();
+                if (result.win) {
+                    wins[i / this.runs] ++;
+                }
+
+                StringJoiner modes = new StringJoiner(" ");
+                for (int length : settings.getGhostModes()) {
+                    modes.add(String.valueOf(length));
+                }
+                writer.println(i + "," + settings.getMapName() + "," + settings.getPlayerLives() 
+                        + "," + settings.getSpeed() + "," + settings.getFrightenedLength() + "," 
+                        + modes + "," + BatchRunner.targeting(settings) + "," 
+                        + settings.getSeed() + "," + result.ticks + "," 
+                        + result.fruitsEaten + "," + result.livesLost + "," + result.win);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < grid.size(); i ++) {
+            Settings settings = grid.get(i);
+            System.out.println(settings.getMapName() + " lives=" + settings.getPlayerLives() 
+                    + " speed=" + settings.getSpeed() + " frightened=" 
+                    + settings.getFrightenedLength() + " modes=" 
+                    + Arrays.toString(settings.getGhostModes()) + " targeting=" 
+                    + BatchRunner.targeting(settings) + " win rate=" 
+                    + ((double) wins[i] / this.runs));
+        }
+    }
+
+    /**
+     * Plays a single game to the end, or until the tick limit is reached, steered by the Pilot
+     * named in the settings: a MonteCarloPilot for "mcts" and a GreedyPilot otherwise.
+     * 
+     * @param settings the settings of the game.
+     * @param maxTicks the maximum number of ticks to simulate.
+     * @param iterations the number of futures a MonteCarloPilot simulates per decision.
+     * @return the result of the game.
+     * @throws IOException if the Map file cannot be read or is not a valid layout.
+     */
+    public static Result play(Settings settings, int maxTicks, int iterations) 
+            throws IOException {
+
+        GameManager game = new GameManager(settings);
+        Pilot pilot;
+        if (settings.getAutopilot().equals("mcts")) {
+            MonteCarloPilot search = new MonteCarloPilot(UNTIMED, 1, settings.getSeed());
+            search.setMaxIterations(iterations);
+            pilot = search;
+        } else {
+            pilot = new GreedyPilot();
+        }
+        int fruits = game.getFruits().getRemaining();
+
+        while (game.isRunning() && (game.getTicks() < maxTicks)) {
+            State move = pilot.nextMove(game);
+            if (move != null) {
+                game.setPlayerMove(move);
+            }
+            game.tick();
+        }
+
+        Result result = new Result();
+        result.ticks = game.getTicks();
+        result.fruitsEaten = fruits - game.getFruits().getRemaining();
+        result.livesLost = settings.getPlayerLives() - game.getPlayerLives();
+        result.win = game.playerWin();
+        return result;
+    }
+
+    private static String targeting(Settings settings) {
+        return settings.getMazeTargeting() ? "maze" : "euclidean";
+    }
+
+    private static Settings copy(Settings settings) {
+
+        Settings copy = new Settings();
+        copy.setMapName(settings.getMapName());
+        copy.setPlayerLives(settings.getPlayerLives());
+        copy.setSpeed(settings.getSpeed());
+        copy.setTickRate(settings.getTickRate());
+        copy.setMazeTargeting(settings.getMazeTargeting());
+        copy.setFrightenedLength(settings.getFrightenedLength());
+        copy.setGhostModes(settings.getGhostModes());
+        copy.setSeed(settings.getSeed());
+        copy.setAutopilot(settings.getAutopilot());
+        copy.setAutopilotBudget(settings.getAutopilotBudget());
+        copy.setAutopilotThreads(settings.getAutopilotThreads());
+        return copy;
+    }
+
+    private static List<Integer> parseInts(String values) {
+
+        List<Integer> ints = new ArrayList<Integer>();
+        for (String value : values.split(",")) {
+            ints.add(Integer.parseInt(value.trim()));
+        }
+        return ints;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+
+        BatchRunner runner = new BatchRunner(settings);
+        runner.parseArguments(args);
+        runner.run();
+    }
+}
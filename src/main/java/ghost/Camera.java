@@ -0,0 +1,125 @@
+package ghost;
+
+/**
+ * Camera class defines the part of the Map that is shown in the window. The camera follows a
+ * target, keeping it in the centre of the viewport until the viewport reaches an edge of the Map.
+ * Maps no larger than the viewport are shown from their top left corner, as they always were.
+ */
+public class Camera {
+
+    private int width;
+    private int height;
+    private int x;
+    private int y;
+
+    /**
+     * Creates an instance of Camera with a viewport of the given size, showing the top left
+     * corner of the Map.
+     *
+     * @param width the viewport width in pixels.
+     * @param height the viewport height in pixels.
+     */
+    public Camera(int width, int height) {
+
+        this.width = width;
+        this.height = height;
+        this.x = 0;
+        this.y = 0;
+    }
+
+    /**
+     * Creates an instance of Camera with a fixed viewport, e.g. to draw only part of the Map.
+     *
+     * @param x the left edge of the viewport, in pixels.
+     * @param y the top edge of the viewport, in pixels.
+     * @param width the viewport width in pixels.
+     * @param height the viewport height in pixels.
+     */
+    public Camera(int x, int y, int width, int height) {
+
+        this.width = width;
+        this.height = height;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Moves the viewport so that the given position is in its centre, without showing anything
+     * beyond the edges of the Map.
+     *
+     * @param xTarget the x position to be followed.
+     * @param yTarget the y position to be followed.
+     * @param map the game map.
+     */
+    public void follow(float xTarget, float yTarget, Map map) {
+
+        int mapWidth = map.getCols() * GameObject.SPRITE_SIZE;
+        int mapHeight = map.getRows() * GameObject.SPRITE_SIZE;
+        this.x = Camera.clamp(Math.round(xTarget) - this.width / 2, mapWidth - this.width);
+        this.y = Camera.clamp(Math.round(yTarget) - this.height / 2, mapHeight - this.height);
+    }
+
+    public int getX() {
+        return this.x;
+    }
+
+    public int getY() {
+        return this.y;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the first tile column that is at least partly inside the viewport.
+     *
+     * @return the first visible column, which may be outside the Map.
+     */
+    public int getFirstCol() {
+        return Math.floorDiv(this.x, GameObject.SPRITE_SIZE);
+    }
+
+    /**
+     * Returns the last tile column that is at least partly inside the viewport.
+     *
+     * @return the last visible column, which may be outside the Map.
+     */
+    public int getLastCol() {
+        return Math.floorDiv(this.x + this.width - 1, GameObject.SPRITE_SIZE);
+    }
+
+    /**
+     * Returns the first tile row that is at least partly inside the viewport.
+     *
+     * @return the first visible row, which may be outside the Map.
+     */
+    public int getFirstRow() {
+        return Math.floorDiv(this.y, GameObject.SPRITE_SIZE);
+    }
+
+    /**
+     * Returns the last tile row that is at least partly inside the viewport.
+     *
+     * @return the last visible row, which may be outside the Map.
+     */
+    public int getLastRow() {
+        return Math.floorDiv(this.y + this.height - 1, GameObject.SPRITE_SIZE);
+    }
+
+    /**
+     * Limits a viewport position to the range from 0 to the given maximum, or 0 if the Map is
+     * smaller than the viewport.
+     */
+    private static int clamp(int position, int max) {
+
+        if ((max <= 0) || (position < 0)) {
+            return 0;
+        }
+        return Math.min(position, max);
+    }
+}
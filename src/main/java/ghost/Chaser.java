@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
  * Chaser Class represents the Chaser type Ghost.
@@ -15,13 +14,20 @@ public class Chaser extends Ghost {
      * @param x starting x coordinate
      * @param y starting y coordinate 
      * @param speed movement speed
-     * @param app
      */
-    public Chaser(int x, int y, int speed, PApplet app) {
+    public Chaser(int x, int y, int speed) {
         
-        super(x, y, speed, app);
-        this.sprite = app.loadImage("src/main/resources/chaser.png");
-        this.normalSprite = this.sprite;
+        super(x, y, speed);
+    }
+
+    /**
+     * Loads the Chaser and frightened sprites.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {
+        super.loadSprite(app);
+        this.normalSprite = Assets.getImage(app, "chaser.png");
     }
 
     /**
@@ -0,0 +1,167 @@
+package ghost;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * ConfigWatcher watches the configuration file and the Map it names for changes. Whenever either
+ * is saved, a background thread parses the configuration and loads the Map into a new game, so
+ * the game loop only has to swap the prepared game in between two ticks. Invalid files are
+ * reported and ignored, leaving the current game running.
+ */
+public class ConfigWatcher implements Closeable {
+
+    /**
+     * How long to wait for more changes after a file changes, in milliseconds. Editors often
+     * save a file in several writes.
+     */
+    public static final long SETTLE_TIME = 200;
+
+    private final Path config;
+    private final Consumer<Settings> overrides;
+    private final WatchService watcher;
+    private final Set<Path> directories;
+    private final AtomicReference<GameManager> pending;
+    private final Thread thread;
+    private volatile Path map;
+
+    /**
+     * Starts watching the given configuration file and Map.
+     *
+     * @param configFile the game configuration file.
+     * @param mapFile the Map the configuration currently names.
+     * @param overrides applied to every reloaded configuration, e.g. command line arguments.
+     * @throws IOException if the files cannot be watched.
+     */
+    public ConfigWatcher(String configFile, String mapFile, Consumer<Settings> overrides)
+            throws IOException {
+
+        this.config = Paths.get(configFile).toAbsolutePath().normalize();
+        this.overrides = overrides;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        this.directories = new HashSet<Path>();
+        this.pending = new AtomicReference<GameManager>();
+
+        this.watch(this.config);
+        if (mapFile != null) {
+            this.map = Paths.get(mapFile).toAbsolutePath().normalize();
+            this.watch(this.map);
+        }
+
+        this.thread = new Thread(this::run, "config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the game prepared from the latest changes, if there is one that has not been
+     * taken yet.
+     *
+     * @return the new game, or null if nothing has changed.
+     */
+    public GameManager poll() {
+        return this.pending.getAndSet(null);
+    }
+
+    /**
+     * Stops watching the files.
+     */
+    public void close() throws IOException {
+        this.thread.interrupt();
+        this.watcher.close();
+    }
+
+    /**
+     * Registers the directory of a file with the watch service, unless it is already watched.
+     */
+    private void watch(Path file) throws IOException {
+
+        Path directory = file.getParent();
+        if (this.directories.add(directory)) {
+            directory.register(this.watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+    }
+
+    /**
+     * Waits for changes to the watched files and reloads the game after each burst of them.
+     */
+    private void run() {
+
+        try {
+            while (true) {
+                boolean changed = this.isChanged(this.watcher.take());
+                Thread.sleep(SETTLE_TIME);
+
+                WatchKey key = this.watcher.poll();
+                while (key != null) {
+                    changed = this.isChanged(key) || changed;
+                    key = this.watcher.poll();
+                }
+                if (changed) {
+                    this.reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            return;
+        }
+    }
+
+    /**
+     * Returns whether the events of a watch key include a change to the configuration or Map,
+     * and resets the key to receive further events.
+     */
+    private boolean isChanged(WatchKey key) {
+
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else {
+                Path file = directory.resolve((Path) event.context());
+                changed = changed || file.equals(this.config) || file.equals(this.map);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Parses the configuration and prepares a new game from it. The Map it names is watched from
+     * then on.
+     */
+    private void reload() {
+
+        Settings settings = new Settings();
+        try {
+            settings.parseConfigFile(this.config.toString());
+        } catch (RuntimeException e) {
+            System.out.println("Error: Invalid file configuration.");
+            return;
+        }
+
+        // Errors have already been reported if the file could not be parsed.
+        if ((settings.getMapName() == null) || (settings.getGhostModes() == null)) {
+            return;
+        }
+        this.overrides.accept(settings);
+
+        try {
+            this.map = Paths.get(settings.getMapName()).toAbsolutePath().normalize();
+            this.watch(this.map);
+            this.pending.set(new GameManager(settings));
+            System.out.println("Reloaded " + this.config.getFileName() + ".");
+
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+
+        } catch (RuntimeException e) {
+            // Settings that parse may still not make a game, e.g. without any Ghost modes.
+            System.out.println("Error: Invalid file configuration.");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package ghost;
+
+import java.util.*;
+
+/**
+ * DirtyRegions class collects the rectangles of the Map that have changed since the last frame
+ * and have to be drawn again. Rectangles that overlap, or lie close together, are merged as they
+ * are added, so each part of the screen is only redrawn once and nearby changes are redrawn
+ * together.
+ */
+public class DirtyRegions {
+
+    /**
+     * The largest gap, in pixels, between two rectangles that are merged into one.
+     */
+    public static final int MERGE_GAP = 8;
+
+    private int[] left;
+    private int[] top;
+    private int[] right;
+    private int[] bottom;
+    private int count;
+
+    /**
+     * Creates an empty instance of DirtyRegions.
+     */
+    public DirtyRegions() {
+
+        this.left = new int[16];
+        this.top = new int[16];
+        this.right = new int[16];
+        this.bottom = new int[16];
+        this.count = 0;
+    }
+
+    /**
+     * Adds a rectangle, merging it with any rectangles it overlaps or lies close to.
+     *
+     * @param x the left edge, in pixels.
+     * @param y the top edge, in pixels.
+     * @param width
+     * @param height
+     */
+    public void add(int x, int y, int width, int height) {
+
+        if ((width <= 0) || (height <= 0)) {
+            return;
+        }
+        int newLeft = x;
+        int newTop = y;
+        int newRight = x + width;
+        int newBottom = y + height;
+
+        // Merging can make the rectangle reach others, so merging starts over after each one.
+        int i = 0;
+        while (i < this.count) {
+            if ((newLeft <= this.right[i] + MERGE_GAP) && (this.left[i] <= newRight + MERGE_GAP)
+                    && (newTop <= this.bottom[i] + MERGE_GAP)
+                    && (this.top[i] <= newBottom + MERGE_GAP)) {
+                newLeft = Math.min(newLeft, this.left[i]);
+                newTop = Math.min(newTop, this.top[i]);
+                newRight = Math.max(newRight, this.right[i]);
+                newBottom = Math.max(newBottom, this.bottom[i]);
+                this.removeAt(i);
+                i = 0;
+            } else {
+                i ++;
+            }
+        }
+
+        if (this.count == this.left.length) {
+            this.left = Arrays.copyOf(this.left, this.count * 2);
+            this.top = Arrays.copyOf(this.top, this.count * 2);
+            this.right = Arrays.copyOf(this.right, this.count * 2);
+            this.bottom = Arrays.copyOf(this.bottom, this.count * 2);
+        }
+        this.left[this.count] = newLeft;
+        this.top[this.count] = newTop;
+        this.right[this.count] = newRight;
+        this.bottom[this.count] = newBottom;
+        this.count ++;
+    }
+
+    /**
+     * Adds every rectangle of another instance.
+     *
+     * @param other the rectangles to be added.
+     */
+    public void addAll(DirtyRegions other) {
+
+        for (int i = 0; i < other.count; i ++) {
+            this.add(other.left[i], other.top[i], other.getWidth(i), other.getHeight(i));
+        }
+    }
+
+    /**
+     * Removes every rectangle.
+     */
+    public void clear() {
+        this.count = 0;
+    }
+
+    /**
+     * Returns the number of rectangles, after merging.
+     *
+     * @return the number of rectangles.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    public int getX(int i) {
+        return this.left[i];
+    }
+
+    public int getY(int i) {
+        return this.top[i];
+    }
+
+    public int getWidth(int i) {
+        return this.right[i] - this.left[i];
+    }
+
+    public int getHeight(int i) {
+        return this.bottom[i] - this.top[i];
+    }
+
+    /**
+     * Returns whether a rectangle overlaps the given area.
+     *
+     * @param i the index of the rectangle.
+     * @param x the left edge of the area, in pixels.
+     * @param y the top edge of the area, in pixels.
+     * @param width
+     * @param height
+     * @return true if the rectangle and area overlap; false otherwise.
+     */
+    public boolean intersects(int i, int x, int y, int width, int height) {
+        return (x < this.right[i]) && (this.left[i] < x + width)
+                && (y < this.bottom[i]) && (this.top[i] < y + height);
+    }
+
+    /**
+     * Returns the total area of the rectangles, which do not overlap once merged.
+     *
+     * @return the area, in square pixels.
+     */
+    public long getArea() {
+
+        long area = 0;
+        for (int i = 0; i < this.count; i ++) {
+            area += (long) this.getWidth(i) * this.getHeight(i);
+        }
+        return area;
+    }
+
+    private void removeAt(int i) {
+
+        this.count --;
+        this.left[i] = this.left[this.count];
+        this.top[i] = this.top[this.count];
+        this.right[i] = this.right[this.count];
+        this.bottom[i] = this.bottom[this.count];
+    }
+}
@@ -0,0 +1,411 @@
+package ghost;
+
+import java.util.*;
+
+/**
+ * DistanceFields computes how far every tile of a Map is from a target tile when walking along
+ * the maze, rather than in a straight line. The distances to a target are found with a single
+ * breadth first search over the navigation graph and stored as a field with one entry per tile,
+ * which is then shared by every Ghost aiming at that tile. The most recently used fields are
+ * kept, up to a number of bytes, so choosing a move only costs a lookup per exit however large
+ * the Map is. Distances are stored as chars, and tiles farther than MAX_DISTANCE from the target
+ * are treated as unreachable.
+ *
+ * A search costs as much as the Map is large, so only a few targets not aimed at recently may
+ * start being steered by a field on each tick. Other decisions use the straight line distance.
+ * Which targets have been aimed at belongs to the game, and is copied when the game is forked,
+ * so a game plays the same whichever fields are cached.
+ */
+public class DistanceFields {
+
+    /**
+     * The default number of distance fields kept at once.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The most bytes of distance fields kept at once, which lowers the capacity on large Maps.
+     */
+    public static final long MAX_CACHE_BYTES = 64L << 20;
+
+    /**
+     * Marks tiles that cannot be reached from the target.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * The greatest distance stored in a field.
+     */
+    public static final int MAX_DISTANCE = Character.MAX_VALUE - 2;
+
+    private static final char FAR = Character.MAX_VALUE - 1;
+    private static final char NONE = Character.MAX_VALUE;
+    private static final State[] STATES = State.values();
+
+    /**
+     * The number of recently aimed at targets remembered by each game.
+     */
+    public static final int RECENT_TARGETS = 16;
+
+    /**
+     * The number of targets that may start being steered by a field on each tick.
+     */
+    public static final int NEW_FIELDS_PER_TICK = 4;
+
+    private Map map;
+    private int rows;
+    private int cols;
+    private int capacity;
+
+    /**
+     * Stores the distances to the Waka starting tile, which mark the tiles of the playfield.
+     */
+    private char[] playfield;
+
+    /**
+     * Stores the distance fields by target tile index, least recently used first.
+     */
+    private LinkedHashMap<Integer, char[]> fields;
+
+    /**
+     * Stores the recently aimed at target tiles, most recent first, or -1, and their fields.
+     */
+    private int[] recentTargets;
+    private char[][] recentFields;
+    private int newFields;
+    private int builds;
+
+    /**
+     * Stores the queue and the tiles seen by searches, which are reused rather than allocated
+     * for every search.
+     */
+    private int[] queue;
+    private boolean[] seen;
+
+    /**
+     * Creates an instance of DistanceFields for the given Map, keeping at most the given number of
+     * fields, and no more than MAX_CACHE_BYTES of them.
+     *
+     * @param map the game map.
+     * @param capacity the maximum number of fields kept.
+     */
+    public DistanceFields(Map map, int capacity) {
+
+        this.map = map;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        long fieldBytes = 2L * this.rows * this.cols;
+        this.capacity = (int) Math.max(1, Math.min(capacity, MAX_CACHE_BYTES / fieldBytes));
+
+        // Map stores the starting column of the Waka as its row and its row as its column.
+        this.playfield = this.search(map.getPlayerCol() * this.cols + map.getPlayerRow());
+        this.fields = this.newCache();
+        this.recentTargets = new int[Math.min(RECENT_TARGETS, this.capacity)];
+        this.recentFields = new char[this.recentTargets.length][];
+        this.clearTargets();
+    }
+
+    /**
+     * Creates a copy of the given distance fields, with the same recent targets. Fields are never
+     * changed once found, so they are shared rather than copied.
+     *
+     * @param distances the distance fields to be copied.
+     * @param ownCache whether the copy gets a cache of its own, holding the fields found so far,
+     * or shares the cache of the given distance fields.
+     */
+    private DistanceFields(DistanceFields distances, boolean ownCache) {
+
+        this.map = distances.map;
+        this.rows = distances.rows;
+        this.cols = distances.cols;
+        this.capacity = distances.capacity;
+        this.playfield = distances.playfield;
+        this.fields = distances.fields;
+        if (ownCache) {
+            this.fields = this.newCache();
+            this.fields.putAll(distances.fields);
+        }
+        this.recentTargets = distances.recentTargets.clone();
+        this.recentFields = distances.recentFields.clone();
+        this.newFields = distances.newFields;
+        if (!ownCache) {
+            this.queue = distances.queue;
+            this.seen = distances.seen;
+        }
+    }
+
+    /**
+     * Returns a copy of the distance fields with a cache of its own, as described in the copy
+     * constructor. Looking up a field reorders the cache, so threads cannot share an instance;
+     * each thread needs a copy.
+     *
+     * @return the copy.
+     */
+    public DistanceFields copy() {
+        return new DistanceFields(this, true);
+    }
+
+    /**
+     * Returns a copy of the distance fields for a forked game, which shares the cache and the
+     * search queue but keeps its own recent targets. It may only be used on the same thread.
+     *
+     * @return the fork.
+     */
+    public DistanceFields fork() {
+        return new DistanceFields(this, false);
+    }
+
+    private LinkedHashMap<Integer, char[]> newCache() {
+
+        final int capacity = this.capacity;
+        return new LinkedHashMap<Integer, char[]>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(java.util.Map.Entry<Integer, char[]> eldest) {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the distance field of the tile containing the given target position. Targets
+     * outside the Map are moved to its nearest edge, and targets that cannot be reached from the
+     * Waka starting tile, e.g. inside a Wall, are moved to the nearest tile that can.
+     *
+     * @param xTarget the target x position.
+     * @param yTarget the target y position.
+     * @return the distance field, to be read with getDistance.
+     */
+    public char[] getField(int xTarget, int yTarget) {
+
+        int row = Math.min(Math.max(yTarget / GameObject.SPRITE_SIZE, 0), this.rows - 1);
+        int col = Math.min(Math.max(xTarget / GameObject.SPRITE_SIZE, 0), this.cols - 1);
+        int target = row * this.cols + col;
+
+        char[] field = this.fields.get(target);
+        if (field == null) {
+            field = this.search(this.nearestPlayfieldTile(target));
+            this.fields.put(target, field);
+        }
+        return field;
+    }
+
+    /**
+     * Returns the distance field a Ghost aiming at the given target position steers by, as
+     * getField does. Targets not aimed at recently count towards NEW_FIELDS_PER_TICK, and once
+     * that many have been taken on this tick no field is returned for others, so each tick
+     * searches the Map a bounded number of times however many Ghosts choose a move.
+     *
+     * @param xTarget the target x position.
+     * @param yTarget the target y position.
+     * @return the distance field of the target, or null if the straight line distance is used.
+     */
+    public char[] findField(int xTarget, int yTarget) {
+
+        int row = Math.min(Math.max(yTarget / GameObject.SPRITE_SIZE, 0), this.rows - 1);
+        int col = Math.min(Math.max(xTarget / GameObject.SPRITE_SIZE, 0), this.cols - 1);
+        int target = row * this.cols + col;
+
+        int last = this.recentTargets.length - 1;
+        int index = 0;
+        while ((index < last) && (this.recentTargets[index] != target)) {
+            index ++;
+        }
+        char[] field = (this.recentTargets[index] == target) ? this.recentFields[index] : null;
+        if ((field == null) && (this.newFields < NEW_FIELDS_PER_TICK)) {
+            field = this.getField(xTarget, yTarget);
+            this.newFields ++;
+        }
+
+        // Moves the target to the front, dropping the least recent one if it was not there.
+        System.arraycopy(this.recentTargets, 0, this.recentTargets, 1, index);
+        System.arraycopy(this.recentFields, 0, this.recentFields, 1, index);
+        this.recentTargets[0] = target;
+        this.recentFields[0] = field;
+        return field;
+    }
+
+    /**
+     * Starts a new tick, allowing NEW_FIELDS_PER_TICK more targets to be steered by a field.
+     */
+    public void startTick() {
+        this.newFields = 0;
+    }
+
+    /**
+     * Forgets the recent targets, e.g. when the game restarts.
+     */
+    public void clearTargets() {
+
+        Arrays.fill(this.recentTargets, -1);
+        Arrays.fill(this.recentFields, null);
+        this.newFields = 0;
+    }
+
+    /**
+     * Returns the number of fields this instance has searched the Map for.
+     *
+     * @return the number of searches.
+     */
+    public int getBuildCount() {
+        return this.builds;
+    }
+
+    /**
+     * Returns the distance from the given tile to the target of the given field.
+     *
+     * @param field a distance field, as returned by getField.
+     * @param row
+     * @param col
+     * @return the number of tiles to walk to the target, or UNREACHABLE if the tile cannot
+     * reach the target or is farther than MAX_DISTANCE from it.
+     */
+    public int getDistance(char[] field, int row, int col) {
+
+        if ((row < 0) || (col < 0) || (row >= this.rows) || (col >= this.cols)) {
+            return UNREACHABLE;
+        }
+        char distance = field[row * this.cols + col];
+        return (distance > MAX_DISTANCE) ? UNREACHABLE : distance;
+    }
+
+    /**
+     * Returns the number of distance fields that may be kept at once.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of distance fields currently kept.
+     *
+     * @return the number of fields.
+     */
+    public int size() {
+        return this.fields.size();
+    }
+
+    /**
+     * Walks the navigation graph outwards from the target tile, counting the steps to each tile.
+     *
+     * @param target the index of the target tile.
+     * @return the distance field of the target.
+     */
+    private char[] search(int target) {
+
+        this.builds ++;
+        char[] field = new char[this.rows * this.cols];
+        Arrays.fill(field, NONE);
+        int[] queue = this.getQueue();
+        int head = 0;
+        int tail = 0;
+
+        field[target] = 0;
+        queue[tail ++] = target;
+        while (head < tail) {
+            int tile = queue[head ++];
+            int row = tile / this.cols;
+            int col = tile % this.cols;
+            int exits = this.map.getTileExits(row, col);
+
+            // Exits only lead into open tiles, so every step can also be walked backwards.
+            // Tiles farther than MAX_DISTANCE are marked FAR, so they still count as reachable.
+            for (State state : STATES) {
+                if (!Map.hasExit(exits, state)) {
+                    continue;
+                }
+                int next = DistanceFields.neighbour(tile, state, this.rows, this.cols);
+                if ((next >= 0) && (field[next] == NONE) && !this.isWall(next)) {
+                    field[next] = (char) Math.min(field[tile] + 1, FAR);
+                    queue[tail ++] = next;
+                }
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Finds the playfield tile closest to the given tile, searching through Walls.
+     *
+     * @param tile the index of a tile.
+     * @return the index of the closest playfield tile.
+     */
+    private int nearestPlayfieldTile(int tile) {
+
+        if (this.playfield[tile] != NONE) {
+            return tile;
+        }
+        int[] queue = this.getQueue();
+        if (this.seen == null) {
+            this.seen = new boolean[queue.length];
+        }
+        boolean[] seen = this.seen;
+        int head = 0;
+        int tail = 0;
+        int nearest = tile;
+
+        seen[tile] = true;
+        queue[tail ++] = tile;
+        while (head < tail) {
+            int current = queue[head ++];
+            if (this.playfield[current] != NONE) {
+                nearest = current;
+                break;
+            }
+            for (State state : STATES) {
+                int next = DistanceFields.neighbour(current, state, this.rows, this.cols);
+                if ((next >= 0) && !seen[next]) {
+                    seen[next] = true;
+                    queue[tail ++] = next;
+                }
+            }
+        }
+
+        // Only the tiles queued were seen, so clearing them leaves the array ready for reuse.
+        for (int i = 0; i < tail; i ++) {
+            seen[queue[i]] = false;
+        }
+        return nearest;
+    }
+
+    private int[] getQueue() {
+
+        if (this.queue == null) {
+            this.queue = new int[this.rows * this.cols];
+        }
+        return this.queue;
+    }
+
+    private boolean isWall(int tile) {
+        return this.map.isWall(tile / this.cols, tile % this.cols);
+    }
+
+    /**
+     * Returns the index of the tile next to the given tile in the given direction.
+     *
+     * @return the index of the neighbouring tile, or -1 if it is outside the Map.
+     */
+    private static int neighbour(int tile, State direction, int rows, int cols) {
+
+        int row = tile / cols;
+        int col = tile % cols;
+        switch (direction) {
+            case LEFT:
+                col --;
+                break;
+            case RIGHT:
+                col ++;
+                break;
+            case UP:
+                row --;
+                break;
+            case DOWN:
+                row ++;
+                break;
+        }
+        if ((row < 0) || (col < 0) || (row >= rows) || (col >= cols)) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+}
@@ -1,6 +1,7 @@
 package ghost;
 
 import processing.core.PApplet;
+import processing.core.PGraphics;
 
 /**
  * Fixed class represents all immoveable game elements, i.e. Walls and Edible items.
@@ -22,6 +23,22 @@ public class Fixed extends GameObject {
      * @param app, the application to be drawn into.
      */
     public void draw(PApplet app) {
+        if (this.sprite == null) {
+            this.loadSprite(app);
+        }
         app.image(this.sprite, this.x, this.y);
     }
+
+    /**
+     * Draws in the PImage sprite of the object onto an off-screen graphics buffer.
+     * 
+     * @param app, the application the sprite is loaded from.
+     * @param graphics, the graphics buffer to be drawn into.
+     */
+    public void draw(PApplet app, PGraphics graphics) {
+        if (this.sprite == null) {
+            this.loadSprite(app);
+        }
+        graphics.image(this.sprite, this.x, this.y);
+    }
 }
@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
  * Fruit class defines a subclass of Edible items. Fruits can be eaten, with consumption of all
@@ -14,11 +13,18 @@ public class Fruit extends Edible {
      * 
      * @param x fixed x coordinate
      * @param y fixed y coordinate
-     * @param app
      */
-    public Fruit(int x, int y, PApplet app) {
+    public Fruit(int x, int y) {
 
         super(x, y);
-        this.sprite = app.loadImage("src/main/resources/fruit.png");
+    }
+
+    /**
+     * Loads the Fruit sprite.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {
+        this.sprite = Assets.getImage(app, "fruit.png");
     }
 }
@@ -0,0 +1,215 @@
+package ghost;
+
+import java.util.*;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+/**
+ * FruitStore class tracks the Fruits remaining on the Map by tile. Each tile holds at most one
+ * Edible, so checking for a Fruit at a position and eating it take constant time regardless of
+ * how many Fruits the Map holds. Fruits are only stored as bits, so even Maps with millions of
+ * Fruits take little memory.
+ */
+public class FruitStore {
+
+    private int rows;
+    private int cols;
+
+    private BitSet fruits;
+    private BitSet superFruits;
+    private int remaining;
+
+    /**
+     * Stores whether the Fruits are shared with a copy, in which case they are copied before
+     * being eaten.
+     */
+    private boolean shared;
+
+    private PImage fruitSprite;
+    private PImage superFruitSprite;
+
+    /**
+     * Creates an instance of FruitStore holding the Fruits and SuperFruits placed on the given
+     * Map.
+     * 
+     * @param map the game map.
+     */
+    public FruitStore(Map map) {
+
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.fruits = (BitSet) map.getFruitGrid().clone();
+        this.superFruits = (BitSet) map.getSuperFruitGrid().clone();
+        this.remaining = this.fruits.cardinality();
+    }
+
+    /**
+     * Creates a copy of a FruitStore that shares its Fruits until either eats one.
+     * 
+     * @param store the FruitStore to be copied.
+     */
+    private FruitStore(FruitStore store) {
+
+        this.rows = store.rows;
+        this.cols = store.cols;
+        this.fruits = store.fruits;
+        this.superFruits = store.superFruits;
+        this.remaining = store.remaining;
+        this.fruitSprite = store.fruitSprite;
+        this.superFruitSprite = store.superFruitSprite;
+
+        this.shared = true;
+        store.shared = true;
+    }
+
+    /**
+     * Returns a copy of the FruitStore in constant time. The Fruits are only copied once either
+     * store eats one.
+     * 
+     * @return the copy.
+     */
+    public FruitStore copy() {
+        return new FruitStore(this);
+    }
+
+    /**
+     * Finds the tiles whose Fruits have been eaten since the given copy of this store was taken.
+     * Stores that still share their Fruits are compared in constant time.
+     * 
+     * @param earlier a copy of this store taken earlier.
+     * @param tiles receives the tile indices in row-major order, and must have room for as many
+     * as the difference in Fruits remaining.
+     * @return the number of tiles found.
+     */
+    public int eatenSince(FruitStore earlier, int[] tiles) {
+
+        if (this.fruits == earlier.fruits) {
+            return 0;
+        }
+        int eaten = earlier.remaining - this.remaining;
+        int count = 0;
+        for (int i = earlier.fruits.nextSetBit(0); (i >= 0) && (count < eaten); 
+                i = earlier.fruits.nextSetBit(i + 1)) {
+            if (!this.fruits.get(i)) {
+                tiles[count ++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lists the tiles holding a Fruit.
+     * 
+     * @param tiles receives the tile indices in row-major order, and must have room for as many
+     * as there are Fruits remaining.
+     * @return the number of tiles found.
+     */
+    public int getTiles(int[] tiles) {
+
+        int count = 0;
+        for (int i = this.fruits.nextSetBit(0); i >= 0; i = this.fruits.nextSetBit(i + 1)) {
+            tiles[count ++] = i;
+        }
+        return count;
+    }
+
+    /**
+     * Draws in every remaining Fruit inside the camera viewport. Only the visible part of each
+     * visible row of tiles is searched.
+     * 
+     * @param app
+     * @param camera the camera viewport, in Map coordinates.
+     */
+    public void draw(PApplet app, Camera camera) {
+
+        if (this.fruitSprite == null) {
+            this.fruitSprite = Assets.getImage(app, "fruit.png");
+            this.superFruitSprite = Assets.getImage(app, "superFruit.png");
+        }
+
+        int firstRow = Math.max(camera.getFirstRow(), 0);
+        int lastRow = Math.min(camera.getLastRow(), this.rows - 1);
+        int firstCol = Math.max(camera.getFirstCol(), 0);
+        int lastCol = Math.min(camera.getLastCol(), this.cols - 1);
+
+        for (int row = firstRow; row <= lastRow; row ++) {
+            int end = this.index(row, lastCol);
+            int i = this.fruits.nextSetBit(this.index(row, firstCol));
+
+            while ((i >= 0) && (i <= end)) {
+                PImage sprite = this.fruitSprite;
+                if (this.superFruits.get(i)) {
+                    sprite = this.superFruitSprite;
+                }
+                int x = (i % this.cols) * GameObject.SPRITE_SIZE;
+                int y = row * GameObject.SPRITE_SIZE;
+                app.image(sprite, x, y);
+                i = this.fruits.nextSetBit(i + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of Fruits remaining on the Map.
+     * 
+     * @return the number of remaining Fruits.
+     */
+    public int getRemaining() {
+        return this.remaining;
+    }
+
+    /**
+     * Returns whether a Fruit remains at the given tile.
+     * 
+     * @param row
+     * @param col
+     * @return true if a Fruit of either kind remains at the tile; false otherwise.
+     */
+    public boolean hasFruit(int row, int col) {
+        return this.inBounds(row, col) && this.fruits.get(this.index(row, col));
+    }
+
+    /**
+     * Returns whether a SuperFruit remains at the given tile.
+     * 
+     * @param row
+     * @param col
+     * @return true if a SuperFruit remains at the tile; false otherwise.
+     */
+    public boolean hasSuperFruit(int row, int col) {
+        return this.inBounds(row, col) && this.superFruits.get(this.index(row, col));
+    }
+
+    /**
+     * Removes the Fruit at the given tile, if there is one.
+     * 
+     * @param row
+     * @param col
+     * @return true if a Fruit was removed; false otherwise.
+     */
+    public boolean eat(int row, int col) {
+
+        if (!this.hasFruit(row, col)) {
+            return false;
+        }
+        if (this.shared) {
+            this.fruits = (BitSet) this.fruits.clone();
+            this.superFruits = (BitSet) this.superFruits.clone();
+            this.shared = false;
+        }
+        int index = this.index(row, col);
+        this.fruits.clear(index);
+        this.superFruits.clear(index);
+        this.remaining --;
+        return true;
+    }
+
+    private boolean inBounds(int row, int col) {
+        return (row >= 0) && (row < this.rows) && (col >= 0) && (col < this.cols);
+    }
+
+    private int index(int row, int col) {
+        return row * this.cols + col;
+    }
+}
@@ -0,0 +1,192 @@
+package ghost;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * GameEvents class holds the Java Flight Recorder events of the game, so recordings can be kept
+ * running continuously and stutters studied afterwards with standard JFR tooling, e.g.
+ * `jfr print --events ghost.Tick recording.jfr`.
+ *
+ * Events are created, timed and committed in place. While an event type is not enabled in the
+ * recording, its instances are never filled in or committed, and the JIT removes them entirely,
+ * so the game runs at full speed without a recording.
+ */
+final class GameEvents {
+
+    private GameEvents() {
+    }
+
+    @Name("ghost.Tick")
+    @Label("Game Tick")
+    @Description("One update of the Waka, Fruits and Ghosts.")
+    @Category({"Waka", "Game Loop"})
+    @StackTrace(false)
+    static final class Tick extends Event {
+
+        @Label("Tick")
+        int tick;
+
+        @Label("Ghosts")
+        @Description("The number of Ghosts on the Map.")
+        int ghosts;
+
+        @Label("Fruits Remaining")
+        int fruits;
+
+        @Label("Player Lives")
+        int lives;
+
+        @Label("Wall Checks")
+        @Description("The number of Wall collision checks made during the tick.")
+        long wallChecks;
+
+        @Label("Ghost Swarm")
+        boolean swarm;
+    }
+
+    @Name("ghost.Draw")
+    @Label("Frame Draw")
+    @Description("Drawing of one frame.")
+    @Category({"Waka", "Game Loop"})
+    @StackTrace(false)
+    static final class Draw extends Event {
+
+        @Label("Full Redraw")
+        @Description("Whether the whole screen was drawn, rather than only the changed regions.")
+        boolean full;
+
+        @Label("Regions")
+        @Description("The number of changed regions drawn, or 0 for a full redraw.")
+        int regions;
+
+        @Label("Area")
+        @Description("The number of square pixels drawn.")
+        long area;
+
+        @Label("Ghosts")
+        int ghosts;
+    }
+
+    @Name("ghost.MapLoad")
+    @Label("Map Load")
+    @Category({"Waka", "Loading"})
+    static final class MapLoad extends Event {
+
+        @Label("File")
+        String file;
+
+        @Label("Compiled")
+        boolean compiled;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Columns")
+        int cols;
+
+        @Label("Ghosts")
+        int ghosts;
+
+        @Label("Fruits")
+        int fruits;
+    }
+
+    @Name("ghost.AssetLoad")
+    @Label("Asset Load")
+    @Category({"Waka", "Loading"})
+    static final class AssetLoad extends Event {
+
+        @Label("Name")
+        String name;
+
+        @Label("Kind")
+        @Description("Either \"image\" or \"font\".")
+        String kind;
+
+        @Label("Width")
+        @Description("The width of an image, or the size of a font.")
+        int width;
+
+        @Label("Height")
+        @Description("The height of an image, or 0 for a font.")
+        int height;
+
+        @Label("Size")
+        @Description("The decoded size of an image, or 0 for a font.")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("ghost.GhostModeSwitch")
+    @Label("Ghost Mode Switch")
+    @Description("A Ghost switching between Scatter and Chase mode.")
+    @Category({"Waka", "Ghosts"})
+    @StackTrace(false)
+    static final class GhostModeSwitch extends Event {
+
+        @Label("Ghost Type")
+        String ghost;
+
+        @Label("From")
+        String from;
+
+        @Label("To")
+        String to;
+
+        @Label("X")
+        int x;
+
+        @Label("Y")
+        int y;
+
+        @Label("Mode")
+        @Description("The index of the new mode among the configured mode lengths.")
+        int mode;
+    }
+
+    @Name("ghost.Input")
+    @Label("Input")
+    @Description("A key press taken from the input queue at the start of a tick.")
+    @Category({"Waka", "Input"})
+    @StackTrace(false)
+    static final class Input extends Event {
+
+        @Label("Key Code")
+        int key;
+
+        @Label("Tick")
+        int tick;
+
+        @Label("Latency")
+        @Description("The time from the key press until it was taken.")
+        @Timespan
+        long latency;
+    }
+
+    @Name("ghost.GameReset")
+    @Label("Game Reset")
+    @Description("The Waka and Ghosts being returned to their starting positions.")
+    @Category({"Waka", "Game Loop"})
+    static final class GameReset extends Event {
+
+        @Label("Tick")
+        int tick;
+
+        @Label("Player Lives")
+        int lives;
+
+        @Label("Ghosts")
+        @Description("The number of Ghosts on the Map after the reset.")
+        int ghosts;
+
+        @Label("Fruits Remaining")
+        int fruits;
+    }
+}
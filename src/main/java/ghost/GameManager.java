@@ -16,59 +16,350 @@ import processing.core.PImage;
  * and tracking game progress. GameManager also sets up map layout and object conditions.
  */
 public class GameManager {
+
+    /**
+     * The screen position of the first remaining life, and the gap between lives.
+     */
+    private static final int LIVES_X = 8;
+    private static final int LIVES_Y = 544;
+    private static final int LIVES_GAP = 28;
+
+    /**
+     * The largest width and height of a sprite, which may be drawn over the neighbouring tiles.
+     */
+    private static final int SPRITE_EXTENT = 2 * GameObject.SPRITE_SIZE;
+
+    /**
+     * The profiler of forked games, which is never enabled.
+     */
+    private static final TickProfiler NO_PROFILER = new TickProfiler();
+
+    /**
+     * Orders Ghost objects in the order they are ticked.
+     */
+    private static final Comparator<Ghost> TICK_ORDER = 
+            Comparator.comparingInt(ghost -> ghost.tickIndex);
     
     private Settings settings;
     private Map map;
 
-    private List<Edible> fruits;
+    private FruitStore fruits;
     private List<Ghost> ghosts;
     private List<Ghost> removedGhosts;
+    private GhostSwarm swarm;
+    private SpatialGrid<Ghost> ghostGrid;
+    private List<Ghost> visibleGhosts;
+    private List<Ghost> nearbyGhosts;
+    private Camera camera;
+
+    /**
+     * Stores the areas of the Map changed since the last incrementally drawn frame, the sprites and
+     * debugging lines drawn in that frame and in the current one, and the lives drawn in it.
+     */
+    private DirtyRegions dirty;
+    private DirtyRegions drawnSprites;
+    private DirtyRegions sprites;
+    private int drawnLives;
+    private SplitMix64 random;
+    private DistanceFields distances;
+    private ReplayWriter recorder;
+
+    /**
+     * Holds the key presses waiting for the next tick, and whether a movement key has been taken
+     * from it during the current tick and during the whole game.
+     */
+    private InputQueue input;
+    private InputQueue.Handler inputHandler;
+    private boolean moveTaken;
+    private boolean playerInput;
+    private TickProfiler profiler;
+
+    /**
+     * Whether the game commits JFR events, which forks do not, so recordings only show the
+     * game being played.
+     */
+    private boolean commitEvents;
 
     private Waka player;
     private int playerLives;
     private PImage livesSprite;
+
+    /**
+     * Stores copies of the Ghosts and Waka as they were when the game was created, which
+     * restart() restores.
+     */
+    private List<Ghost> initialGhosts;
+    private Waka initialPlayer;
     
     private boolean debugMode;
     private boolean running;
     private boolean win;
+    private int ticks;
 
     /**
-     * Creates an instance of GameManager given an application. Game settings are parsed from
-     * the "config.json" file, Fruits, Ghosts, Waka and Walls are adapted from the game Map and
-     * modified according to the specified settings.
+     * Creates an instance of GameManager given the game settings. Fruits, Ghosts, Waka and Walls
+     * are adapted from the game Map named in the settings and modified accordingly.
      * 
-     * @param app
+     * GameManager does not depend on an application, so games can be simulated without a window
+     * by repeatedly calling tick().
+     * 
+     * @param settings the game settings, e.g. as parsed from the "config.json" file.
+     * @throws IOException if the Map file cannot be read or is not a valid layout.
      */
-    public GameManager(PApplet app) {
+    public GameManager(Settings settings) throws IOException {
 
-        this.settings = new Settings();
-        this.settings.parseConfigFile("config.json");
-        this.map = new Map(settings.getMapName(), app);
+        this.settings = settings;
+        this.map = new Map(settings.getMapName());
 
-        this.fruits = new ArrayList<Edible>(this.map.getFruits());
+        this.fruits = new FruitStore(this.map);
         this.ghosts = new ArrayList<Ghost>(this.map.getGhosts());
         this.removedGhosts = new ArrayList<Ghost>();
+        this.random = new SplitMix64(settings.getSeed());
         this.setupGhosts();
-        this.setupPlayer(app);
+        this.indexGhosts();
+        this.setupPlayer();
+
+        // Swarms cull Ghosts while drawing them, so only Ghost objects are kept in a grid.
+        if (settings.getGhostSwarm()) {
+            this.swarm = new GhostSwarm(this.ghosts);
+        } else {
+            this.ghostGrid = new SpatialGrid<Ghost>(this.map, SpatialGrid.DEFAULT_CELL_TILES);
+            this.ghostGrid.rebuild(this.ghosts);
+        }
+        this.visibleGhosts = new ArrayList<Ghost>();
+        this.nearbyGhosts = new ArrayList<Ghost>();
+        this.profiler = new TickProfiler();
+        this.commitEvents = true;
+
+        this.initialGhosts = new ArrayList<Ghost>();
+        for (int i = 0; i < this.ghosts.size(); i ++) {
+            this.initialGhosts.add(this.ghosts.get(i).copy());
+        }
+        this.initialPlayer = this.player.copy();
         
-        this.livesSprite = app.loadImage("src/main/resources/playerRight.png");
         this.debugMode = false;
+        this.playerInput = false;
         this.running = true;
         this.win = false;
+        this.ticks = 0;
     }
 
     /**
-     * Continually coordinates between GameObjects and modifies game progress according to object
-     * interactions - encapsulates underlying game logic.
+     * Creates a fork of a game, which plays on from the same state without affecting it. The
+     * Map, settings and starting state never change, so they are shared with the game, as are
+     * the Fruits until either game eats one. Ghosts, their random generators and the Waka are
+     * copied. Forks are neither drawn, recorded nor profiled, and commit no JFR events; they
+     * play on a view of the Map that does not count Wall checks.
      * 
-     * @param app
+     * Forks share the distance fields cache of the game unless given their own, so a fork may
+     * only be played on another thread than the game if it has its own cache. Either way the
+     * fork keeps its own copy of the targets Ghosts have recently aimed at.
+     * 
+     * @param game the game to be forked.
+     * @param ownDistances whether the fork gets its own copy of the distance fields cache.
+     */
+    private GameManager(GameManager game, boolean ownDistances) {
+
+        this.settings = game.settings;
+        this.map = game.map.getUncounted();
+        this.distances = null;
+        if (game.distances != null) {
+            this.distances = ownDistances ? game.distances.copy() : game.distances.fork();
+        }
+        this.fruits = game.fruits.copy();
+        this.random = game.random.copy();
+        this.profiler = NO_PROFILER;
+        this.commitEvents = false;
+        this.initialGhosts = game.initialGhosts;
+        this.initialPlayer = game.initialPlayer;
+
+        // The Ghost objects of a swarm are only copied if they are asked for.
+        if (game.swarm != null) {
+            this.swarm = game.swarm.copy();
+            this.swarm.setDistanceFields(this.distances);
+            this.swarm.setCommitEvents(false);
+            this.ghosts = new ArrayList<Ghost>();
+            this.removedGhosts = new ArrayList<Ghost>();
+        } else {
+            this.ghosts = GameManager.copyAll(game.ghosts);
+            this.removedGhosts = GameManager.copyAll(game.removedGhosts);
+            for (int i = 0; i < this.ghosts.size(); i ++) {
+                this.ghosts.get(i).setDistanceFields(this.distances);
+                this.ghosts.get(i).setCommitEvents(false);
+            }
+            for (int i = 0; i < this.removedGhosts.size(); i ++) {
+                this.removedGhosts.get(i).setDistanceFields(this.distances);
+                this.removedGhosts.get(i).setCommitEvents(false);
+            }
+            this.ghostGrid = new SpatialGrid<Ghost>(this.map, SpatialGrid.DEFAULT_CELL_TILES);
+            this.ghostGrid.rebuild(this.ghosts);
+        }
+        this.visibleGhosts = new ArrayList<Ghost>();
+        this.nearbyGhosts = new ArrayList<Ghost>();
+
+        this.player = game.player.copy();
+        this.playerLives = game.playerLives;
+        this.running = game.running;
+        this.win = game.win;
+        this.ticks = game.ticks;
+    }
+
+    /**
+     * Returns a fork of the game, as described in the fork constructor.
+     * 
+     * @return the forked game.
+     */
+    GameManager fork() {
+        return new GameManager(this, false);
+    }
+
+    /**
+     * Returns a fork of the game with its own distance fields cache, which may be played on
+     * another thread than the game and its other forks.
+     * 
+     * @return the forked game.
+     */
+    GameManager forkForThread() {
+        return new GameManager(this, true);
+    }
+
+    private static List<Ghost> copyAll(List<Ghost> ghosts) {
+
+        List<Ghost> copies = new ArrayList<Ghost>(ghosts.size());
+        for (int i = 0; i < ghosts.size(); i ++) {
+            copies.add(ghosts.get(i).copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Restarts the game from the state it was created in, without loading the Map again. The
+     * Walls already drawn, distance fields and sprites are kept, so restarting takes little more
+     * than copying the Ghosts and Fruits. Ghosts are given random generators split from the seed
+     * in the settings, so a restarted game plays out exactly like a new one with that seed.
+     */
+    public void restart() {
+        this.restart(this.settings.getSeed());
+    }
+
+    /**
+     * Restarts the game as restart() does, with the given seed rather than the one in the
+     * settings, e.g. to start many different games from forks of one loaded game.
+     * 
+     * @param seed the seed of the Ghosts' random generators.
+     */
+    public void restart(long seed) {
+
+        this.random = new SplitMix64(seed);
+        if (this.distances != null) {
+            this.distances.clearTargets();
+        }
+        this.ghosts.clear();
+        this.removedGhosts.clear();
+        for (int i = 0; i < this.initialGhosts.size(); i ++) {
+            Ghost ghost = this.initialGhosts.get(i).copy();
+            ghost.setRandom(this.random.split());
+            ghost.setDistanceFields(this.distances);
+            ghost.setCommitEvents(this.commitEvents);
+            this.ghosts.add(ghost);
+        }
+        this.indexGhosts();
+        this.player = this.initialPlayer.copy();
+        this.playerLives = this.settings.getPlayerLives();
+        this.fruits = new FruitStore(this.map);
+
+        if (this.swarm != null) {
+            this.swarm = new GhostSwarm(this.ghosts);
+        } else {
+            this.ghostGrid.rebuild(this.ghosts);
+        }
+        this.visibleGhosts.clear();
+        this.nearbyGhosts.clear();
+
+        // A new camera makes the next frame draw the whole screen.
+        this.camera = null;
+        this.debugMode = false;
+        if (this.profiler != NO_PROFILER) {
+            // Forks on other threads share the profiler of forks, which is never enabled.
+            this.profiler.setEnabled(false);
+        }
+        this.playerInput = false;
+        this.running = true;
+        this.win = false;
+        this.ticks = 0;
+    }
+
+    /**
+     * Continually coordinates between GameObjects and modifies game progress according to object
+     * interactions - encapsulates underlying game logic. Key presses waiting in the input queue
+     * are taken first.
+     */
+    public void tick() {
+
+        GameEvents.Tick event = new GameEvents.Tick();
+        event.begin();
+        if (this.input != null) {
+            this.moveTaken = false;
+            this.input.drain(this.inputHandler);
+        }
+
+        // Wall checks are only counted while they are profiled or recorded.
+        this.map.setCountWallChecks(this.profiler.isEnabled()
+                || (this.commitEvents && event.isEnabled()));
+        long wallChecks = this.map.getWallChecks();
+        this.step();
+
+        event.end();
+        if (this.commitEvents && event.shouldCommit()) {
+            event.tick = this.ticks;
+            event.ghosts = this.getGhostCount();
+            event.fruits = this.fruits.getRemaining();
+            event.lives = this.playerLives;
+            event.wallChecks = this.map.getWallChecks() - wallChecks;
+            event.swarm = (this.swarm != null);
+            event.commit();
+        }
+    }
+
+    /**
+     * Advances the game by one tick, as tick() does, without recording a tick event. Forked
+     * games are stepped this way.
      */
-    public void tick(PApplet app) {
+    void step() {
 
+        this.ticks ++;
+        if (this.distances != null) {
+            this.distances.startTick();
+        }
+
+        // Checks are counted from the start of the tick, leaving out those made by pilots
+        // searching ahead between ticks.
+        long wallChecks = this.profiler.isEnabled() ? this.map.getWallChecks() : 0;
+        long time = this.profiler.start();
         this.playerGhostCollision();
+        time = this.profiler.lap(Phase.COLLISION, time);
         this.setWallCollision(this.player);
-        this.player.tick(app);
+        this.player.tick(this.ticks);
+        time = this.profiler.lap(Phase.PLAYER, time);
         this.eatFruit();
+        time = this.profiler.lap(Phase.FRUIT, time);
+
+        if (this.swarm != null) {
+            this.swarm.tick(this.map, this.player, this.profiler, time);
+        } else {
+            this.tickGhosts(time);
+        }
+        if (this.profiler.isEnabled()) {
+            this.profiler.endTick(this.map.getWallChecks() - wallChecks);
+        }
+    }
+
+    /**
+     * Targets, steers and moves each Ghost object in turn.
+     * 
+     * @param time the time the profiler was last lapped at.
+     */
+    private void tickGhosts(long time) {
 
         for (int i = 0; i < this.ghosts.size(); i ++) {
             Ghost ghost = this.ghosts.get(i);
@@ -92,16 +383,25 @@ public class GameManager {
                     ghost.changeTarget(map, player);
                 }
             }
+            time = this.profiler.lap(Phase.TARGETING, time);
 
-            if (ghost.atIntersection(this.map)) {
-                ghost.setNextMove(this.map);
-            } else {
-                if (ghost.atDeadEnd(map)) {
-                    ghost.setNextMove(ghost.getOrientation().getOpposite());
+            // Ghosts only steer on ticks they move on, so a Ghost waiting on a tile cannot
+            // reverse the turn it has just made.
+            if (ghost.movesThisTick()) {
+                if (ghost.atIntersection(this.map)) {
+                    ghost.setNextMove(this.map);
+                } else {
+                    if (ghost.atDeadEnd(map)) {
+                        ghost.setNextMove(ghost.getOrientation().getOpposite());
+                    }
                 }
             }
+            time = this.profiler.lap(Phase.STEERING, time);
+
             this.setWallCollision(ghost);
             ghost.tick();
+            this.ghostGrid.update(ghost);
+            time = this.profiler.lap(Phase.MOVEMENT, time);
         }
     }
 
@@ -112,48 +412,309 @@ public class GameManager {
      * @param app
      */
     public void draw(PApplet app) {
+        this.draw(app, 1);
+    }
 
-        this.map.draw(app);
+    /**
+     * Draws in GameObjects with the Waka and Ghosts interpolated between their positions before
+     * and after the latest tick. The camera follows the Waka, and only the Walls, Fruits and
+     * Ghosts inside its viewport are drawn, so drawing takes as long on any size of Map.
+     * 
+     * @param app
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    public void draw(PApplet app, float alpha) {
+
+        GameEvents.Draw event = new GameEvents.Draw();
+        event.begin();
+        long start = this.profiler.start();
+        this.drawScene(app, alpha);
+        this.profiler.endDraw(start);
 
-        for (int i = 0; i < this.fruits.size(); i ++) {
-            this.fruits.get(i).draw(app);
+        event.end();
+        if (event.shouldCommit()) {
+            event.full = true;
+            event.area = (long) app.width * app.height;
+            event.ghosts = this.getGhostCount();
+            event.commit();
         }
-        this.player.draw(app);
-        
-        for (int j = 0; j < this.ghosts.size(); j ++) {
-            this.ghosts.get(j).draw(app);
+
+        if (this.debugMode) {
+            this.profiler.draw(app);
+        }
+    }
+
+    /**
+     * Draws in GameObjects and the remaining lives through the camera, as described in draw.
+     * 
+     * @param app
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    private void drawScene(PApplet app, float alpha) {
+
+        if (this.camera == null) {
+            this.camera = new Camera(app.width, app.height);
+        }
+        int size = GameObject.SPRITE_SIZE;
+        this.camera.follow(this.player.getDrawX(alpha) + size / 2, 
+                this.player.getDrawY(alpha) + size / 2, this.map);
+
+        app.pushMatrix();
+        app.translate(-this.camera.getX(), -this.camera.getY());
+
+        this.map.draw(app, this.camera);
+
+        this.fruits.draw(app, this.camera);
+        this.player.draw(app, alpha);
+
+        if (this.swarm != null) {
+            this.swarm.draw(app, this.camera, alpha);
+
+        } else {
+            this.findVisibleGhosts(this.camera);
+            for (int j = 0; j < this.visibleGhosts.size(); j ++) {
+                this.visibleGhosts.get(j).draw(app, alpha);
+            }
         }
 
         if (this.debugMode) {
             this.drawDebug(app);
         }
+        app.popMatrix();
         this.drawLives(app);
     }
 
     /**
-     * Initialises player object and sets initial starting positions and speed.
+     * Draws only the parts of the screen that have changed since the last frame drawn this way,
+     * over what was drawn then. The areas sprites were drawn over in the last frame or are drawn
+     * over now are drawn again, as are eaten Fruits, debugging lines and the lives if one has been
+     * lost. The whole screen is drawn instead on the first frame, once the camera moves, or if
+     * most of it has changed.
+     * 
+     * The application must not clear the screen between frames.
+     * 
+     * @param app
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    public void drawDirty(PApplet app, float alpha) {
+
+        GameEvents.Draw event = new GameEvents.Draw();
+        event.begin();
+        long start = this.profiler.start();
+        boolean full = (this.camera == null) || (this.sprites == null);
+        if (this.camera == null) {
+            this.camera = new Camera(app.width, app.height);
+        }
+        if (this.sprites == null) {
+            this.dirty = new DirtyRegions();
+            this.drawnSprites = new DirtyRegions();
+            this.sprites = new DirtyRegions();
+        }
+
+        int cameraX = this.camera.getX();
+        int cameraY = this.camera.getY();
+        int size = GameObject.SPRITE_SIZE;
+        this.camera.follow(this.player.getDrawX(alpha) + size / 2, 
+                this.player.getDrawY(alpha) + size / 2, this.map);
+        full = full || (this.camera.getX() != cameraX) || (this.camera.getY() != cameraY);
+
+        this.sprites.clear();
+        this.addSpriteBounds(alpha);
+        this.addOverlayBounds();
+
+        if (!full) {
+            this.dirty.addAll(this.drawnSprites);
+            this.dirty.addAll(this.sprites);
+            if (this.drawnLives != this.playerLives) {
+                int lives = Math.max(this.drawnLives, this.playerLives);
+                this.dirty.add(this.camera.getX() + LIVES_X, this.camera.getY() + LIVES_Y, 
+                        lives * LIVES_GAP, SPRITE_EXTENT);
+            }
+
+            // Drawing a few large areas costs as much as drawing the whole screen.
+            long screen = (long) this.camera.getWidth() * this.camera.getHeight();
+            full = this.dirty.getArea() * 2 > screen;
+        }
+
+        if (full) {
+            app.background(0, 0, 0);
+            this.drawScene(app, alpha);
+        } else {
+            for (int i = 0; i < this.dirty.size(); i ++) {
+                this.drawRegion(app, alpha, i);
+            }
+        }
+        this.profiler.endDraw(start);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.full = full;
+            event.regions = full ? 0 : this.dirty.size();
+            event.area = full ? (long) app.width * app.height : this.dirty.getArea();
+            event.ghosts = this.getGhostCount();
+            event.commit();
+        }
+
+        // The overlay is part of the sprite regions, so it is cleared before being drawn again.
+        if (this.debugMode) {
+            this.profiler.draw(app);
+        }
+
+        DirtyRegions drawn = this.drawnSprites;
+        this.drawnSprites = this.sprites;
+        this.sprites = drawn;
+        this.dirty.clear();
+        this.drawnLives = this.playerLives;
+    }
+
+    /**
+     * Adds the areas the Waka, the visible Ghosts and any debugging lines are drawn over in the
+     * current frame to the sprite regions.
+     * 
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    private void addSpriteBounds(float alpha) {
+
+        this.sprites.add((int) Math.floor(this.player.getDrawX(alpha)), 
+                (int) Math.floor(this.player.getDrawY(alpha)), SPRITE_EXTENT, SPRITE_EXTENT);
+
+        if (this.swarm != null) {
+            this.swarm.addBounds(this.sprites, this.camera, alpha);
+            if (this.debugMode) {
+                this.swarm.addDebugBounds(this.sprites);
+            }
+            return;
+        }
+
+        this.findVisibleGhosts(this.camera);
+        for (int j = 0; j < this.visibleGhosts.size(); j ++) {
+            Ghost ghost = this.visibleGhosts.get(j);
+            this.sprites.add((int) Math.floor(ghost.getDrawX(alpha)), 
+                    (int) Math.floor(ghost.getDrawY(alpha)), SPRITE_EXTENT, SPRITE_EXTENT);
+        }
+        if (this.debugMode) {
+            for (int j = 0; j < this.ghosts.size(); j ++) {
+                this.ghosts.get(j).addDebugBounds(this.sprites);
+            }
+        }
+    }
+
+    /**
+     * Adds the area of the profiler overlay to the sprite regions while it is shown.
+     */
+    private void addOverlayBounds() {
+
+        if (this.debugMode) {
+            this.sprites.add(this.camera.getX() + TickProfiler.OVERLAY_X, 
+                    this.camera.getY() + TickProfiler.OVERLAY_Y, TickProfiler.OVERLAY_WIDTH, 
+                    TickProfiler.OVERLAY_HEIGHT);
+        }
+    }
+
+    /**
+     * Draws everything inside one of the changed regions again, clipping drawing to it so
+     * nothing outside the region is touched.
      * 
      * @param app
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     * @param i the index of the region.
+     */
+    private void drawRegion(PApplet app, float alpha, int i) {
+
+        int x = this.dirty.getX(i);
+        int y = this.dirty.getY(i);
+        int width = this.dirty.getWidth(i);
+        int height = this.dirty.getHeight(i);
+        Camera region = new Camera(x, y, width, height);
+
+        app.pushStyle();
+        app.clip(x - this.camera.getX(), y - this.camera.getY(), width, height);
+        app.pushMatrix();
+        app.translate(-this.camera.getX(), -this.camera.getY());
+
+        app.noStroke();
+        app.fill(0);
+        app.rect(x, y, width, height);
+        this.map.draw(app, region);
+        this.fruits.draw(app, region);
+        this.player.draw(app, alpha);
+
+        if (this.swarm != null) {
+            this.swarm.draw(app, region, alpha);
+        } else {
+            this.findVisibleGhosts(region);
+            for (int j = 0; j < this.visibleGhosts.size(); j ++) {
+                this.visibleGhosts.get(j).draw(app, alpha);
+            }
+        }
+
+        if (this.debugMode) {
+            this.drawDebug(app);
+        }
+        app.popMatrix();
+
+        int livesX = this.camera.getX() + LIVES_X;
+        int livesY = this.camera.getY() + LIVES_Y;
+        if (this.dirty.intersects(i, livesX, livesY, this.playerLives * LIVES_GAP, 
+                SPRITE_EXTENT)) {
+            this.drawLives(app);
+        }
+        app.noClip();
+        app.popStyle();
+    }
+
+    /**
+     * Finds the Ghosts that may be drawn inside the viewport of the given camera. Ghosts are
+     * found by the cell their position is in, so the viewport is widened to include Ghosts
+     * partly inside it or drawn ahead of their position.
+     * 
+     * @param view the camera whose viewport is searched.
      */
-    private void setupPlayer(PApplet app) {
+    private void findVisibleGhosts(Camera view) {
+
+        int size = GameObject.SPRITE_SIZE;
+        int left = view.getX() - 2 * size;
+        int top = view.getY() - 2 * size;
+        int right = view.getX() + view.getWidth() + 2 * size;
+        int bottom = view.getY() + view.getHeight() + 2 * size;
+        this.visibleGhosts.clear();
+        this.ghostGrid.query(left, top, right, bottom, this.visibleGhosts);
+    }
+
+    /**
+     * Initialises player object and sets initial starting positions and speed.
+     */
+    private void setupPlayer() {
 
         this.playerLives = settings.getPlayerLives();
         int startRow = this.map.getPlayerRow();
         int startCol = this.map.getPlayerCol();
-        this.player = new Waka(startRow, startCol, settings.getSpeed(), app);
+        this.player = new Waka(startRow, startCol, settings.getSpeed());
+        this.player.setTickRate(settings.getTickRate());
     }
 
     /**
-     * Sets speed, ghost mode durations and frightened duration for all Ghosts.
+     * Sets speed, ghost mode durations and frightened duration for all Ghosts. Every Ghost is
+     * given its own random generator split from the game's, so games with the same seed and
+     * inputs always play out the same way.
      */
     private void setupGhosts() {
 
+        // Distance fields are shared by all Ghosts, as they often aim at the same tiles.
+        this.distances = null;
+        if (settings.getMazeTargeting()) {
+            this.distances = new DistanceFields(this.map, DistanceFields.DEFAULT_CAPACITY);
+        }
+
         for (int i = 0; i < this.ghosts.size(); i ++) {
 
             Ghost ghost = this.ghosts.get(i);
+            ghost.setTickRate(settings.getTickRate());
             ghost.setSpeed(settings.getSpeed());
             ghost.setGhostMode(settings.getGhostModes());
             ghost.setFrightenedLength(settings.getFrightenedLength());
+            ghost.setRandom(this.random.split());
+            ghost.setDistanceFields(this.distances);
         }
     }
 
@@ -161,21 +722,20 @@ public class GameManager {
      * Interprets relevant key commands into Waka movement or switching in and out of debug mode.
      * 
      * @param key
-     * @param app
      */
-    public void keyCommands(int key, PApplet app) {
+    public void keyCommands(int key) {
 
         if (key == 37) {
-            this.player.setNextMove(State.LEFT);
+            this.setPlayerMove(State.LEFT);
 
         } else if (key == 39) {
-            this.player.setNextMove(State.RIGHT);
+            this.setPlayerMove(State.RIGHT);
 
         } else if (key == 38) {
-            this.player.setNextMove(State.UP);
+            this.setPlayerMove(State.UP);
 
         } else if (key == 40) {
-            this.player.setNextMove(State.DOWN);
+            this.setPlayerMove(State.DOWN);
             
         } else if (key == 32) {
             if (this.debugMode) {
@@ -183,9 +743,86 @@ public class GameManager {
             } else {
                 this.debugMode = true;
             }
+            this.profiler.setEnabled(this.debugMode);
         }
     }
 
+    /**
+     * Takes the key presses for this game from the given queue at the start of every tick, in
+     * the order they were pressed. Only one movement key is taken per tick, so a turn pressed
+     * just after another is kept for the next tick rather than replacing it.
+     * 
+     * @param input the queue the player's key presses are offered to, or null for none.
+     */
+    public void setInput(InputQueue input) {
+        this.input = input;
+        this.inputHandler = this::takeInput;
+    }
+
+    /**
+     * Returns whether the player has pressed a movement key since the game started, e.g. to take
+     * over from a Pilot.
+     * 
+     * @return true if a movement key has been taken from the input queue; false otherwise.
+     */
+    public boolean hasPlayerInput() {
+        return this.playerInput;
+    }
+
+    /**
+     * Passes a key press from the input queue on to keyCommands, unless it is a second movement
+     * key in the same tick.
+     * 
+     * @param key the key code.
+     * @param time the time the key was pressed at.
+     * @return true if the key press was taken; false if it is left for the next tick.
+     */
+    private boolean takeInput(int key, long time) {
+
+        boolean move = (key >= 37) && (key <= 40);
+        if (move && this.moveTaken) {
+            return false;
+        }
+        this.moveTaken = this.moveTaken || move;
+        this.playerInput = this.playerInput || move;
+        this.keyCommands(key);
+
+        GameEvents.Input event = new GameEvents.Input();
+        if (event.shouldCommit()) {
+            event.key = key;
+            event.tick = this.ticks;
+            event.latency = System.nanoTime() - time;
+            event.commit();
+        }
+        return true;
+    }
+
+    /**
+     * Sets the next move of the Waka, as requested by the player or a Pilot. The move is
+     * recorded if the game is being recorded.
+     * 
+     * @param direction the direction the Waka should turn in once it is able to.
+     */
+    public void setPlayerMove(State direction) {
+        if (this.recorder != null) {
+            this.recorder.record(this.ticks, direction);
+        }
+        this.player.setNextMove(direction);
+    }
+
+    public Settings getSettings() {
+        return this.settings;
+    }
+
+    /**
+     * Records every move of the Waka from now on with the given writer.
+     * 
+     * @param recorder the replay writer, or null to stop recording.
+     */
+    public void setRecorder(ReplayWriter recorder) {
+        this.recorder = recorder;
+    }
+
     /**
      * Returns current game status on whether or not it is currently running.
      * 
@@ -204,6 +841,61 @@ public class GameManager {
         return this.win;
     }
 
+    /**
+     * Returns the number of ticks the game has been simulated for.
+     * 
+     * @return the number of completed ticks.
+     */
+    public int getTicks() {
+        return this.ticks;
+    }
+
+    public Map getMap() {
+        return this.map;
+    }
+
+    public Waka getPlayer() {
+        return this.player;
+    }
+
+    public int getPlayerLives() {
+        return this.playerLives;
+    }
+
+    public FruitStore getFruits() {
+        return this.fruits;
+    }
+
+    public TickProfiler getProfiler() {
+        return this.profiler;
+    }
+
+    /**
+     * Returns the Ghosts on the Map. If the Ghosts are held in a GhostSwarm, the Ghost objects
+     * are first brought up to date with it.
+     * 
+     * @return the Ghosts on the Map, in the order they are ticked.
+     */
+    public List<Ghost> getGhosts() {
+        if (this.swarm != null) {
+            this.swarm.sync(this.ghosts);
+        }
+        return this.ghosts;
+    }
+
+    /**
+     * Returns the number of Ghosts on the Map, without bringing Ghost objects up to date.
+     * 
+     * @return the number of Ghosts on the Map.
+     */
+    public int getGhostCount() {
+
+        if (this.swarm != null) {
+            return this.swarm.size();
+        }
+        return this.ghosts.size();
+    }
+
     /**
      * Draws sprites of the remaining player lives.
      * 
@@ -211,36 +903,53 @@ public class GameManager {
      */
     private void drawLives(PApplet app) {
 
-        int pixelGap = 28;
+        if (this.livesSprite == null) {
+            this.livesSprite = Assets.getImage(app, "playerRight.png");
+        }
+
         for (int i = 0; i < this.playerLives; i ++) {
-            app.image(this.livesSprite, 8 + i * pixelGap, 544);
+            app.image(this.livesSprite, LIVES_X + i * LIVES_GAP, LIVES_Y);
         }
     }
 
     /**
-     * Checks the status of every in-game Fruit and determines whether or not any have been
-     * consumed by the Waka. If a Fruit has been eaten, it will no longer exist on the map and
-     * GameManager will check for a win, i.e. if no Fruits remain.
+     * Checks whether any in-game Fruits have been consumed by the Waka. A Fruit is eaten once the
+     * centre of the Waka lies within its boundaries, so only the tiles around the centre need to
+     * be checked. If a Fruit has been eaten, it will no longer exist on the map and GameManager
+     * will check for a win, i.e. if no Fruits remain.
      * 
      * If a SuperFruit is consumed, all ghosts will enter Frightened mode.
      */
-    private void eatFruit() {
+    void eatFruit() {
 
-        for (int i = 0; i < this.fruits.size(); i ++) {
-            Edible fruit = this.fruits.get(i);
-            
-            // Checks if player has eaten any fruits.
-            if (this.player.objectCollision(fruit)) {
-                this.fruits.remove(fruit);
+        int size = GameObject.SPRITE_SIZE;
+        int centreX = this.player.getX() + size / 2;
+        int centreY = this.player.getY() + size / 2;
+
+        // A centre lying on the edge between two tiles is within the boundaries of both.
+        for (int row = Math.floorDiv(centreY - 1, size); row <= centreY / size; row ++) {
+            for (int col = Math.floorDiv(centreX - 1, size); col <= centreX / size; col ++) {
                 
-                // Checks whether any fruits remain on the map and award a victory if none remain.
-                if (this.fruits.size() == 0) {
-                    this.running = false;
-                    this.win = true;
+                // Checks if player has eaten any fruits.
+                boolean superFruit = this.fruits.hasSuperFruit(row, col);
+                if (this.fruits.eat(row, col)) {
+                    if (this.dirty != null) {
+                        this.dirty.add(col * size, row * size, size, size);
+                    }
+                    
+                    // Checks whether any fruits remain on the map and award a victory if none
+                    // remain.
+                    if (this.fruits.getRemaining() == 0) {
+                        this.running = false;
+                        this.win = true;
 
-                } else if (fruit instanceof SuperFruit) {
-                    for (int j = 0; j < this.ghosts.size(); j ++) {
-                        this.ghosts.get(j).frightenGhost();
+                    } else if (superFruit && (this.swarm != null)) {
+                        this.swarm.frighten();
+
+                    } else if (superFruit) {
+                        for (int j = 0; j < this.ghosts.size(); j ++) {
+                            this.ghosts.get(j).frightenGhost();
+                        }
                     }
                 }
             }
@@ -254,6 +963,10 @@ public class GameManager {
      */
     private void drawDebug(PApplet app) {
 
+        if (this.swarm != null) {
+            this.swarm.drawDebug(app);
+            return;
+        }
         for (int i = 0; i < this.ghosts.size(); i ++) {
             this.ghosts.get(i).drawDebug(app);
         }
@@ -266,46 +979,130 @@ public class GameManager {
      */
     public void setWallCollision(Moving object) {
 
+        int exits = this.map.getExits(object.getX(), object.getY());
+
         if (object.getNextMove() != null) {
-            boolean canTurn = this.map.checkWallCollision(object, true);
-            object.setTurn(!canTurn);
+            object.setTurn(Map.hasExit(exits, object.getNextMove()));
         }
-        boolean willCollide = this.map.checkWallCollision(object, false);
-        object.setCollision(willCollide);
+        object.setCollision(!Map.hasExit(exits, object.getOrientation()));
     }
 
     /**
      * Checks whether the player Waka has collided with any of the Ghosts. If the Ghosts are
      * currently Frightened, they are removed from the Map. Otherwise, the player loses a life
      * and the Waka and any Ghosts are reset to their initial positions.
+     * 
+     * Only the Ghosts in the cells around the Waka are checked. Colliding Ghosts are handled in
+     * the order they are ticked, and no more are checked once the game has been reset.
      */
     public void playerGhostCollision() {
+
+        if (this.swarm != null) {
+            this.swarmCollision();
+            return;
+        }
+
+        // A Ghost collides if the centre of the Waka lies within it, i.e. if their centres are
+        // at most half a tile apart.
+        int half = GameObject.SPRITE_SIZE / 2;
+        int centreX = this.player.getX() + half;
+        int centreY = this.player.getY() + half;
+        this.nearbyGhosts.clear();
+        this.ghostGrid.query(centreX - half, centreY - half, centreX + half + 1, 
+                centreY + half + 1, this.nearbyGhosts);
         
-        for (int i = 0; i < this.ghosts.size(); i ++) {
-            Ghost ghost = this.ghosts.get(i);
-            
-            if (this.player.objectCollision(ghost)) {
-                
-                // Checks the state of the Ghost if there is a collision between it and the Waka.
-                // If the Ghost is Frightened, it resumes its previous State and is temporarily 
-                // removed from the Map.
-                if (ghost.getState() == GhostState.FRIGHTENED) {
-                    ghost.resetState();
-                    this.ghosts.remove(ghost);
-                    this.removedGhosts.add(ghost);
+        for (int i = this.nearbyGhosts.size() - 1; i >= 0; i --) {
+            if (!this.player.objectCollision(this.nearbyGhosts.get(i))) {
+                this.nearbyGhosts.remove(i);
+            }
+        }
+        if (this.nearbyGhosts.size() > 1) {
+            this.nearbyGhosts.sort(TICK_ORDER);
+        }
+
+        boolean eaten = false;
+        for (int i = 0; i < this.nearbyGhosts.size(); i ++) {
+            Ghost ghost = this.nearbyGhosts.get(i);
                 
-                // If the Ghost is not Frightened, the player loses a life and Waka and Ghosts are
-                // reset to their starting points.
-                } else {
-                    this.playerLives -= 1;
-                    if (this.playerLives > 0) {
-                        this.resetGame();
-                    } else {
-                        this.running = false;
-                    }
-                }
+            // Checks the state of the Ghost if there is a collision between it and the Waka.
+            // If the Ghost is Frightened, it resumes its previous State and is temporarily 
+            // removed from the Map.
+            if (ghost.getState() == GhostState.FRIGHTENED) {
+                ghost.resetState();
+                ghost.tickIndex = -1;
+                this.ghostGrid.remove(ghost);
+                this.removedGhosts.add(ghost);
+                eaten = true;
+            
+            // If the Ghost is not Frightened, the player loses a life and Waka and Ghosts are
+            // reset to their starting points.
+            } else {
+                this.removeEatenGhosts(eaten);
+                this.loseLife();
+                return;
             }
         }
+        this.removeEatenGhosts(eaten);
+    }
+
+    /**
+     * Removes the Ghosts eaten during a collision check from the Ghosts on the Map in a single
+     * pass, rather than searching the list for each of them.
+     * 
+     * @param eaten whether any Ghost was eaten.
+     */
+    private void removeEatenGhosts(boolean eaten) {
+
+        if (eaten) {
+            this.ghosts.removeIf(ghost -> ghost.tickIndex < 0);
+            this.indexGhosts();
+        }
+    }
+
+    /**
+     * Records the position of each Ghost object in the order they are ticked.
+     */
+    private void indexGhosts() {
+
+        for (int i = 0; i < this.ghosts.size(); i ++) {
+            this.ghosts.get(i).tickIndex = i;
+        }
+    }
+
+    /**
+     * Checks whether the player Waka has collided with any of the Ghosts in the swarm, in the
+     * same way as playerGhostCollision does for Ghost objects.
+     */
+    private void swarmCollision() {
+
+        int i = 0;
+        while (i < this.swarm.size()) {
+            if (!this.swarm.collides(i, this.player)) {
+                i ++;
+
+            // Later Ghosts move up when one is removed, so the position is not advanced.
+            } else if (this.swarm.isFrightened(i)) {
+                this.swarm.remove(i);
+
+            } else {
+                this.loseLife();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes a life from the player after colliding with a Ghost, and either resets the game or
+     * ends it if no lives remain.
+     */
+    private void loseLife() {
+
+        this.playerLives -= 1;
+        if (this.playerLives > 0) {
+            this.resetGame();
+        } else {
+            this.running = false;
+        }
     }
 
     /**
@@ -314,20 +1111,41 @@ public class GameManager {
      */
     public void resetGame() {
 
-        // Returns any removed Ghosts back to the Map.
-        int deadGhosts = this.removedGhosts.size();
+        GameEvents.GameReset event = new GameEvents.GameReset();
+        event.begin();
 
-        for (int i = 0; i < deadGhosts; i ++) {
-            Ghost ghost = this.removedGhosts.get(0);
-            this.removedGhosts.remove(ghost);
-            this.ghosts.add(ghost);
+        if (this.swarm != null) {
+            this.swarm.reset();
+        } else {
+            this.respawnGhosts();
         }
+        this.player.resetPos();
+
+        event.end();
+        if (this.commitEvents && event.shouldCommit()) {
+            event.tick = this.ticks;
+            event.lives = this.playerLives;
+            event.ghosts = this.getGhostCount();
+            event.fruits = this.fruits.getRemaining();
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns any eaten Ghost objects to the Map and resets every Ghost to its starting position.
+     */
+    private void respawnGhosts() {
+
+        // Returns any removed Ghosts back to the Map, in the order they were eaten.
+        this.ghosts.addAll(this.removedGhosts);
+        this.removedGhosts.clear();
+        this.indexGhosts();
 
         // Resets all Ghosts to starting positions.
         for (int j = 0; j < this.ghosts.size(); j ++) {
             this.ghosts.get(j).respawn();
             this.ghosts.get(j).resetPos();
         }
-        this.player.resetPos();
+        this.ghostGrid.rebuild(this.ghosts);
     }
 }
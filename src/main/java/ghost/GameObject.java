@@ -6,7 +6,7 @@ import processing.core.PImage;
 /**
  * GameObject class is the root of the hierarchy, representing all in-game elements.
  */
-public class GameObject {
+public class GameObject implements Cloneable {
     
     /**
      * The sprite size of all Game Objects is defined to be 16 pixels.
@@ -24,7 +24,8 @@ public class GameObject {
     protected int y;
 
     /**
-     * Stores the object's current sprite image.
+     * Stores the object's current sprite image. Sprites are only loaded once the object is first
+     * drawn, so GameObjects can be created and updated without an application.
      */
     protected PImage sprite;
 
@@ -67,6 +68,29 @@ public class GameObject {
         return this.sprite;
     }
 
+    /**
+     * Loads the sprite images of the object from the application. GameObjects without a sprite
+     * do not need to override this.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {}
+
+    /**
+     * Returns a copy of the object in its current state, e.g. to restore it from later. Sprites
+     * and other shared resources are shared with the copy rather than copied.
+     * 
+     * @return a copy of the object.
+     */
+    public GameObject copy() {
+
+        try {
+            return (GameObject) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     /**
      * Returns whether an argument object has 'collided' with the provided GameObject object.
      * 
@@ -0,0 +1,419 @@
+package ghost;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GameServer class hosts many games at once over TCP, one headless game per connection. Clients
+ * send single bytes, each the ordinal of the State the Waka should turn in next, and receive the
+ * frames of a StateEncoder: a keyframe, then after each tick only what changed. A game that has
+ * ended is restarted with a new seed, starting again from a keyframe.
+ *
+ * Games are spread over a few shard threads, each waiting on its own Selector and ticking all
+ * of its games at the tick rate, so a thread is not needed per connection and no game is ever
+ * touched by two threads. Each shard forks its games from its own copy of the loaded game, so
+ * the Map is loaded once and the games of a shard share their distance fields cache.
+ *
+ * The memory of a game is bounded: key presses wait in a small InputQueue, and frames in an
+ * output buffer of twice the largest frame. While a client is too slow to empty its buffer no
+ * frames are written for it, and the next frame written brings it up to date.
+ *
+ * Usage: GameServer [--port 7878] [--threads 4]. Game settings are taken from "config.json".
+ */
+public class GameServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7878;
+
+    /**
+     * The key codes of the moves, by State ordinal, as keyCommands understands them.
+     */
+    private static final int[] KEYS = {37, 39, 38, 40};
+
+    private static final int INPUT_CAPACITY = 16;
+    private static final int READ_BUFFER_SIZE = 256;
+
+    private final ServerSocketChannel server;
+    private final Shard[] shards;
+    private final Thread acceptor;
+    private final AtomicInteger sessions;
+    private final long tickPeriod;
+    private final int maxCatchUpTicks;
+    private volatile boolean running;
+
+    /**
+     * Creates an instance of GameServer listening on the given port, loading the game Map once.
+     * Nothing is accepted until the server is started.
+     *
+     * @param settings the settings of every game; the seed of each game is drawn from the seed.
+     * @param port the port to listen on, or 0 for any free port.
+     * @param threads the number of shard threads running the games.
+     * @throws IOException if the Map cannot be loaded or the port cannot be bound.
+     */
+    public GameServer(Settings settings, int port, int threads) throws IOException {
+
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        GameManager template = new GameManager(settings);
+        SplitMix64 seeds = new SplitMix64(settings.getSeed());
+        this.tickPeriod = 1000000000L / settings.getTickRate();
+        this.maxCatchUpTicks = settings.getMaxCatchUpTicks();
+        this.sessions = new AtomicInteger();
+
+        this.server = ServerSocketChannel.open();
+        this.server.bind(new InetSocketAddress(port));
+        this.shards = new Shard[threads];
+        for (int i = 0; i < threads; i ++) {
+            this.shards[i] = new Shard(i, template.forkForThread(), seeds.split());
+        }
+        this.acceptor = new Thread(this::accept, "GameServer-acceptor");
+    }
+
+    /**
+     * Starts accepting connections and running games.
+     */
+    public void start() {
+
+        this.running = true;
+        for (Shard shard : this.shards) {
+            shard.thread.start();
+        }
+        this.acceptor.start();
+    }
+
+    /**
+     * Stops the server, closing every connection, and waits for its threads to finish.
+     */
+    @Override
+    public void close() throws IOException {
+
+        this.running = false;
+        this.server.close();
+        for (Shard shard : this.shards) {
+            shard.selector.wakeup();
+        }
+        try {
+            this.acceptor.join();
+            for (Shard shard : this.shards) {
+                shard.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port.
+     */
+    public int getPort() {
+        return this.server.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of games being played.
+     *
+     * @return the number of connected sessions.
+     */
+    public int getSessionCount() {
+        return this.sessions.get();
+    }
+
+    /**
+     * Accepts connections and hands them to the shards in turn.
+     */
+    private void accept() {
+
+        int next = 0;
+        while (this.running) {
+            try {
+                SocketChannel channel = this.server.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                Shard shard = this.shards[next];
+                next = (next + 1) % this.shards.length;
+                shard.pending.add(channel);
+                shard.selector.wakeup();
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                System.out.println("Error: Could not accept a connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Session class holds a single game and its connection.
+     */
+    private static class Session {
+        private final SocketChannel channel;
+        private final GameManager game;
+        private final StateEncoder encoder;
+        private final InputQueue input;
+        private final ByteBuffer out;
+        private SelectionKey key;
+
+        private Session(SocketChannel channel, GameManager game) {
+            this.channel = channel;
+            this.game = game;
+            this.encoder = new StateEncoder(game);
+            this.input = new InputQueue(INPUT_CAPACITY);
+            this.out = ByteBuffer.allocate(2 * this.encoder.getMaxFrameSize());
+            game.setInput(this.input);
+        }
+    }
+
+    /**
+     * Shard class runs the games of some of the connections on a thread of its own.
+     */
+    private class Shard implements Runnable {
+        private final GameManager template;
+        private final SplitMix64 seeds;
+        private final Selector selector;
+        private final Queue<SocketChannel> pending;
+        private final List<Session> sessions;
+        private final ByteBuffer in;
+        private final Thread thread;
+
+        private Shard(int index, GameManager template, SplitMix64 seeds) throws IOException {
+            this.template = template;
+            this.seeds = seeds;
+            this.selector = Selector.open();
+            this.pending = new ConcurrentLinkedQueue<SocketChannel>();
+            this.sessions = new ArrayList<Session>();
+            this.in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            this.thread = new Thread(this, "GameServer-shard-" + index);
+        }
+
+        /**
+         * Ticks the games at the tick rate, reading key presses and writing out frames while
+         * waiting for the next tick. Like the game window, it catches up on a few late ticks at
+         * most and drops the rest.
+         */
+        @Override
+        public void run() {
+
+            long next = System.nanoTime();
+            try {
+                while (GameServer.this.running) {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        this.selector.select(Math.max(1, wait / 1000000));
+                    } else {
+                        this.selector.selectNow();
+                    }
+                    this.register();
+                    this.handleKeys();
+
+                    long now = System.nanoTime();
+                    int ticks = 0;
+                    while ((now - next >= 0) && (ticks < GameServer.this.maxCatchUpTicks)) {
+                        this.tick();
+                        next += GameServer.this.tickPeriod;
+                        ticks ++;
+                    }
+                    if (now - next >= 0) {
+                        next = now + GameServer.this.tickPeriod;
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error: Game server shard stopped: " + e.getMessage());
+            } finally {
+                for (SocketChannel channel : this.pending) {
+                    GameServer.closeQuietly(channel);
+                }
+                for (int i = this.sessions.size() - 1; i >= 0; i --) {
+                    this.close(this.sessions.get(i));
+                }
+                GameServer.closeQuietly(this.selector);
+            }
+        }
+
+        /**
+         * Starts a game for each connection accepted since the last call.
+         */
+        private void register() {
+
+            SocketChannel channel;
+            while ((channel = this.pending.poll()) != null) {
+                GameManager game = this.template.fork();
+                game.restart(this.seeds.nextLong());
+                Session session = new Session(channel, game);
+                try {
+                    session.key = channel.register(this.selector, SelectionKey.OP_READ, session);
+                } catch (IOException e) {
+                    GameServer.closeQuietly(channel);
+                    continue;
+                }
+                this.sessions.add(session);
+                GameServer.this.sessions.incrementAndGet();
+            }
+        }
+
+        private void handleKeys() {
+
+            Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Session session = (Session) key.attachment();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isReadable() && !this.read(session)) {
+                    this.close(session);
+                } else if (key.isValid() && key.isWritable()) {
+                    this.flush(session);
+                }
+            }
+        }
+
+        /**
+         * Offers the moves received from a client to its game.
+         *
+         * @return false if the connection was closed or sent something other than a move.
+         */
+        private boolean read(Session session) {
+
+            while (true) {
+                this.in.clear();
+                int read;
+                try {
+                    read = session.channel.read(this.in);
+                } catch (IOException e) {
+                    return false;
+                }
+                if (read < 0) {
+                    return false;
+                }
+                if (read == 0) {
+                    return true;
+                }
+
+                long time = System.nanoTime();
+                for (int i = 0; i < read; i ++) {
+                    int move = this.in.get(i);
+                    if ((move < 0) || (move >= KEYS.length)) {
+                        return false;
+                    }
+                    // Moves sent faster than a tick can take them are dropped.
+                    session.input.offer(KEYS[move], time);
+                }
+            }
+        }
+
+        /**
+         * Ticks every game and writes out its frame. A game that fails only closes its own
+         * session, leaving the other games of the shard running.
+         */
+        private void tick() {
+
+            for (int i = this.sessions.size() - 1; i >= 0; i --) {
+                Session session = this.sessions.get(i);
+                try {
+                    this.tick(session);
+                } catch (RuntimeException e) {
+                    System.out.println("Error: Closing a game that failed to tick: " + e);
+                    this.close(session);
+                    continue;
+                }
+                if (!this.flush(session)) {
+                    this.close(session);
+                }
+            }
+        }
+
+        private void tick(Session session) {
+
+            GameManager game = session.game;
+            game.tick();
+
+            // Frames are left out while a client is behind, as the next one catches it up.
+            if (session.out.remaining() >= session.encoder.getMaxFrameSize()) {
+                session.encoder.encode(game, session.out);
+            }
+            if (!game.isRunning()) {
+                game.restart(this.seeds.nextLong());
+                session.encoder.reset();
+            }
+        }
+
+        /**
+         * Writes out as much of the buffered frames as the connection takes, and waits until it
+         * can take more if any are left.
+         *
+         * @return false if the connection was closed.
+         */
+        private boolean flush(Session session) {
+
+            if (session.out.position() == 0) {
+                return true;
+            }
+            session.out.flip();
+            try {
+                session.channel.write(session.out);
+            } catch (IOException e) {
+                return false;
+            } finally {
+                session.out.compact();
+            }
+            int ops = SelectionKey.OP_READ;
+            if (session.out.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (session.key.interestOps() != ops) {
+                session.key.interestOps(ops);
+            }
+            return true;
+        }
+
+        private void close(Session session) {
+
+            session.key.cancel();
+            GameServer.closeQuietly(session.channel);
+            if (this.sessions.remove(session)) {
+                GameServer.this.sessions.decrementAndGet();
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing more can be done with a connection that fails to close.
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        GameServer server = new GameServer(settings, port, threads);
+        server.start();
+        System.out.println("Serving games on port " + server.getPort() + " with " + threads
+                + " threads");
+        server.acceptor.join();
+    }
+}
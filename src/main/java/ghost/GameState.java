@@ -0,0 +1,113 @@
+package ghost;
+
+import java.util.*;
+
+/**
+ * GameState class is a snapshot of a game that can be played on without affecting the game it
+ * was taken from, e.g. to search ahead for the best move or to ask what would have happened
+ * after another move. A snapshot is itself copied in time proportional to the number of Ghosts:
+ * the Map, settings and Fruits are shared between copies, and the Fruits are only copied once a
+ * copy eats one. Snapshots play out exactly like the game would with the same inputs.
+ *
+ * A snapshot and the copies made from it with copy() must all be stepped on the same thread.
+ * Copies made with copyForThread() start a new family, which may be stepped on another thread.
+ *
+ * The objects returned by the getters belong to the snapshot and must not be changed.
+ */
+public class GameState {
+
+    private final GameManager game;
+
+    private GameState(GameManager game) {
+        this.game = game;
+    }
+
+    /**
+     * Takes a snapshot of a game in its current state.
+     *
+     * @param game the game.
+     * @return the snapshot.
+     */
+    public static GameState of(GameManager game) {
+        return new GameState(game.fork());
+    }
+
+    /**
+     * Returns a copy of the snapshot, which can be stepped independently of it.
+     *
+     * @return the copy.
+     */
+    public GameState copy() {
+        return new GameState(this.game.fork());
+    }
+
+    /**
+     * Returns a copy of the snapshot that may be stepped on another thread than the snapshot and
+     * its other copies. Copies share a cache of the distance fields Ghosts target by, which is
+     * not thread safe, so this copy is given a cache of its own holding the fields found so far.
+     *
+     * @return the copy.
+     */
+    public GameState copyForThread() {
+        return new GameState(this.game.forkForThread());
+    }
+
+    /**
+     * Advances the snapshot by one tick, after giving the Waka the given next move. Snapshots of
+     * games that have ended are not changed.
+     *
+     * @param input the direction the Waka should turn in next, or null to leave its next move.
+     */
+    public void step(State input) {
+
+        if (!this.game.isRunning()) {
+            return;
+        }
+        if (input != null) {
+            this.game.setPlayerMove(input);
+        }
+        this.game.step();
+    }
+
+    public int getTicks() {
+        return this.game.getTicks();
+    }
+
+    public boolean isRunning() {
+        return this.game.isRunning();
+    }
+
+    public boolean playerWin() {
+        return this.game.playerWin();
+    }
+
+    public int getPlayerLives() {
+        return this.game.getPlayerLives();
+    }
+
+    public Map getMap() {
+        return this.game.getMap();
+    }
+
+    public Waka getPlayer() {
+        return this.game.getPlayer();
+    }
+
+    public FruitStore getFruits() {
+        return this.game.getFruits();
+    }
+
+    public int getGhostCount() {
+        return this.game.getGhostCount();
+    }
+
+    /**
+     * Returns the Ghosts on the Map. Ghosts held in a GhostSwarm are only copied into objects
+     * the first time they are asked for.
+     *
+     * @return the Ghosts on the Map, in the order they are ticked.
+     */
+    public List<Ghost> getGhosts() {
+        return this.game.getGhosts();
+    }
+}
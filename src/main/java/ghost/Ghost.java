@@ -1,7 +1,5 @@
 package ghost;
 
-import java.util.Random;
-
 import processing.core.PApplet;
 import processing.core.PImage;
 
@@ -92,27 +90,78 @@ public abstract class Ghost extends Moving {
      */
     protected int yTarget;
 
+    /**
+     * Generates the random targets of the Ghost while it is Frightened.
+     */
+    protected SplitMix64 random;
+
+    /**
+     * Stores the maze distances to targets, if Ghosts target by maze distance.
+     */
+    protected DistanceFields distances;
+
+    /**
+     * Whether the Ghost commits JFR events, which Ghosts of forked games do not.
+     */
+    protected boolean commitEvents;
+
+    /**
+     * Stores the position of the Ghost in the order GameManager ticks Ghost objects, or -1 once
+     * the Waka has eaten it.
+     */
+    protected int tickIndex;
+
     /**
      * Creates an instance of Ghost, given starting x and y positions and a movement speed.
      * 
      * @param x
      * @param y
      * @param speed
-     * @param app
      */
-    public Ghost(int x, int y, int speed, PApplet app) {
+    public Ghost(int x, int y, int speed) {
         
         super(x, y, speed);
         
         this.xDraw -= Ghost.GHOST_X_OFFSET;
+        this.xLast = this.xDraw;
         this.currentMode = 0;
         this.modeTimer = 0;
         this.frightenedCount = 0;
         this.state = GhostState.SCATTER;
-        this.frightenedSprite = app.loadImage("src/main/resources/frightened.png");
 
         this.xTarget = 0;
         this.yTarget = 0;
+        this.random = new SplitMix64();
+        this.commitEvents = true;
+    }
+
+    /**
+     * Loads the frightened Ghost sprite. Each type of Ghost loads its own normal sprite.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {
+        this.frightenedSprite = Assets.getImage(app, "frightened.png");
+    }
+
+    /**
+     * Draws in the Ghost sprite corresponding to its current state.
+     * 
+     * @param app
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    public void draw(PApplet app, float alpha) {
+
+        if (this.sprite == null) {
+            this.loadSprite(app);
+        }
+
+        if (this.state == GhostState.FRIGHTENED) {
+            this.sprite = this.frightenedSprite;
+        } else {
+            this.sprite = this.normalSprite;
+        }
+        super.draw(app, alpha);
     }
 
     /**
@@ -120,6 +169,7 @@ public abstract class Ghost extends Moving {
      */
     public void tick() {
 
+        this.storeLastPosition();
         if (this.state == GhostState.FRIGHTENED) {
             this.frightenedCount --;
             
@@ -137,12 +187,23 @@ public abstract class Ghost extends Moving {
                 // time, it will switch to the next mode.
                 this.currentMode ++;
                 this.currentMode %= this.ghostModes.length;
-                this.modeTimer = this.ghostModes[this.currentMode] * 60;
+                this.modeTimer = this.ghostModes[this.currentMode] * this.tickRate;
+
+                GameEvents.GhostModeSwitch event = new GameEvents.GhostModeSwitch();
+                if (this.commitEvents && event.shouldCommit()) {
+                    event.ghost = this.getClass().getSimpleName();
+                    event.from = this.state.name();
+                    event.to = this.state.switchState().name();
+                    event.x = this.x;
+                    event.y = this.y;
+                    event.mode = this.currentMode;
+                    event.commit();
+                }
                 this.state = this.state.switchState();
             }    
         }
         this.turn();
-        this.orientation.move(this);
+        this.move();
     }
 
     public GhostState getState() {
@@ -167,7 +228,7 @@ public abstract class Ghost extends Moving {
     }
 
     public void setGhostMode(int[] modes) {
-        this.modeTimer = modes[this.currentMode] * 60;
+        this.modeTimer = modes[this.currentMode] * this.tickRate;
         this.ghostModes = modes;
     }
 
@@ -175,6 +236,31 @@ public abstract class Ghost extends Moving {
         this.frightenedLength = length;
     }
 
+    /**
+     * Returns a copy of the Ghost in its current state. The copy is given a copy of the random
+     * generator, so both Ghosts go on to make the same random choices independently.
+     * 
+     * @return a copy of the Ghost.
+     */
+    public Ghost copy() {
+
+        Ghost copy = (Ghost) super.copy();
+        copy.random = this.random.copy();
+        return copy;
+    }
+
+    public void setRandom(SplitMix64 random) {
+        this.random = random;
+    }
+
+    public void setDistanceFields(DistanceFields distances) {
+        this.distances = distances;
+    }
+
+    public void setCommitEvents(boolean commitEvents) {
+        this.commitEvents = commitEvents;
+    }
+
     /**
      * Determines whether or not Ghost is at an intersection on the Map.
      * 
@@ -185,19 +271,14 @@ public abstract class Ghost extends Moving {
 
         State current = this.orientation;
         State opposite = this.orientation.getOpposite();
-        State prevNext = this.nextMove;
-        int canTurn = 0;
+        int exits = map.getExits(this.x, this.y);
 
         for (State state : State.values()) {
-            if ((state != current) && (state != opposite)) {
-                this.nextMove = state;
-                if (!map.checkWallCollision(this, true)) {
-                    canTurn ++;
-                }
+            if ((state != current) && (state != opposite) && Map.hasExit(exits, state)) {
+                return true;
             }
         }
-        this.nextMove = prevNext;
-        return (canTurn >= 1);
+        return false;
     }
 
     /**
@@ -207,14 +288,7 @@ public abstract class Ghost extends Moving {
      * @return true if Ghost is at a dead end; false otherwise.
      */
     public boolean atDeadEnd(Map map) {
-
-        State current = this.orientation;
-        State prevNext = this.nextMove;
-
-        this.nextMove = current;
-        boolean atDeadEnd = map.checkWallCollision(this, true);
-        this.nextMove = prevNext;
-        return atDeadEnd;
+        return !Map.hasExit(map.getExits(this.x, this.y), this.orientation);
     }
     
     /**
@@ -228,13 +302,12 @@ public abstract class Ghost extends Moving {
     }
 
     /**
-     * Sets the Ghost's current state to Frightened and alters sprite to reflect the change.
+     * Sets the Ghost's current state to Frightened.
      */
     public void frightenGhost() {
 
         this.state = GhostState.FRIGHTENED;
-        this.frightenedCount = this.frightenedLength * 60;
-        this.sprite = this.frightenedSprite;
+        this.frightenedCount = this.frightenedLength * this.tickRate;
     }
 
     /**
@@ -249,6 +322,20 @@ public abstract class Ghost extends Moving {
         app.line(this.xDraw + offset, this.yDraw + offset, this.xTarget, this.yTarget);
     }
     
+    /**
+     * Adds the area covered by the debugging line of the Ghost to the given regions.
+     * 
+     * @param regions the regions to be added to.
+     */
+    public void addDebugBounds(DirtyRegions regions) {
+
+        int offset = GameObject.SPRITE_SIZE / 2;
+        int xStart = this.xDraw + offset;
+        int yStart = this.yDraw + offset;
+        regions.add(Math.min(xStart, this.xTarget) - 1, Math.min(yStart, this.yTarget) - 1, 
+                Math.abs(xStart - this.xTarget) + 3, Math.abs(yStart - this.yTarget) + 3);
+    }
+    
     /**
      * Switches GhostState back to its previous State.
      */
@@ -259,7 +346,6 @@ public abstract class Ghost extends Moving {
         } else {
             this.state = GhostState.CHASE;
         }
-        this.sprite = this.normalSprite;
     }
 
     /**
@@ -268,14 +354,16 @@ public abstract class Ghost extends Moving {
     public void respawn() {
         
         this.currentMode = 0;
-        this.modeTimer = this.ghostModes[this.currentMode] * 60;
+        this.modeTimer = this.ghostModes[this.currentMode] * this.tickRate;
         this.state = GhostState.SCATTER;
-        this.sprite = this.normalSprite;
     }
 
     /**
      * Calculates and sets the Ghost's next move to be the one that will enable it to move
-     * closest to its target.
+     * closest to its target. If the Ghost targets by maze distance and can reach its target, 
+     * distance is the number of tiles to walk; otherwise it is the straight line distance.
+     * Frightened Ghosts aim at a new random position each time, so they always use the straight
+     * line rather than searching the Map for a target that is never aimed at again.
      * 
      * @param map
      */
@@ -286,33 +374,43 @@ public abstract class Ghost extends Moving {
             int xMax = map.getCols() * GameObject.SPRITE_SIZE;
             int yMax = map.getRows() * GameObject.SPRITE_SIZE;
 
-            int xTarget = new Random().nextInt((xMax - min) + 1) + min;
-            int yTarget = new Random().nextInt((yMax - min) + 1) + min;
+            int xTarget = this.random.nextInt((xMax - min) + 1) + min;
+            int yTarget = this.random.nextInt((yMax - min) + 1) + min;
             xTarget = setXLimit(map, xTarget);
             yTarget = setYLimit(map, yTarget);
             this.setTarget(xTarget, yTarget);
         }
 
+        char[] field = null;
+        if ((this.distances != null) && (this.state != GhostState.FRIGHTENED)) {
+            field = this.distances.findField(this.xTarget, this.yTarget);
+        }
+        if ((field != null) && (this.getDistance(field, null) == DistanceFields.UNREACHABLE)) {
+            field = null;
+        }
+
         State opposite = this.orientation.getOpposite();
         State next = opposite;
         double minDist = -1;
+        int exits = map.getExits(this.x, this.y);
 
         for (State state : State.values()) {
-            if (state != opposite) {
-                this.nextMove = state;
-
-                if (!map.checkWallCollision(this, true)) {
+            if ((state != opposite) && Map.hasExit(exits, state)) {
                     
-                    double moveDist = this.getDistance();
-                    if (next == opposite) {
+                double moveDist;
+                if (field != null) {
+                    moveDist = this.getDistance(field, state);
+                } else {
+                    moveDist = this.getDistance(state);
+                }
+                if (next == opposite) {
+                    minDist = moveDist;
+                    next = state;
+
+                } else {
+                    if (moveDist < minDist) {
                         minDist = moveDist;
                         next = state;
-
-                    } else {
-                        if (moveDist < minDist) {
-                            minDist = moveDist;
-                            next = state;
-                        }
                     }
                 }
             }
@@ -320,12 +418,60 @@ public abstract class Ghost extends Moving {
         this.nextMove = next;
     }
 
-    private double getDistance() {
+    /**
+     * Returns the number of tiles to walk to the target of the given distance field from the tile
+     * the Ghost is on, or from the next tile in the given direction.
+     * 
+     * @param field a distance field, as returned by DistanceFields.findField.
+     * @param move the direction of the next tile, or null for the Ghost's own tile.
+     * @return the number of tiles to walk, or Integer.MAX_VALUE if the tile cannot reach the
+     * target.
+     */
+    private int getDistance(char[] field, State move) {
+
+        int row = (this.y + GameObject.SPRITE_SIZE / 2) / GameObject.SPRITE_SIZE;
+        int col = (this.x + GameObject.SPRITE_SIZE / 2) / GameObject.SPRITE_SIZE;
+        if (move == State.LEFT) {
+            col --;
+        } else if (move == State.RIGHT) {
+            col ++;
+        } else if (move == State.UP) {
+            row --;
+        } else if (move == State.DOWN) {
+            row ++;
+        }
+
+        int distance = this.distances.getDistance(field, row, col);
+        if ((move != null) && (distance == DistanceFields.UNREACHABLE)) {
+            return Integer.MAX_VALUE;
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the number of tiles the Ghost has to walk to reach the given position, if Ghosts
+     * target by maze distance and the position has been aimed at recently.
+     * 
+     * @param x
+     * @param y
+     * @return the number of tiles to walk, or DistanceFields.UNREACHABLE if Ghosts do not target
+     * by maze distance, no field is used for the position or it cannot be reached.
+     */
+    protected int getMazeDistance(int x, int y) {
+
+        char[] field = (this.distances != null) ? this.distances.findField(x, y) : null;
+        if (field == null) {
+            return DistanceFields.UNREACHABLE;
+        }
+        return this.getDistance(field, null);
+    }
+
+    private double getDistance(State move) {
 
         int xDist = 0;
         int yDist = 0;
 
-        switch (this.nextMove) {
+        switch (move) {
             case LEFT:
                 xDist = (this.x - GameObject.SPRITE_SIZE) - this.xTarget;
                 yDist = this.y - this.yTarget;
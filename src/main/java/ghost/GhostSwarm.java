@@ -0,0 +1,801 @@
+package ghost;
+
+import java.util.*;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+/**
+ * GhostSwarm class stores the Ghosts of a game in parallel arrays of primitives rather than as
+ * separate objects, and updates them in a single loop without virtual calls. Swarms behave exactly
+ * like the Ghost objects they are made from, ticking them in the same order with the same random
+ * generators, but keep their state packed together so games with thousands of Ghosts can still be
+ * run at full speed.
+ *
+ * The Ghosts of a swarm share their speed, mode durations, Frightened duration and distance
+ * fields, as GameManager gives every Ghost the same settings. Ghosts never use the turn and
+ * collision flags of Moving objects, so these are not stored.
+ */
+public class GhostSwarm {
+
+    /**
+     * Ghost types, in the order of their sprites.
+     */
+    static final byte AMBUSHER = 0;
+    static final byte CHASER = 1;
+    static final byte IGNORANT = 2;
+    static final byte WHIM = 3;
+
+    /**
+     * Marks a Ghost without a next move.
+     */
+    private static final byte NO_MOVE = -1;
+
+    private static final String[] SPRITES = {
+        "ambusher.png", "chaser.png", "ignorant.png", "whim.png"
+    };
+
+    private static final State[] STATES = State.values();
+    private static final GhostState[] GHOST_STATES = GhostState.values();
+    private static final byte SCATTER = (byte) GhostState.SCATTER.ordinal();
+    private static final byte CHASE = (byte) GhostState.CHASE.ordinal();
+    private static final byte FRIGHTENED = (byte) GhostState.FRIGHTENED.ordinal();
+
+    /**
+     * Stores the Ghost objects the swarm was made from, which are updated by sync(). Copies of a
+     * swarm share the Ghost objects until they are first synced.
+     */
+    private Ghost[] source;
+    private boolean sharedSource;
+
+    private byte[] type;
+    private int[] x;
+    private int[] y;
+    private int[] xStart;
+    private int[] yStart;
+    private int[] xDraw;
+    private int[] yDraw;
+    private int[] xLast;
+    private int[] yLast;
+    private byte[] orientation;
+    private byte[] nextMove;
+    private int[] progress;
+    private byte[] state;
+    private int[] currentMode;
+    private int[] modeTimer;
+    private int[] frightenedCount;
+    private int[] xTarget;
+    private int[] yTarget;
+    private SplitMix64[] random;
+
+    private int speed;
+    private int tickRate;
+    private int[] ghostModes;
+    private int frightenedLength;
+    private DistanceFields distances;
+    private boolean commitEvents;
+
+    /**
+     * Stores the indices of the Ghosts on the Map, in the order they are ticked.
+     */
+    private int[] active;
+    private int activeCount;
+
+    /**
+     * Stores the indices of the Ghosts eaten by the Waka, in the order they were eaten.
+     */
+    private int[] removed;
+    private int removedCount;
+
+    private PImage[] sprites;
+    private PImage frightenedSprite;
+
+    /**
+     * Creates an instance of GhostSwarm holding the state of the given Ghosts, which must already
+     * have been set up with the game settings.
+     *
+     * @param ghosts the Ghosts on the Map, in the order they are ticked.
+     */
+    public GhostSwarm(List<Ghost> ghosts) {
+
+        int count = ghosts.size();
+        this.source = ghosts.toArray(new Ghost[count]);
+
+        this.type = new byte[count];
+        this.x = new int[count];
+        this.y = new int[count];
+        this.xStart = new int[count];
+        this.yStart = new int[count];
+        this.xDraw = new int[count];
+        this.yDraw = new int[count];
+        this.xLast = new int[count];
+        this.yLast = new int[count];
+        this.orientation = new byte[count];
+        this.nextMove = new byte[count];
+        this.progress = new int[count];
+        this.state = new byte[count];
+        this.currentMode = new int[count];
+        this.modeTimer = new int[count];
+        this.frightenedCount = new int[count];
+        this.xTarget = new int[count];
+        this.yTarget = new int[count];
+        this.random = new SplitMix64[count];
+        this.active = new int[count];
+        this.removed = new int[count];
+
+        for (int i = 0; i < count; i ++) {
+            Ghost ghost = this.source[i];
+            this.type[i] = GhostSwarm.typeOf(ghost);
+            this.x[i] = ghost.x;
+            this.y[i] = ghost.y;
+            this.xStart[i] = ghost.xStart;
+            this.yStart[i] = ghost.yStart;
+            this.xDraw[i] = ghost.xDraw;
+            this.yDraw[i] = ghost.yDraw;
+            this.xLast[i] = ghost.xLast;
+            this.yLast[i] = ghost.yLast;
+            this.orientation[i] = (byte) ghost.orientation.ordinal();
+            this.nextMove[i] = (ghost.nextMove == null) ? NO_MOVE : (byte) ghost.nextMove.ordinal();
+            this.progress[i] = ghost.progress;
+            this.state[i] = (byte) ghost.state.ordinal();
+            this.currentMode[i] = ghost.currentMode;
+            this.modeTimer[i] = ghost.modeTimer;
+            this.frightenedCount[i] = ghost.frightenedCount;
+            this.xTarget[i] = ghost.xTarget;
+            this.yTarget[i] = ghost.yTarget;
+            this.random[i] = ghost.random;
+            this.active[i] = i;
+        }
+        this.activeCount = count;
+        this.removedCount = 0;
+        this.commitEvents = true;
+
+        if (count > 0) {
+            Ghost first = this.source[0];
+            this.speed = first.speed;
+            this.tickRate = first.tickRate;
+            this.ghostModes = first.ghostModes;
+            this.frightenedLength = first.frightenedLength;
+            this.distances = first.distances;
+            this.commitEvents = first.commitEvents;
+        }
+    }
+
+    /**
+     * Creates a copy of a swarm. Starting positions, types and settings never change, so they
+     * are shared rather than copied.
+     *
+     * @param swarm the swarm to be copied.
+     */
+    private GhostSwarm(GhostSwarm swarm) {
+
+        this.source = swarm.source.clone();
+        this.sharedSource = true;
+
+        this.type = swarm.type;
+        this.x = swarm.x.clone();
+        this.y = swarm.y.clone();
+        this.xStart = swarm.xStart;
+        this.yStart = swarm.yStart;
+        this.xDraw = swarm.xDraw.clone();
+        this.yDraw = swarm.yDraw.clone();
+        this.xLast = swarm.xLast.clone();
+        this.yLast = swarm.yLast.clone();
+        this.orientation = swarm.orientation.clone();
+        this.nextMove = swarm.nextMove.clone();
+        this.progress = swarm.progress.clone();
+        this.state = swarm.state.clone();
+        this.currentMode = swarm.currentMode.clone();
+        this.modeTimer = swarm.modeTimer.clone();
+        this.frightenedCount = swarm.frightenedCount.clone();
+        this.xTarget = swarm.xTarget.clone();
+        this.yTarget = swarm.yTarget.clone();
+        this.random = new SplitMix64[swarm.random.length];
+        for (int i = 0; i < this.random.length; i ++) {
+            this.random[i] = swarm.random[i].copy();
+        }
+        this.active = swarm.active.clone();
+        this.activeCount = swarm.activeCount;
+        this.removed = swarm.removed.clone();
+        this.removedCount = swarm.removedCount;
+
+        this.speed = swarm.speed;
+        this.tickRate = swarm.tickRate;
+        this.ghostModes = swarm.ghostModes;
+        this.frightenedLength = swarm.frightenedLength;
+        this.distances = swarm.distances;
+        this.commitEvents = swarm.commitEvents;
+        this.sprites = swarm.sprites;
+        this.frightenedSprite = swarm.frightenedSprite;
+    }
+
+    /**
+     * Returns a copy of the swarm in its current state, whose Ghosts go on to make the same
+     * random choices independently.
+     *
+     * @return the copy.
+     */
+    public GhostSwarm copy() {
+        return new GhostSwarm(this);
+    }
+
+    /**
+     * Sets the distance fields the Ghosts target by, if they target by maze distance.
+     *
+     * @param distances the distance fields, or null if Ghosts target in a straight line.
+     */
+    public void setDistanceFields(DistanceFields distances) {
+        this.distances = distances;
+    }
+
+    /**
+     * Sets whether the Ghosts commit JFR events, which the Ghosts of forked games do not.
+     *
+     * @param commitEvents whether events are committed.
+     */
+    public void setCommitEvents(boolean commitEvents) {
+        this.commitEvents = commitEvents;
+    }
+
+    /**
+     * Returns the number of Ghosts on the Map, i.e. not eaten by the Waka.
+     *
+     * @return the number of Ghosts on the Map.
+     */
+    public int size() {
+        return this.activeCount;
+    }
+
+    /**
+     * Targets, steers and moves every Ghost on the Map for one tick, in the same way as
+     * GameManager ticks Ghost objects.
+     *
+     * @param map the game map.
+     * @param player the Waka.
+     * @param profiler times the targeting, steering and movement of each Ghost.
+     * @param time the time the profiler was last lapped at.
+     */
+    public void tick(Map map, Waka player, TickProfiler profiler, long time) {
+
+        int width = map.getCols() * GameObject.SPRITE_SIZE;
+        int height = map.getRows() * GameObject.SPRITE_SIZE;
+        int playerX = player.getX();
+        int playerY = player.getY();
+        int playerOrientation = player.getOrientation().ordinal();
+        int step = this.speed * Settings.DEFAULT_TICK_RATE;
+
+        // Whims aim relative to the first Chaser on the Map, which may move or be eaten.
+        int chaser = -1;
+        for (int k = 0; k < this.activeCount; k ++) {
+            if (this.type[this.active[k]] == CHASER) {
+                chaser = this.active[k];
+                break;
+            }
+        }
+
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+
+            if (this.state[i] != FRIGHTENED) {
+                switch (this.type[i]) {
+                    case AMBUSHER:
+                        this.targetAmbusher(i, playerX, playerY, playerOrientation, width, height);
+                        break;
+                    case CHASER:
+                        this.targetChaser(i, playerX, playerY, width, height);
+                        break;
+                    case IGNORANT:
+                        this.targetIgnorant(i, playerX, playerY, height);
+                        break;
+                    case WHIM:
+                        this.targetWhim(i, chaser, playerX, playerY, width, height);
+                        break;
+                }
+            }
+            time = profiler.lap(Phase.TARGETING, time);
+
+            // Ghosts only steer on ticks they move on, so a Ghost waiting on a tile cannot
+            // reverse the turn it has just made.
+            if (this.progress[i] + step >= this.tickRate) {
+                int current = this.orientation[i];
+                int opposite = STATES[current].getOpposite().ordinal();
+                int exits = map.getExits(this.x[i], this.y[i]);
+                int sideExits = exits & ~((1 << current) | (1 << opposite));
+
+                if (sideExits != 0) {
+                    this.steer(i, map, exits, opposite, width, height);
+                } else if ((exits & (1 << current)) == 0) {
+                    this.nextMove[i] = (byte) opposite;
+                }
+            }
+            time = profiler.lap(Phase.STEERING, time);
+
+            this.xLast[i] = this.xDraw[i];
+            this.yLast[i] = this.yDraw[i];
+            if (this.state[i] == FRIGHTENED) {
+                this.frightenedCount[i] --;
+                if (this.frightenedCount[i] == 0) {
+                    this.resetState(i);
+                }
+
+            } else {
+                this.modeTimer[i] --;
+                if (this.modeTimer[i] == 0) {
+                    this.currentMode[i] = (this.currentMode[i] + 1) % this.ghostModes.length;
+                    this.modeTimer[i] = this.ghostModes[this.currentMode[i]] * this.tickRate;
+                    byte next = (this.state[i] == SCATTER) ? CHASE : SCATTER;
+
+                    GameEvents.GhostModeSwitch event = new GameEvents.GhostModeSwitch();
+                    if (this.commitEvents && event.shouldCommit()) {
+                        event.ghost = this.source[i].getClass().getSimpleName();
+                        event.from = GHOST_STATES[this.state[i]].name();
+                        event.to = GHOST_STATES[next].name();
+                        event.x = this.x[i];
+                        event.y = this.y[i];
+                        event.mode = this.currentMode[i];
+                        event.commit();
+                    }
+                    this.state[i] = next;
+                }
+            }
+
+            if (this.nextMove[i] != NO_MOVE) {
+                this.orientation[i] = this.nextMove[i];
+                this.nextMove[i] = NO_MOVE;
+            }
+            // Steps as Moving.move does, evenly or a pixel at a time at accepted tick rates.
+            this.progress[i] += step;
+            int distance = this.progress[i] / this.tickRate;
+            this.progress[i] -= distance * this.tickRate;
+            this.move(i, distance);
+            time = profiler.lap(Phase.MOVEMENT, time);
+        }
+    }
+
+    /**
+     * Sets every Ghost on the Map to Frightened.
+     */
+    public void frighten() {
+
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+            this.state[i] = FRIGHTENED;
+            this.frightenedCount[i] = this.frightenedLength * this.tickRate;
+        }
+    }
+
+    /**
+     * Returns whether the Waka has collided with the Ghost at the given position in tick order.
+     *
+     * @param k the position of the Ghost among the Ghosts on the Map.
+     * @param player the Waka.
+     * @return true if the centre of the Waka lies within the Ghost; false otherwise.
+     */
+    public boolean collides(int k, Waka player) {
+
+        int i = this.active[k];
+        int centreX = player.getX() + GameObject.SPRITE_SIZE / 2;
+        int centreY = player.getY() + GameObject.SPRITE_SIZE / 2;
+        return (centreX >= this.x[i]) && (centreX <= this.x[i] + GameObject.SPRITE_SIZE)
+                && (centreY >= this.y[i]) && (centreY <= this.y[i] + GameObject.SPRITE_SIZE);
+    }
+
+    /**
+     * Returns whether the Ghost at the given position in tick order is Frightened.
+     *
+     * @param k the position of the Ghost among the Ghosts on the Map.
+     * @return true if the Ghost is Frightened; false otherwise.
+     */
+    public boolean isFrightened(int k) {
+        return this.state[this.active[k]] == FRIGHTENED;
+    }
+
+    /**
+     * Removes the Ghost at the given position in tick order from the Map, returning it to its
+     * previous mode. Later Ghosts move up one position.
+     *
+     * @param k the position of the Ghost among the Ghosts on the Map.
+     */
+    public void remove(int k) {
+
+        int i = this.active[k];
+        this.resetState(i);
+        System.arraycopy(this.active, k + 1, this.active, k, this.activeCount - k - 1);
+        this.activeCount --;
+        this.removed[this.removedCount ++] = i;
+    }
+
+    /**
+     * Returns any removed Ghosts to the Map after the others, and resets every Ghost to its
+     * starting position and mode.
+     */
+    public void reset() {
+
+        for (int j = 0; j < this.removedCount; j ++) {
+            this.active[this.activeCount ++] = this.removed[j];
+        }
+        this.removedCount = 0;
+
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+            this.currentMode[i] = 0;
+            this.modeTimer[i] = this.ghostModes[0] * this.tickRate;
+            this.state[i] = SCATTER;
+
+            this.x[i] = this.xStart[i];
+            this.y[i] = this.yStart[i];
+            this.xDraw[i] = this.x[i] - Moving.X_OFFSET;
+            this.yDraw[i] = this.y[i] - Moving.Y_OFFSET;
+            this.xLast[i] = this.xDraw[i];
+            this.yLast[i] = this.yDraw[i];
+        }
+    }
+
+    /**
+     * Copies the state of the swarm back into its Ghost objects, and fills the given list with
+     * the Ghosts on the Map in tick order.
+     *
+     * @param ghosts the list to be filled.
+     */
+    public void sync(List<Ghost> ghosts) {
+
+        if (this.sharedSource) {
+            for (int i = 0; i < this.source.length; i ++) {
+                this.source[i] = this.source[i].copy();
+            }
+            this.sharedSource = false;
+        }
+        ghosts.clear();
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+            Ghost ghost = this.source[i];
+
+            ghost.x = this.x[i];
+            ghost.y = this.y[i];
+            ghost.xDraw = this.xDraw[i];
+            ghost.yDraw = this.yDraw[i];
+            ghost.xLast = this.xLast[i];
+            ghost.yLast = this.yLast[i];
+            ghost.orientation = STATES[this.orientation[i]];
+            ghost.nextMove = (this.nextMove[i] == NO_MOVE) ? null : STATES[this.nextMove[i]];
+            ghost.progress = this.progress[i];
+            ghost.state = GHOST_STATES[this.state[i]];
+            ghost.currentMode = this.currentMode[i];
+            ghost.modeTimer = this.modeTimer[i];
+            ghost.frightenedCount = this.frightenedCount[i];
+            ghost.xTarget = this.xTarget[i];
+            ghost.yTarget = this.yTarget[i];
+            ghosts.add(ghost);
+        }
+    }
+
+    /**
+     * Draws the Ghosts inside the viewport of the camera, interpolated between their positions
+     * before and after the latest tick.
+     *
+     * @param app
+     * @param camera the camera the Map is drawn through.
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    public void draw(PApplet app, Camera camera, float alpha) {
+
+        if (this.sprites == null) {
+            this.sprites = new PImage[SPRITES.length];
+            for (int j = 0; j < SPRITES.length; j ++) {
+                this.sprites[j] = Assets.getImage(app, SPRITES[j]);
+            }
+            this.frightenedSprite = Assets.getImage(app, "frightened.png");
+        }
+
+        int size = GameObject.SPRITE_SIZE;
+        int left = camera.getX() - 2 * size;
+        int top = camera.getY() - 2 * size;
+        int right = camera.getX() + camera.getWidth();
+        int bottom = camera.getY() + camera.getHeight();
+
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+            float xDrawn = this.xLast[i] + (this.xDraw[i] - this.xLast[i]) * alpha;
+            float yDrawn = this.yLast[i] + (this.yDraw[i] - this.yLast[i]) * alpha;
+
+            if ((xDrawn > left) && (xDrawn < right) && (yDrawn > top) && (yDrawn < bottom)) {
+                PImage sprite = (this.state[i] == FRIGHTENED)
+                        ? this.frightenedSprite : this.sprites[this.type[i]];
+                app.image(sprite, xDrawn, yDrawn);
+            }
+        }
+    }
+
+    /**
+     * Adds the area each Ghost inside the viewport of the camera is drawn over to the given
+     * regions, matching the Ghosts drawn by draw.
+     *
+     * @param regions the regions to be added to.
+     * @param camera the camera the Map is drawn through.
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    public void addBounds(DirtyRegions regions, Camera camera, float alpha) {
+
+        int size = GameObject.SPRITE_SIZE;
+        int left = camera.getX() - 2 * size;
+        int top = camera.getY() - 2 * size;
+        int right = camera.getX() + camera.getWidth();
+        int bottom = camera.getY() + camera.getHeight();
+
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+            float xDrawn = this.xLast[i] + (this.xDraw[i] - this.xLast[i]) * alpha;
+            float yDrawn = this.yLast[i] + (this.yDraw[i] - this.yLast[i]) * alpha;
+
+            if ((xDrawn > left) && (xDrawn < right) && (yDrawn > top) && (yDrawn < bottom)) {
+                regions.add((int) Math.floor(xDrawn), (int) Math.floor(yDrawn), 
+                        2 * size, 2 * size);
+            }
+        }
+    }
+
+    /**
+     * Adds the area covered by the debugging line of every Ghost to the given regions.
+     *
+     * @param regions the regions to be added to.
+     */
+    public void addDebugBounds(DirtyRegions regions) {
+
+        int offset = GameObject.SPRITE_SIZE / 2;
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+            int xStart = this.xDraw[i] + offset;
+            int yStart = this.yDraw[i] + offset;
+            regions.add(Math.min(xStart, this.xTarget[i]) - 1, 
+                    Math.min(yStart, this.yTarget[i]) - 1, 
+                    Math.abs(xStart - this.xTarget[i]) + 3, 
+                    Math.abs(yStart - this.yTarget[i]) + 3);
+        }
+    }
+
+    /**
+     * Draws a white line from every Ghost to its target position in Debug mode.
+     *
+     * @param app
+     */
+    public void drawDebug(PApplet app) {
+
+        int offset = GameObject.SPRITE_SIZE / 2;
+        app.stroke(255);
+        for (int k = 0; k < this.activeCount; k ++) {
+            int i = this.active[k];
+            app.line(this.xDraw[i] + offset, this.yDraw[i] + offset,
+                    this.xTarget[i], this.yTarget[i]);
+        }
+    }
+
+    /**
+     * In Scatter mode, Ambusher targets top right corner of the Map. In Chase mode, Ambusher
+     * targets the centre of the tile four spaces ahead of the Waka.
+     */
+    private void targetAmbusher(int i, int playerX, int playerY, int playerOrientation,
+            int width, int height) {
+
+        if (this.state[i] == SCATTER) {
+            this.xTarget[i] = width;
+            this.yTarget[i] = 0;
+            return;
+        }
+
+        int ahead = 4 * GameObject.SPRITE_SIZE;
+        int xTarget = playerX;
+        int yTarget = playerY;
+        switch (STATES[playerOrientation]) {
+            case LEFT:
+                xTarget -= ahead;
+                break;
+            case RIGHT:
+                xTarget += ahead;
+                break;
+            case UP:
+                yTarget -= ahead;
+                break;
+            case DOWN:
+                yTarget += ahead;
+                break;
+        }
+        this.xTarget[i] = GhostSwarm.limit(xTarget, width) + GameObject.SPRITE_SIZE / 2;
+        this.yTarget[i] = GhostSwarm.limit(yTarget, height) + GameObject.SPRITE_SIZE / 2;
+    }
+
+    /**
+     * In Scatter mode, Chaser targets top left corner of the Map. In Chase mode, Chaser targets
+     * the centre of the Waka.
+     */
+    private void targetChaser(int i, int playerX, int playerY, int width, int height) {
+
+        if (this.state[i] == CHASE) {
+            this.xTarget[i] = GhostSwarm.limit(playerX + GameObject.SPRITE_SIZE / 2, width);
+            this.yTarget[i] = GhostSwarm.limit(playerY + GameObject.SPRITE_SIZE / 2, height);
+        } else {
+            this.xTarget[i] = 0;
+            this.yTarget[i] = 0;
+        }
+    }
+
+    /**
+     * In Scatter mode, Ignorant targets bottom left corner of the Map. In Chase mode, Ignorant
+     * targets the Waka while it is more than 8 tiles away, and the bottom left corner otherwise.
+     */
+    private void targetIgnorant(int i, int playerX, int playerY, int height) {
+
+        int half = GameObject.SPRITE_SIZE / 2;
+        if (this.state[i] == CHASE) {
+            double playerDist = DistanceFields.UNREACHABLE;
+            char[] field = null;
+            if (this.distances != null) {
+                field = this.distances.findField(playerX + half, playerY + half);
+            }
+            if (field != null) {
+                playerDist = this.distances.getDistance(field,
+                        (this.y[i] + half) / GameObject.SPRITE_SIZE,
+                        (this.x[i] + half) / GameObject.SPRITE_SIZE);
+            }
+            if (playerDist == DistanceFields.UNREACHABLE) {
+                int xDist = this.x[i] - playerX;
+                int yDist = this.y[i] - playerY;
+                playerDist = Math.sqrt(Math.pow(xDist, 2) + Math.pow(yDist, 2))
+                        / GameObject.SPRITE_SIZE;
+            }
+
+            if (playerDist > 8) {
+                this.xTarget[i] = playerX + half;
+                this.yTarget[i] = playerY + half;
+                return;
+            }
+        }
+        this.xTarget[i] = 0;
+        this.yTarget[i] = height;
+    }
+
+    /**
+     * In Scatter mode, Whim targets bottom right corner of the Map. In Chase mode, Whim targets
+     * twice the vector from Chaser to the target of Chaser, or the centre of the Waka if no
+     * Chaser is on the Map.
+     */
+    private void targetWhim(int i, int chaser, int playerX, int playerY, int width, int height) {
+
+        if (this.state[i] == SCATTER) {
+            this.xTarget[i] = width;
+            this.yTarget[i] = height;
+
+        } else if (chaser >= 0) {
+            this.xTarget[i] = GhostSwarm.limit(2 * this.xTarget[chaser] - this.x[chaser], width);
+            this.yTarget[i] = GhostSwarm.limit(2 * this.yTarget[chaser] - this.y[chaser], height);
+
+        } else {
+            this.xTarget[i] = GhostSwarm.limit(playerX + GameObject.SPRITE_SIZE / 2, width);
+            this.yTarget[i] = GhostSwarm.limit(playerY + GameObject.SPRITE_SIZE / 2, height);
+        }
+    }
+
+    /**
+     * Sets the next move of a Ghost at an intersection to the exit closest to its target, as
+     * Ghost.setNextMove does. Straight line distances are compared squared, which orders them in
+     * the same way.
+     */
+    private void steer(int i, Map map, int exits, int opposite, int width, int height) {
+
+        if (this.state[i] == FRIGHTENED) {
+            this.xTarget[i] = this.random[i].nextInt(width + 1);
+            this.yTarget[i] = this.random[i].nextInt(height + 1);
+        }
+
+        int size = GameObject.SPRITE_SIZE;
+        int row = (this.y[i] + size / 2) / size;
+        int col = (this.x[i] + size / 2) / size;
+        char[] field = null;
+        if ((this.distances != null) && (this.state[i] != FRIGHTENED)) {
+            field = this.distances.findField(this.xTarget[i], this.yTarget[i]);
+        }
+        if ((field != null)
+                && (this.distances.getDistance(field, row, col) == DistanceFields.UNREACHABLE)) {
+            field = null;
+        }
+
+        int next = opposite;
+        long minDist = -1;
+        for (int direction = 0; direction < STATES.length; direction ++) {
+            if ((direction == opposite) || ((exits & (1 << direction)) == 0)) {
+                continue;
+            }
+
+            long moveDist;
+            int xNext = this.x[i];
+            int yNext = this.y[i];
+            int rowNext = row;
+            int colNext = col;
+            switch (STATES[direction]) {
+                case LEFT:
+                    xNext -= size;
+                    colNext --;
+                    break;
+                case RIGHT:
+                    xNext += size;
+                    colNext ++;
+                    break;
+                case UP:
+                    yNext -= size;
+                    rowNext --;
+                    break;
+                case DOWN:
+                    yNext += size;
+                    rowNext ++;
+                    break;
+            }
+
+            if (field != null) {
+                moveDist = this.distances.getDistance(field, rowNext, colNext);
+                if (moveDist == DistanceFields.UNREACHABLE) {
+                    moveDist = Integer.MAX_VALUE;
+                }
+            } else {
+                long xDist = xNext - this.xTarget[i];
+                long yDist = yNext - this.yTarget[i];
+                moveDist = xDist * xDist + yDist * yDist;
+            }
+
+            if ((next == opposite) || (moveDist < minDist)) {
+                minDist = moveDist;
+                next = direction;
+            }
+        }
+        this.nextMove[i] = (byte) next;
+    }
+
+    /**
+     * Moves a Ghost the given distance in the direction it is facing.
+     */
+    private void move(int i, int distance) {
+
+        switch (STATES[this.orientation[i]]) {
+            case LEFT:
+                this.x[i] -= distance;
+                this.xDraw[i] -= distance;
+                break;
+            case RIGHT:
+                this.x[i] += distance;
+                this.xDraw[i] += distance;
+                break;
+            case UP:
+                this.y[i] -= distance;
+                this.yDraw[i] -= distance;
+                break;
+            case DOWN:
+                this.y[i] += distance;
+                this.yDraw[i] += distance;
+                break;
+        }
+    }
+
+    /**
+     * Switches a Frightened Ghost back to the mode it was in.
+     */
+    private void resetState(int i) {
+        this.state[i] = (this.currentMode[i] % 2 == 0) ? SCATTER : CHASE;
+    }
+
+    /**
+     * Limits a target position to the range from 0 to the given edge of the Map.
+     */
+    private static int limit(int position, int max) {
+        return Math.min(Math.max(position, 0), max);
+    }
+
+    private static byte typeOf(Ghost ghost) {
+
+        if (ghost instanceof Ambusher) {
+            return AMBUSHER;
+        } else if (ghost instanceof Chaser) {
+            return CHASER;
+        } else if (ghost instanceof Ignorant) {
+            return IGNORANT;
+        }
+        return WHIM;
+    }
+}
@@ -0,0 +1,165 @@
+package ghost;
+
+import java.util.*;
+
+/**
+ * GreedyPilot steers the Waka along the shortest path to the nearest remaining Fruit. Paths
+ * avoid the tiles around Ghosts that are not Frightened whenever another path exists.
+ */
+public class GreedyPilot implements Pilot {
+
+    private int[] visited;
+    private int[] firstMove;
+    private int[] queue;
+    private int search;
+
+    private BitSet danger;
+
+    /**
+     * Creates an instance of GreedyPilot.
+     */
+    public GreedyPilot() {
+        this.search = 0;
+    }
+
+    /**
+     * Searches for the nearest Fruit whenever the Waka is aligned to a tile, i.e. whenever it is
+     * able to turn.
+     */
+    public State nextMove(GameManager game) {
+
+        Waka player = game.getPlayer();
+        int size = GameObject.SPRITE_SIZE;
+        if ((player.getX() % size != 0) || (player.getY() % size != 0)) {
+            return null;
+        }
+
+        Map map = game.getMap();
+        if ((this.visited == null) || (this.visited.length != map.getRows() * map.getCols())) {
+            int tiles = map.getRows() * map.getCols();
+            this.visited = new int[tiles];
+            this.firstMove = new int[tiles];
+            this.queue = new int[tiles];
+            this.danger = new BitSet(tiles);
+        }
+        this.markDanger(game);
+
+        State move = this.search(game, player.getY() / size, player.getX() / size, true);
+        if (move == null) {
+            move = this.search(game, player.getY() / size, player.getX() / size, false);
+        }
+        return move;
+    }
+
+    /**
+     * Marks the tiles occupied by, or next to, any Ghost that is not Frightened.
+     * 
+     * @param game
+     */
+    private void markDanger(GameManager game) {
+
+        Map map = game.getMap();
+        this.danger.clear();
+
+        for (Ghost ghost : game.getGhosts()) {
+            if (ghost.getState() == GhostState.FRIGHTENED) {
+                continue;
+            }
+            int row = ghost.getY() / GameObject.SPRITE_SIZE;
+            int col = ghost.getX() / GameObject.SPRITE_SIZE;
+
+            for (int i = row - 1; i <= row + 1; i ++) {
+                for (int j = col - 1; j <= col + 1; j ++) {
+                    if ((i >= 0) && (i < map.getRows()) && (j >= 0) && (j < map.getCols())) {
+                        this.danger.set(i * map.getCols() + j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a breadth first search over the navigation graph of the Map from the given tile to
+     * the nearest remaining Fruit.
+     * 
+     * @param game
+     * @param row the starting row.
+     * @param col the starting column.
+     * @param avoidGhosts whether tiles around Ghosts may not be crossed.
+     * @return the first move along the path, or null if no Fruit can be reached.
+     */
+    private State search(GameManager game, int row, int col, boolean avoidGhosts) {
+
+        Map map = game.getMap();
+        FruitStore fruits = game.getFruits();
+        int cols = map.getCols();
+        State[] states = State.values();
+
+        // Tiles visited by earlier searches hold older search numbers, so the arrays never need
+        // to be cleared.
+        this.search ++;
+        int start = row * cols + col;
+        int head = 0;
+        int tail = 0;
+        this.visited[start] = this.search;
+        this.firstMove[start] = -1;
+        this.queue[tail ++] = start;
+
+        while (head < tail) {
+            int tile = this.queue[head ++];
+            int tileRow = tile / cols;
+            int tileCol = tile % cols;
+
+            if ((tile != start) && fruits.hasFruit(tileRow, tileCol)) {
+                return states[this.firstMove[tile]];
+            }
+
+            int exits = map.getExits(tileCol * GameObject.SPRITE_SIZE, 
+                    tileRow * GameObject.SPRITE_SIZE);
+            for (State state : states) {
+                if (!Map.hasExit(exits, state)) {
+                    continue;
+                }
+                int next = this.neighbour(map, tileRow, tileCol, state);
+                if ((next < 0) || (this.visited[next] == this.search)) {
+                    continue;
+                }
+                if (avoidGhosts && this.danger.get(next)) {
+                    continue;
+                }
+                this.visited[next] = this.search;
+                this.firstMove[next] = (tile == start) ? state.ordinal() : this.firstMove[tile];
+                this.queue[tail ++] = next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the tile next to the given one in the given direction.
+     * 
+     * @return the index of the neighbouring tile, or -1 if it lies outside the Map.
+     */
+    private int neighbour(Map map, int row, int col, State direction) {
+
+        switch (direction) {
+            case LEFT:
+                col --;
+                break;
+            case RIGHT:
+                col ++;
+                break;
+            case UP:
+                row --;
+                break;
+            case DOWN:
+                row ++;
+                break;
+        }
+
+        if ((row < 0) || (row >= map.getRows()) || (col < 0) || (col >= map.getCols())) {
+            return -1;
+        }
+        return row * map.getCols() + col;
+    }
+}
@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
  * Ignorant Class represents the Ignorant type Ghost.
@@ -14,19 +13,27 @@ public class Ignorant extends Ghost {
      * @param x
      * @param y
      * @param speed
-     * @param app
      */
-    public Ignorant(int x, int y, int speed, PApplet app) {
+    public Ignorant(int x, int y, int speed) {
         
-        super(x, y, speed, app);
-        this.sprite = app.loadImage("src/main/resources/ignorant.png");
-        this.normalSprite = this.sprite;
+        super(x, y, speed);
+    }
+
+    /**
+     * Loads the Ignorant and frightened sprites.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {
+        super.loadSprite(app);
+        this.normalSprite = Assets.getImage(app, "ignorant.png");
     }
 
     /**
      * In Scatter mode, Ignorant targets bottom left corner of the Map. In Chase mode, Ignorant
      * targets Waka's current position if its straight line playerDist towards Waka is over 8 units.
-     * Otherwise, Ignorant will target the bottom left corner of the Map.
+     * Otherwise, Ignorant will target the bottom left corner of the Map. If Ghosts target by maze
+     * distance, the number of tiles to walk to Waka is used instead of the straight line.
      */
     public void changeTarget(Map map, Moving object) {
         
@@ -38,11 +45,16 @@ public class Ignorant extends Ghost {
             int playerY = object.getY();
             int xDist = this.x - playerX;
             int yDist = this.y - playerY;
-            double playerDist = Math.sqrt(Math.pow(xDist, 2) + Math.pow(yDist, 2));
+            double playerDist = this.getMazeDistance(playerX + GameObject.SPRITE_SIZE / 2, 
+                    playerY + GameObject.SPRITE_SIZE / 2);
+            if (playerDist == DistanceFields.UNREACHABLE) {
+                playerDist = Math.sqrt(Math.pow(xDist, 2) + Math.pow(yDist, 2)) 
+                        / GameObject.SPRITE_SIZE;
+            }
             
-            // Checks whether straight line distance between player position and Ghost is more than
-            // 8 units. If distance is over 8, target is Waka, otherwise target is map bottom left.
-            if ((playerDist / GameObject.SPRITE_SIZE) > 8) {
+            // Checks whether distance between player position and Ghost is more than 8 units.
+            // If distance is over 8, target is Waka, otherwise target is map bottom left.
+            if (playerDist > 8) {
                 int targetX = playerX + GameObject.SPRITE_SIZE / 2;
                 int targetY = playerY + GameObject.SPRITE_SIZE / 2;
                 this.setTarget(targetX, targetY);
@@ -0,0 +1,148 @@
+package ghost;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InputQueue class passes timestamped key presses from the thread that receives them to the
+ * thread that runs the game, without locking. It is a ring buffer for a single producer and a
+ * single consumer: only one thread may offer events and only one thread may drain them. Each
+ * side publishes its position in the buffer with an ordered write after touching the slots, so
+ * the other side always sees whole events, in the order they were offered.
+ */
+public class InputQueue {
+
+    /**
+     * The default number of events that can wait in the queue.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Handler interface receives the events drained from the queue.
+     */
+    public interface Handler {
+
+        /**
+         * Handles an event drained from the queue.
+         *
+         * @param key the key code.
+         * @param time the time the key was pressed at, as given by System.nanoTime.
+         * @return true if the event was taken; false to leave it and any later events in the
+         * queue for the next drain.
+         */
+        public boolean handle(int key, long time);
+    }
+
+    private final int[] keys;
+    private final long[] times;
+    private final int mask;
+
+    /**
+     * Stores the number of events drained so far, written only by the consumer.
+     */
+    private final AtomicLong head;
+
+    /**
+     * Stores the number of events offered so far, written only by the producer.
+     */
+    private final AtomicLong tail;
+
+    /**
+     * Stores the producer's last sight of the head, so it only reads the consumer's position
+     * again once the queue looks full.
+     */
+    private long headCache;
+
+    /**
+     * Creates an instance of InputQueue holding at least the given number of events. The
+     * capacity is rounded up to a power of two.
+     *
+     * @param capacity the number of events that can wait in the queue.
+     */
+    public InputQueue(int capacity) {
+
+        if ((capacity <= 0) || (capacity > (1 << 30))) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.keys = new int[size];
+        this.times = new long[size];
+        this.mask = size - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.headCache = 0;
+    }
+
+    /**
+     * Creates an instance of InputQueue with the default capacity.
+     */
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Adds an event to the end of the queue. Called by the producer thread only.
+     *
+     * @param key the key code.
+     * @param time the time the key was pressed at, as given by System.nanoTime.
+     * @return true if the event was added; false if the queue is full.
+     */
+    public boolean offer(int key, long time) {
+
+        long tail = this.tail.get();
+        if (tail - this.headCache > this.mask) {
+            this.headCache = this.head.get();
+            if (tail - this.headCache > this.mask) {
+                return false;
+            }
+        }
+        int slot = (int) tail & this.mask;
+        this.keys[slot] = key;
+        this.times[slot] = time;
+        this.tail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * Passes the waiting events to the handler in the order they were offered, until the queue
+     * is empty or the handler leaves an event. Called by the consumer thread only.
+     *
+     * @param handler receives the events.
+     * @return the number of events taken.
+     */
+    public int drain(Handler handler) {
+
+        long head = this.head.get();
+        long tail = this.tail.get();
+        int taken = 0;
+        while (head < tail) {
+            int slot = (int) head & this.mask;
+            if (!handler.handle(this.keys[slot], this.times[slot])) {
+                break;
+            }
+            head ++;
+            taken ++;
+        }
+        this.head.lazySet(head);
+        return taken;
+    }
+
+    /**
+     * Returns the number of events waiting in the queue, which may already be out of date when
+     * another thread is offering or draining events.
+     *
+     * @return the number of waiting events.
+     */
+    public int size() {
+
+        // The head is read first, as it never passes the tail.
+        long head = this.head.get();
+        return (int) (this.tail.get() - head);
+    }
+
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+}
@@ -0,0 +1,232 @@
+package ghost;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+
+/**
+ * LoadClient measures a GameServer by playing many sessions at once from a single thread. Every
+ * session sends a random move every so often and decodes every frame it receives. Measuring
+ * starts a second after every session has connected, and once the run is over the client
+ * reports the frames and bytes received per second, the average frame size, and the rate at
+ * which the games ticked, which falls below the tick rate once the server cannot keep up.
+ *
+ * Usage: LoadClient [--host localhost] [--port 7878] [--sessions 1000] [--seconds 30]
+ * [--moves 4] [--seed 1], where moves is the number of moves each session sends per second.
+ */
+public class LoadClient {
+
+    private static final int RECEIVE_BUFFER_SIZE = 4096;
+    private static final long WARM_UP = 1000000000L;
+
+    /**
+     * Session class holds a connection and the game it follows.
+     */
+    private static class Session {
+        private final SocketChannel channel;
+        private final StateDecoder decoder;
+        private ByteBuffer in;
+        private long nextMove;
+        private int lastTick;
+        private long ticks;
+
+        private Session(SocketChannel channel) {
+            this.channel = channel;
+            this.decoder = new StateDecoder();
+            this.in = ByteBuffer.allocate(RECEIVE_BUFFER_SIZE);
+        }
+    }
+
+    private String host;
+    private int port;
+    private int sessionCount;
+    private int seconds;
+    private int moves;
+    private long seed;
+
+    private long frames;
+    private long bytes;
+    private long ticks;
+    private int closed;
+
+    /**
+     * Creates an instance of LoadClient with the default arguments.
+     */
+    public LoadClient() {
+        this.host = "localhost";
+        this.port = GameServer.DEFAULT_PORT;
+        this.sessionCount = 1000;
+        this.seconds = 30;
+        this.moves = 4;
+        this.seed = 1;
+    }
+
+    /**
+     * Overrides the defaults with the given command line arguments.
+     *
+     * @param args the command line arguments.
+     */
+    public void parseArguments(String[] args) {
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            String value = args[i + 1];
+
+            switch (args[i]) {
+                case "--host":
+                    this.host = value;
+                    break;
+                case "--port":
+                    this.port = Integer.parseInt(value);
+                    break;
+                case "--sessions":
+                    this.sessionCount = Integer.parseInt(value);
+                    break;
+                case "--seconds":
+                    this.seconds = Integer.parseInt(value);
+                    break;
+                case "--moves":
+                    this.moves = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    this.seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Connects every session, plays for the given number of seconds and prints the results.
+     *
+     * @throws IOException if a session cannot connect.
+     */
+    public void run() throws IOException {
+
+        SplitMix64 random = new SplitMix64(this.seed);
+        long movePeriod = (this.moves > 0) ? 1000000000L / this.moves : Long.MAX_VALUE;
+        ByteBuffer move = ByteBuffer.allocate(1);
+        List<Session> sessions = new ArrayList<Session>();
+
+        try (Selector selector = Selector.open()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < this.sessionCount; i ++) {
+                SocketChannel channel = SocketChannel.open(
+                        new InetSocketAddress(this.host, this.port));
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                Session session = new Session(channel);
+
+                // The first moves are spread over a move period, so sessions do not move at once.
+                session.nextMove = Long.MAX_VALUE;
+                if (this.moves > 0) {
+                    session.nextMove = start + random.nextInt(1000) * (movePeriod / 1000);
+                }
+                channel.register(selector, SelectionKey.OP_READ, session);
+                sessions.add(session);
+            }
+            long connected = System.nanoTime();
+            System.out.println("Connected " + this.sessionCount + " sessions in "
+                    + ((connected - start) / 1000000) + " ms");
+
+            long measured = connected + WARM_UP;
+            long end = measured + this.seconds * 1000000000L;
+            boolean measuring = false;
+            long now = connected;
+            while (now < end) {
+                if (!measuring && (now - measured >= 0)) {
+                    this.frames = 0;
+                    this.bytes = 0;
+                    for (Session session : sessions) {
+                        session.ticks = 0;
+                    }
+                    measuring = true;
+                }
+                selector.select(10);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        this.read((Session) key.attachment(), key);
+                    }
+                }
+
+                now = System.nanoTime();
+                for (int i = 0; i < sessions.size(); i ++) {
+                    Session session = sessions.get(i);
+                    if (now - session.nextMove < 0) {
+                        continue;
+                    }
+                    session.nextMove += movePeriod;
+                    move.clear();
+                    move.put((byte) random.nextInt(4));
+                    move.flip();
+                    if (session.channel.isOpen()) {
+                        session.channel.write(move);
+                    }
+                }
+            }
+            this.report(sessions, (now - measured) / 1e9);
+        } finally {
+            for (Session session : sessions) {
+                session.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads and decodes the frames waiting for a session. A frame split between reads is kept
+     * until the rest of it arrives, growing the buffer if the frame does not fit.
+     */
+    private void read(Session session, SelectionKey key) throws IOException {
+
+        int read = session.channel.read(session.in);
+        if (read < 0) {
+            key.cancel();
+            session.channel.close();
+            this.closed ++;
+            return;
+        }
+        this.bytes += read;
+
+        session.in.flip();
+        while (session.decoder.decode(session.in)) {
+            this.frames ++;
+            int tick = session.decoder.getTicks();
+            session.ticks += (tick >= session.lastTick) ? tick - session.lastTick : tick;
+            session.lastTick = tick;
+        }
+        session.in.compact();
+        if (!session.in.hasRemaining()) {
+            ByteBuffer in = ByteBuffer.allocate(2 * session.in.capacity());
+            session.in.flip();
+            session.in = in.put(session.in);
+        }
+    }
+
+    private void report(List<Session> sessions, double seconds) {
+
+        long minTicks = Long.MAX_VALUE;
+        for (Session session : sessions) {
+            this.ticks += session.ticks;
+            minTicks = Math.min(minTicks, session.ticks);
+        }
+        System.out.println("Sessions: " + sessions.size() + " (" + this.closed + " closed)");
+        System.out.printf("Frames: %.0f/s, %.0f bytes/s, %.1f bytes/frame%n",
+                this.frames / seconds, this.bytes / seconds,
+                (this.frames > 0) ? (double) this.bytes / this.frames : 0.0);
+        System.out.printf("Ticks per session: %.1f/s on average, %.1f/s at the slowest%n",
+                this.ticks / seconds / sessions.size(),
+                minTicks / seconds);
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        LoadClient client = new LoadClient();
+        client.parseArguments(args);
+        client.run();
+    }
+}
@@ -2,63 +2,247 @@ package ghost;
 
 import java.util.*;
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 
 import processing.core.PApplet;
-import processing.core.PImage;
+import processing.core.PGraphics;
 
 /**
  * Map class stores game layout.
+ * 
+ * Maps are loaded either from a text file holding one character per tile or from a compiled Map
+ * file, which holds everything that is otherwise worked out from the text when loading. Compiled
+ * files start with the magic bytes "WKMP" and a format version, followed by the number of rows
+ * and columns, the player spawn tile, the number of Ghosts and the type character and tile of
+ * each, and the number of Fruits. The tile grid and the navigation graph follow, one byte per
+ * tile in row-major order, and then the Wall, Fruit and SuperFruit grids as bit sets of 64-bit
+ * words. All numbers are big-endian.
  */
 public class Map {
-    
-    private List<Character[]> mapText;
-    private Wall[][] mapObjects;
+
+    /**
+     * The magic bytes compiled Map files start with.
+     */
+    public static final byte[] MAGIC = "WKMP".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The version of the compiled Map format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the chunks the Map file is read in.
+     */
+    private static final int READ_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The width and height of each rendered chunk of the maze, in tiles.
+     */
+    private static final int CHUNK_TILES = 16;
+
+    /**
+     * The most rendered chunks of the maze kept at once.
+     */
+    private static final int MAX_CHUNKS = 64;
+
+    private static final State[] STATES = State.values();
+
+    /**
+     * Stores the character of every tile in row-major order. Compiled Maps keep the tiles in the
+     * mapped file rather than copying them.
+     */
+    private ByteBuffer tiles;
+    private BitSet wallGrid;
+    private byte[] exitGrid;
+    private BitSet fruitGrid;
+    private BitSet superFruitGrid;
+    private int numFruit;
+
+    /**
+     * Counts the Wall collision checks made while counting is on, for profiling. Only the game
+     * that loaded the Map counts its checks; forks, which may be played on several threads at
+     * once, play on a view of the Map that never counts.
+     */
+    private long wallChecks;
+    private boolean countWallChecks;
+    private Map uncounted;
+
+    /**
+     * Stores the rendered chunks of the maze by chunk index, least recently drawn first.
+     */
+    private LinkedHashMap<Integer, PGraphics> mazeChunks;
     private int rows;
     private int cols;
 
     private int playerStartRow;
     private int playerStartCol;
-    private List<Edible> fruits;
     private List<Ghost> ghosts;
 
     /**
      * Creates an instance of Map by interpreting a list of characters into corresponding 
-     * GameObjects.
+     * GameObjects, or by reading a compiled Map file.
      * 
-     * @param mapText the list of characters parsed from a map text file.
-     * @param app
+     * @param filename the name of the Map file.
+     * @throws IOException if the Map file cannot be read.
+     * @throws MapFormatException if the Map file is not a valid layout.
      */
-    public Map(String filename, PApplet app) {
+    public Map(String filename) throws IOException {
 
-        this.mapText = this.loadMap(filename);
-        this.rows = this.mapText.size();
-        this.cols = this.mapText.get(0).length;
-        
+        GameEvents.MapLoad event = new GameEvents.MapLoad();
+        event.begin();
         this.playerStartRow = 0;
         this.playerStartCol = 0;
-        this.fruits = new ArrayList<Edible>();
         this.ghosts = new ArrayList<Ghost>();
+        this.wallChecks = 0;
+        this.countWallChecks = false;
+
+        boolean compiled = Map.isCompiled(filename);
+        if (compiled) {
+            this.loadCompiled(filename);
+        } else {
+            byte[] grid = this.loadMap(filename);
+            this.initMap(grid);
+            this.tiles = ByteBuffer.wrap(grid);
+        }
 
-        this.mapObjects = this.initMap(app);
+        this.mazeChunks = new LinkedHashMap<Integer, PGraphics>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(java.util.Map.Entry<Integer, PGraphics> eldest) {
+                return this.size() > MAX_CHUNKS;
+            }
+        };
+        this.uncounted = new Map(this);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = filename;
+            event.compiled = compiled;
+            event.rows = this.rows;
+            event.cols = this.cols;
+            event.ghosts = this.ghosts.size();
+            event.fruits = this.numFruit;
+            event.commit();
+        }
     }
 
     /**
-     * Draws in the Walls of the Map.
+     * Creates a view of the given Map, sharing its layout, which never counts Wall checks.
+     * 
+     * @param map the Map to be viewed.
+     */
+    private Map(Map map) {
+
+        this.tiles = map.tiles;
+        this.wallGrid = map.wallGrid;
+        this.exitGrid = map.exitGrid;
+        this.fruitGrid = map.fruitGrid;
+        this.superFruitGrid = map.superFruitGrid;
+        this.numFruit = map.numFruit;
+        this.mazeChunks = map.mazeChunks;
+        this.rows = map.rows;
+        this.cols = map.cols;
+        this.playerStartRow = map.playerStartRow;
+        this.playerStartCol = map.playerStartCol;
+        this.ghosts = map.ghosts;
+        this.wallChecks = 0;
+        this.countWallChecks = false;
+        this.uncounted = this;
+    }
+
+    /**
+     * Returns a view of the Map which shares its layout but never counts Wall checks, for games
+     * that are not profiled, e.g. forks played on other threads.
+     * 
+     * @return the view.
+     */
+    public Map getUncounted() {
+        return this.uncounted;
+    }
+
+    /**
+     * Draws in the Walls of the Map inside the camera viewport. Walls never change once the Map
+     * is loaded, so the maze is rendered in square chunks when they first come into view and each
+     * visible chunk is drawn as a single image afterwards. Only the most recently drawn chunks
+     * are kept, so memory does not grow with the size of the Map.
      * 
      * @param app
+     * @param camera the camera viewport, in Map coordinates.
      */
-    public void draw(PApplet app) {
-        for (int i = 0; i < this.rows; i ++) {
-            for (int j = 0; j < this.cols; j ++) {
-                Wall wall = this.mapObjects[i][j];
-                
-                if (wall != null) {
-                    wall.draw(app);
+    public void draw(PApplet app, Camera camera) {
+
+        int chunkRows = (this.rows + CHUNK_TILES - 1) / CHUNK_TILES;
+        int chunkCols = (this.cols + CHUNK_TILES - 1) / CHUNK_TILES;
+        int firstRow = Math.max(Math.floorDiv(camera.getFirstRow(), CHUNK_TILES), 0);
+        int lastRow = Math.min(Math.floorDiv(camera.getLastRow(), CHUNK_TILES), chunkRows - 1);
+        int firstCol = Math.max(Math.floorDiv(camera.getFirstCol(), CHUNK_TILES), 0);
+        int lastCol = Math.min(Math.floorDiv(camera.getLastCol(), CHUNK_TILES), chunkCols - 1);
+
+        for (int i = firstRow; i <= lastRow; i ++) {
+            for (int j = firstCol; j <= lastCol; j ++) {
+                int index = i * chunkCols + j;
+                PGraphics chunk = this.mazeChunks.get(index);
+                if (chunk == null) {
+                    chunk = this.renderChunk(app, i, j);
+                    this.mazeChunks.put(index, chunk);
                 }
+                int size = CHUNK_TILES * GameObject.SPRITE_SIZE;
+                app.image(chunk, j * size, i * size);
             }
         }
     }
 
+    /**
+     * Renders the Walls of a chunk of the maze into an off-screen graphics buffer the size of the
+     * chunk.
+     * 
+     * @param app
+     * @param chunkRow the row of the chunk.
+     * @param chunkCol the column of the chunk.
+     * @return the rendered chunk.
+     */
+    private PGraphics renderChunk(PApplet app, int chunkRow, int chunkCol) {
+
+        int size = CHUNK_TILES * GameObject.SPRITE_SIZE;
+        PGraphics layer = app.createGraphics(size, size);
+        layer.beginDraw();
+        layer.translate(-chunkCol * size, -chunkRow * size);
+
+        int lastRow = Math.min((chunkRow + 1) * CHUNK_TILES, this.rows);
+        int lastCol = Math.min((chunkCol + 1) * CHUNK_TILES, this.cols);
+        for (int i = chunkRow * CHUNK_TILES; i < lastRow; i ++) {
+            for (int j = chunkCol * CHUNK_TILES; j < lastCol; j ++) {
+                if (this.wallGrid.get(i * this.cols + j)) {
+                    Wall wall = new Wall(j, i, (char) this.tiles.get(i * this.cols + j));
+                    wall.draw(app, layer);
+                }
+            }
+        }
+        layer.endDraw();
+        return layer;
+    }
+
+    /**
+     * Returns the number of Wall collision checks made while counting was on.
+     * 
+     * @return the number of checks counted.
+     */
+    public long getWallChecks() {
+        return this.wallChecks;
+    }
+
+    /**
+     * Turns counting Wall collision checks on or off. Views returned by getUncounted never count.
+     * 
+     * @param countWallChecks whether checks are counted.
+     */
+    public void setCountWallChecks(boolean countWallChecks) {
+
+        if (this.uncounted != this) {
+            this.countWallChecks = countWallChecks;
+        }
+    }
+
     public int getRows() {
         return this.rows;
     }
@@ -75,8 +259,15 @@ public class Map {
         return this.playerStartCol;
     }
 
-    public List<Edible> getFruits() {
-        return this.fruits;
+    /**
+     * Returns the character of the tile at the given row and column, e.g. '7' for a Fruit.
+     * 
+     * @param row
+     * @param col
+     * @return the tile character.
+     */
+    public char getTile(int row, int col) {
+        return (char) this.tiles.get(row * this.cols + col);
     }
 
     public List<Ghost> getGhosts() {
@@ -84,85 +275,288 @@ public class Map {
     }
 
     /**
-     * Processes the text file of the Map layout into a list of characters.
+     * Returns the tiles of the Map holding a Fruit of either kind, one bit per tile in row-major
+     * order. The grid must not be modified.
+     * 
+     * @return the Fruit grid.
+     */
+    public BitSet getFruitGrid() {
+        return this.fruitGrid;
+    }
+
+    /**
+     * Returns the tiles of the Map holding a SuperFruit, one bit per tile in row-major order. The
+     * grid must not be modified.
+     * 
+     * @return the SuperFruit grid.
+     */
+    public BitSet getSuperFruitGrid() {
+        return this.superFruitGrid;
+    }
+
+    /**
+     * Writes the Map to a compiled Map file, which loads without having to be interpreted.
+     * 
+     * @param filename the name of the compiled Map file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void compile(String filename) throws IOException {
+
+        int size = this.rows * this.cols;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename), READ_CHUNK_SIZE))) {
+
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.rows);
+            out.writeInt(this.cols);
+
+            // Map stores the starting column of the Waka as its row and its row as its column.
+            out.writeInt(this.playerStartCol);
+            out.writeInt(this.playerStartRow);
+
+            out.writeInt(this.ghosts.size());
+            for (Ghost ghost : this.ghosts) {
+                int row = ghost.yStart / GameObject.SPRITE_SIZE;
+                int col = ghost.xStart / GameObject.SPRITE_SIZE;
+                out.writeByte(this.getTile(row, col));
+                out.writeInt(row);
+                out.writeInt(col);
+            }
+            out.writeInt(this.numFruit);
+
+            for (int i = 0; i < size; i ++) {
+                out.writeByte(this.tiles.get(i));
+            }
+            out.write(this.exitGrid, 0, size);
+            Map.writeBits(out, this.wallGrid, size);
+            Map.writeBits(out, this.fruitGrid, size);
+            Map.writeBits(out, this.superFruitGrid, size);
+        }
+    }
+
+    /**
+     * Returns whether the given file is a compiled Map file, i.e. starts with the magic bytes.
      * 
      * @param filename the name of the Map file.
-     * @return a 2D list of the Map characters.
+     * @return true if the file is a compiled Map file; false otherwise.
+     * @throws IOException if the file does not exist.
      */
-    private List<Character[]> loadMap(String filename) {
+    private static boolean isCompiled(String filename) throws IOException {
 
-        if (filename == null) {
-            System.out.println("Error: File does not exist.");
-            return null;
+        if ((filename == null) || !new File(filename).isFile()) {
+            throw new FileNotFoundException("Error: File does not exist.");
+        }
+        try (FileInputStream in = new FileInputStream(filename)) {
+            byte[] magic = new byte[MAGIC.length];
+            int length = in.read(magic);
+            return (length == MAGIC.length) && Arrays.equals(magic, MAGIC);
+        }
+    }
+
+    /**
+     * Maps a compiled Map file into memory with a single read. The tile grid is used straight from
+     * the mapped file, while the navigation graph and bit sets, which are used every tick, are
+     * copied out in bulk.
+     * 
+     * @param filename the name of the compiled Map file.
+     * @throws IOException if the file cannot be read.
+     * @throws MapFormatException if the file is of another version or is cut short.
+     */
+    private void loadCompiled(String filename) throws IOException {
 
-        } else {        
-            File mapFile = new File(filename);
-            List<Character[]> mapCharas = new ArrayList<Character[]>();
+        try (FileChannel channel = new FileInputStream(filename).getChannel()) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
 
             try {
-                Scanner scan = new Scanner(mapFile);
-
-                while (scan.hasNextLine()) {
-                    String line = scan.nextLine();
-                    char[] lineChars = line.toCharArray();
-                    if (lineChars.length == 0) {
-                        System.out.println("Error: Invalid file configuration.");
-                        System.exit(1);
-                    }
-
-                    // Converts individual chars in the char array into Characters for storage 
-                    // in the List and adds them to the 2d layout line by line.
-                    Character[] charArray = new Character[lineChars.length];
-                    for (int i = 0; i < lineChars.length; i ++) {
-                        charArray[i] = Character.valueOf(lineChars[i]);
-                    }
-                    mapCharas.add(charArray);
+                buffer.position(MAGIC.length);
+                int version = buffer.getInt();
+                if (version != VERSION) {
+                    throw new MapFormatException("Unsupported compiled map version " + version 
+                            + ".");
+                }
+                this.rows = buffer.getInt();
+                this.cols = buffer.getInt();
+                this.playerStartCol = buffer.getInt();
+                this.playerStartRow = buffer.getInt();
+
+                int numGhosts = buffer.getInt();
+                for (int i = 0; i < numGhosts; i ++) {
+                    char type = (char) buffer.get();
+                    int row = buffer.getInt();
+                    int col = buffer.getInt();
+                    this.addGhost(type, row, col);
                 }
-                scan.close();
+                this.numFruit = buffer.getInt();
 
-            } catch (FileNotFoundException e) {
-                System.out.println("Error: File does not exist.");
+                int size = this.rows * this.cols;
+                this.tiles = buffer.slice();
+                this.tiles.limit(size);
+                buffer.position(buffer.position() + size);
+
+                this.exitGrid = new byte[size];
+                buffer.get(this.exitGrid);
+                this.wallGrid = Map.readBits(buffer, size);
+                this.fruitGrid = Map.readBits(buffer, size);
+                this.superFruitGrid = Map.readBits(buffer, size);
+
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new MapFormatException("Compiled map file is cut short.");
             }
-            return mapCharas;
         }
     }
+
+    /**
+     * Writes a bit set covering the given number of tiles as a fixed number of 64-bit words.
+     */
+    private static void writeBits(DataOutputStream out, BitSet bits, int size) throws IOException {
+
+        long[] words = bits.toLongArray();
+        for (int i = 0; i < (size + 63) / 64; i ++) {
+            out.writeLong(i < words.length ? words[i] : 0L);
+        }
+    }
+
+    /**
+     * Reads a bit set covering the given number of tiles, written by writeBits.
+     */
+    private static BitSet readBits(ByteBuffer buffer, int size) {
+
+        int words = (size + 63) / 64;
+        LongBuffer longs = buffer.asLongBuffer();
+        longs.limit(words);
+        BitSet bits = BitSet.valueOf(longs);
+        buffer.position(buffer.position() + words * 8);
+        return bits;
+    }
+
+    /**
+     * Reads the text file of the Map layout into the tile grid, one byte per tile. The file is
+     * read in chunks straight into the grid and line breaks are then removed in place, so no more
+     * memory than the grid itself is held however large the Map is. Every line must hold the same
+     * number of tiles.
+     * 
+     * @param filename the name of the Map file.
+     * @return the tile grid.
+     * @throws IOException if the Map file cannot be read.
+     * @throws MapFormatException if a line is empty or of a different length to the first.
+     */
+    private byte[] loadMap(String filename) throws IOException {
+
+        try (FileInputStream in = new FileInputStream(filename)) {
+            long size = in.getChannel().size();
+            if (size > Integer.MAX_VALUE) {
+                throw new MapFormatException("Map file is too large.");
+            }
+
+            byte[] grid = new byte[(int) size];
+            int length = 0;
+            while (length < grid.length) {
+                int read = in.read(grid, length, Math.min(READ_CHUNK_SIZE, grid.length - length));
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+
+            // Each line is moved up over the line breaks before it. Lines only ever move towards
+            // the start of the grid, so they can be moved in place.
+            int count = 0;
+            int line = 1;
+            int width = -1;
+            int i = 0;
+            while (i < length) {
+                int start = i;
+                while ((i < length) && (grid[i] != '\n')) {
+                    i ++;
+                }
+                int end = i;
+                if ((end > start) && (grid[end - 1] == '\r')) {
+                    end --;
+                }
+
+                // The last line does not need to end in a line break.
+                if ((i < length) || (end > start)) {
+                    width = Map.checkLine(line, end - start, width);
+                    System.arraycopy(grid, start, grid, count, width);
+                    count += width;
+                    line ++;
+                }
+                i ++;
+            }
+            if (width == -1) {
+                throw new MapFormatException("Map file is empty.");
+            }
+
+            this.rows = count / width;
+            this.cols = width;
+            return grid;
+        }
+    }
+
+    /**
+     * Checks the length of a line of the Map file once it has been read.
+     * 
+     * @param line the line number, counting from 1.
+     * @param length the number of tiles on the line.
+     * @param width the number of tiles on every line so far, or -1 for the first line.
+     * @return the number of tiles every line must hold.
+     * @throws MapFormatException if the line is empty or of a different length to the first.
+     */
+    private static int checkLine(int line, int length, int width) throws MapFormatException {
+
+        if (length == 0) {
+            throw new MapFormatException("Line is empty", line, 1);
+        }
+        if ((width != -1) && (length != width)) {
+            throw new MapFormatException("Line has " + length + " tiles but the first line has " 
+                    + width, line, Math.min(length, width) + 1);
+        }
+        return length;
+    }
     
     /**
-     * Traverses the list of map characters, assigning them to corresponding GameObjects. Walls
-     * are stored in the Map's wall array, the player starting position is set and Fruits and
-     * Ghosts are stored in their respective lists.
+     * Traverses the tile grid, assigning tiles to corresponding GameObjects. The player starting
+     * position is set and Ghosts are stored in their list. Walls and Fruits stay in the tile grid,
+     * as there may be far too many of them to create an object each.
      * 
-     * @param app
-     * @return the created 2d Wall layout of the Map.
+     * Walls are marked in the wall occupancy grid, which stores one bit per tile in row-major
+     * order, and Fruits in the Fruit grids. The open directions of every other tile are stored in
+     * the navigation graph in the same pass.
+     * 
+     * @param grid the tile grid.
+     * @throws MapFormatException if the Map has no player or no Fruit.
      */
-    private Wall[][] initMap(PApplet app) {
+    private void initMap(byte[] grid) throws MapFormatException {
 
-        Wall[][] wallArray = new Wall[this.rows][this.cols];
+        this.wallGrid = new BitSet(this.rows * this.cols);
+        this.exitGrid = new byte[this.rows * this.cols];
+        this.fruitGrid = new BitSet(this.rows * this.cols);
+        this.superFruitGrid = new BitSet(this.rows * this.cols);
         int numPlayer = 0;
-        int numFruit = 0;
+        this.numFruit = 0;
 
         for (int i = 0; i < this.rows; i ++) {
             for (int j = 0; j < this.cols; j ++) {
 
-                Character currentChar = this.mapText.get(i)[j];
+                int tile = i * this.cols + j;
+                char currentChar = (char) grid[tile];
+                if (Map.isWallTile(grid[tile])) {
+                    this.wallGrid.set(tile);
+                    continue;
+                }
+                this.exitGrid[tile] = this.openDirections(grid, i, j);
 
                 switch (currentChar) {
                     case '0':
                         break;
                     
-                    case '1': case '2': case '3': case '4': case '5': case '6':
-                        Wall cell = new Wall(j, i, currentChar, app);
-                        wallArray[i][j] = cell;
-                        break;
-                    
-                    case '7':
-                        fruits.add(new Fruit(j, i, app));
-                        numFruit ++;
-                        break;
-
                     case '8':
-                        fruits.add(new SuperFruit(j, i, app));
-                        numFruit ++;
+                        this.superFruitGrid.set(tile);
+                        // Falls through, as SuperFruits are also Fruits.
+                    case '7':
+                        this.fruitGrid.set(tile);
+                        this.numFruit ++;
                         break;
 
                     case 'p':
@@ -171,40 +565,57 @@ public class Map {
                         numPlayer ++;
                         break;
 
-                    case 'a':
-                        ghosts.add(new Ambusher(j, i, 0, app));
-                        break;
-
-                    case 'c':
-                        ghosts.add(new Chaser(j, i, 0, app));
-                        break;
-                            
-                    case 'i':
-                        ghosts.add(new Ignorant(j, i, 0, app));
-                        break;
-                        
-                    case 'w':
-                        ghosts.add(new Whim(j, i, 0, app));
+                    case 'a': case 'c': case 'i': case 'w':
+                        this.addGhost(currentChar, i, j);
                         break;
                 }
             }
         }
 
         if (numPlayer == 0) {
-            System.out.println("Error: No player present.");
-            System.exit(1);
+            throw new MapFormatException("No player present.");
 
-        } else if (numFruit == 0) {
-            System.out.println("Error: No fruit on game map.");
-            System.exit(1);
+        } else if (this.numFruit == 0) {
+            throw new MapFormatException("No fruit on game map.");
+        }
+    }
+
+    /**
+     * Creates a Ghost of the type given by its Map character at the given tile.
+     * 
+     * @param type the Map character of the Ghost, i.e. 'a', 'c', 'i' or 'w'.
+     * @param row
+     * @param col
+     * @throws MapFormatException if the character is not a Ghost type.
+     */
+    private void addGhost(char type, int row, int col) throws MapFormatException {
+
+        switch (type) {
+            case 'a':
+                this.ghosts.add(new Ambusher(col, row, 0));
+                break;
+
+            case 'c':
+                this.ghosts.add(new Chaser(col, row, 0));
+                break;
+                    
+            case 'i':
+                this.ghosts.add(new Ignorant(col, row, 0));
+                break;
+                
+            case 'w':
+                this.ghosts.add(new Whim(col, row, 0));
+                break;
+
+            default:
+                throw new MapFormatException("Unknown ghost type " + type + ".");
         }
-        return wallArray;
     }
 
     /**
      * Returns true if argument object has 'collided' with any Wall objects, otherwise returns
-     * false. Object boundaries are checked against all Wall boundaries and the presence of an
-     * overlap is returned.
+     * false. Object boundaries are checked against the boundaries of the Walls in the tiles they
+     * cover and the presence of an overlap is returned.
      * 
      * @param object the object to be checked for collision.
      * @param checkTurn specifies whether to check for collision upon turning or upon continual
@@ -214,12 +625,6 @@ public class Map {
      */
     public boolean checkWallCollision(Moving object, boolean checkTurn) {
         
-        // Defines object boundaries.
-        int objectLeft = object.getX();
-        int objectRight = objectLeft + GameObject.SPRITE_SIZE;
-        int objectTop = object.getY();
-        int objectBottom = objectTop + GameObject.SPRITE_SIZE;
-        
         // Specifies whether the function will check for collision upon turning or collision upon
         // continued movement.
         State move;
@@ -228,6 +633,36 @@ public class Map {
         } else {
             move = object.orientation;
         }
+        return this.checkWallCollision(object.getX(), object.getY(), move);
+    }
+
+    /**
+     * Returns true if an object at the given position would collide with any Wall objects upon
+     * moving a single pixel in the given direction, otherwise returns false.
+     * 
+     * @param x the object's x position.
+     * @param y the object's y position.
+     * @param move the direction of movement.
+     * @return
+     */
+    public boolean checkWallCollision(int x, int y, State move) {
+
+        if (this.countWallChecks) {
+            this.wallChecks ++;
+        }
+        return this.collides(x, y, move);
+    }
+
+    /**
+     * Checks for a collision as checkWallCollision does, without counting the check.
+     */
+    private boolean collides(int x, int y, State move) {
+        
+        // Defines object boundaries.
+        int objectLeft = x;
+        int objectRight = objectLeft + GameObject.SPRITE_SIZE;
+        int objectTop = y;
+        int objectBottom = objectTop + GameObject.SPRITE_SIZE;
 
         switch (move) {
             case LEFT:
@@ -248,26 +683,148 @@ public class Map {
                 break;
         }
 
-        // Compares object boundaries after possible move to each Wall object and returns true
-        // if there is an overlap.
-        for (int i = 0; i < this.mapObjects.length; i ++) {
-            for (int j = 0; j < this.mapObjects[i].length; j ++) {
-                Wall check = this.mapObjects[i][j];
-                if (check == null) {
-                    continue;
-                } else {
-                    int wallLeft = check.getX();
-                    int wallRight = wallLeft + GameObject.SPRITE_SIZE;
-                    int wallTop = check.getY();
-                    int wallBottom = wallTop + GameObject.SPRITE_SIZE;
-
-                    if ((objectRight > wallLeft) && (objectLeft < wallRight) && 
-                        (objectBottom > wallTop) && (objectTop < wallBottom)) {
-                        return true;
-                    }
+        // Only the tiles covered by the moved object boundaries can overlap a Wall, so those are
+        // looked up directly in the wall grid. Boundaries are exclusive on the right and bottom,
+        // matching the overlap test against each Wall's pixel boundaries.
+        int size = GameObject.SPRITE_SIZE;
+        int firstCol = Math.max(Math.floorDiv(objectLeft, size), 0);
+        int lastCol = Math.min(Math.floorDiv(objectRight - 1, size), this.cols - 1);
+        int firstRow = Math.max(Math.floorDiv(objectTop, size), 0);
+        int lastRow = Math.min(Math.floorDiv(objectBottom - 1, size), this.rows - 1);
+
+        for (int i = firstRow; i <= lastRow; i ++) {
+            for (int j = firstCol; j <= lastCol; j ++) {
+                if (this.wallGrid.get(i * this.cols + j)) {
+                    return true;
                 }
             }
         }
         return false;
     }
+
+    /**
+     * Returns the directions an object at the given position can move in without colliding
+     * with a Wall, as a bitmask with one bit per State (see hasExit). Positions aligned to a tile
+     * are looked up in the navigation graph built when the Map was loaded; any other position is
+     * checked against the Walls directly.
+     * 
+     * @param x the object's x position.
+     * @param y the object's y position.
+     * @return the bitmask of open directions.
+     */
+    public int getExits(int x, int y) {
+
+        int size = GameObject.SPRITE_SIZE;
+        int col = x / size;
+        int row = y / size;
+
+        if ((x % size == 0) && (y % size == 0) && (x >= 0) && (y >= 0) && 
+            (col < this.cols) && (row < this.rows)) {
+            return this.exitGrid[row * this.cols + col];
+        }
+
+        if (this.countWallChecks) {
+            this.wallChecks += STATES.length;
+        }
+        int exits = 0;
+        for (State state : STATES) {
+            if (!this.collides(x, y, state)) {
+                exits |= Map.exitBit(state);
+            }
+        }
+        return exits;
+    }
+
+    /**
+     * Returns whether the given bitmask of open directions includes the given direction.
+     * 
+     * @param exits the bitmask of open directions, as returned by getExits.
+     * @param direction the direction to check.
+     * @return true if the direction is open; false otherwise.
+     */
+    public static boolean hasExit(int exits, State direction) {
+        return (exits & Map.exitBit(direction)) != 0;
+    }
+
+    /**
+     * Returns whether the tile at the given row and column joins three or more paths.
+     * 
+     * @param row
+     * @param col
+     * @return true if the tile is an intersection; false otherwise.
+     */
+    public boolean isIntersection(int row, int col) {
+        return Integer.bitCount(this.exitGrid[row * this.cols + col]) >= 3;
+    }
+
+    /**
+     * Returns whether the tile at the given row and column can only be left the way it was
+     * entered.
+     * 
+     * @param row
+     * @param col
+     * @return true if the tile is a dead end; false otherwise.
+     */
+    public boolean isDeadEnd(int row, int col) {
+        return Integer.bitCount(this.exitGrid[row * this.cols + col]) == 1;
+    }
+
+    /**
+     * Returns the open directions of an object aligned to the tile at the given row and column.
+     *
+     * @param row
+     * @param col
+     * @return the bitmask of open directions.
+     */
+    public int getTileExits(int row, int col) {
+        return this.exitGrid[row * this.cols + col];
+    }
+
+    /**
+     * Returns whether the tile at the given row and column is occupied by a Wall.
+     *
+     * @param row
+     * @param col
+     * @return true if the tile is a Wall; false otherwise.
+     */
+    public boolean isWall(int row, int col) {
+        return this.wallGrid.get(row * this.cols + col);
+    }
+
+    private static boolean isWallTile(byte tile) {
+        return (tile >= '1') && (tile <= '6');
+    }
+
+    private static int exitBit(State direction) {
+        return 1 << direction.ordinal();
+    }
+
+    /**
+     * Returns the open directions of an object aligned to the given open tile as a bitmask. An
+     * aligned object moving a pixel covers its own tile and the next tile in that direction, so a
+     * direction is open if the next tile is not a Wall.
+     * 
+     * @param grid the tile grid.
+     * @param row
+     * @param col
+     * @return the bitmask of open directions.
+     */
+    private byte openDirections(byte[] grid, int row, int col) {
+
+        int tile = row * this.cols + col;
+        int exits = 0;
+        if ((col == 0) || !Map.isWallTile(grid[tile - 1])) {
+            exits |= Map.exitBit(State.LEFT);
+        }
+        if ((col == this.cols - 1) || !Map.isWallTile(grid[tile + 1])) {
+            exits |= Map.exitBit(State.RIGHT);
+        }
+        if ((row == 0) || !Map.isWallTile(grid[tile - this.cols])) {
+            exits |= Map.exitBit(State.UP);
+        }
+        if ((row == this.rows - 1) || !Map.isWallTile(grid[tile + this.cols])) {
+            exits |= Map.exitBit(State.DOWN);
+        }
+        return (byte) exits;
+    }
 }
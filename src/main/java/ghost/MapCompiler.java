@@ -0,0 +1,52 @@
+package ghost;
+
+import java.io.*;
+
+/**
+ * MapCompiler converts text Map files into compiled Map files, which load with a single read of
+ * the file and without working out Walls, Fruits or the navigation graph again. Compiled files
+ * can be given anywhere a Map file name is expected.
+ * 
+ * Usage: MapCompiler map.txt [map.wkmp]. Without an output file name, the compiled Map is
+ * written next to the text file with the extension ".wkmp".
+ */
+public class MapCompiler {
+
+    /**
+     * The extension given to compiled Map files.
+     */
+    public static final String EXTENSION = ".wkmp";
+
+    /**
+     * Returns the default compiled file name for a text Map file name.
+     * 
+     * @param filename the name of the text Map file.
+     * @return the name of the compiled Map file.
+     */
+    public static String compiledName(String filename) {
+
+        int dot = filename.lastIndexOf('.');
+        if (dot > filename.lastIndexOf(File.separatorChar)) {
+            filename = filename.substring(0, dot);
+        }
+        return filename + EXTENSION;
+    }
+
+    public static void main(String[] args) {
+
+        if ((args.length < 1) || (args.length > 2)) {
+            System.out.println("Usage: MapCompiler map.txt [map" + EXTENSION + "]");
+            return;
+        }
+        String output = (args.length == 2) ? args[1] : MapCompiler.compiledName(args[0]);
+
+        try {
+            Map map = new Map(args[0]);
+            map.compile(output);
+            System.out.println("Compiled " + args[0] + " to " + output + ".");
+
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
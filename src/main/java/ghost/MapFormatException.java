@@ -0,0 +1,49 @@
+package ghost;
+
+import java.io.IOException;
+
+/**
+ * MapFormatException is thrown when a Map file does not hold a valid layout. Where the problem
+ * lies on a particular tile, its line and column in the file are given, both counting from 1.
+ */
+public class MapFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private int line;
+    private int column;
+
+    /**
+     * Creates an instance of MapFormatException for a problem with the Map as a whole.
+     * 
+     * @param message the description of the problem.
+     */
+    public MapFormatException(String message) {
+
+        super("Error: " + message);
+        this.line = 0;
+        this.column = 0;
+    }
+
+    /**
+     * Creates an instance of MapFormatException for a problem at the given line and column.
+     * 
+     * @param message the description of the problem.
+     * @param line the line number, counting from 1.
+     * @param column the column number, counting from 1.
+     */
+    public MapFormatException(String message, int line, int column) {
+
+        super("Error: " + message + " at line " + line + ", column " + column + ".");
+        this.line = line;
+        this.column = column;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+}
@@ -0,0 +1,445 @@
+package ghost;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * MonteCarloPilot steers the Waka by Monte Carlo tree search over snapshots of the game. Whenever
+ * the Waka is able to turn, each open direction is tried out in many simulated futures: a tree of
+ * turn decisions is grown towards the most promising ones, and every new leaf is played on with
+ * random turns for a few tiles and scored by the Fruits eaten and whether the Waka survived. The
+ * direction explored most often is taken.
+ *
+ * Searches run on several threads at once, each growing a tree of its own from its own copy of
+ * the game, and the trees are combined once the time allowed for the decision is up. Work is
+ * spread over the common fork-join pool, with the calling thread searching alongside it.
+ */
+public class MonteCarloPilot implements Pilot {
+
+    /**
+     * The number of turns played at random after a new leaf of the tree.
+     */
+    public static final int ROLLOUT_TURNS = 8;
+
+    /**
+     * Weighs exploring rarely tried directions against exploiting the best scoring ones.
+     */
+    private static final double EXPLORATION = 0.7;
+
+    /**
+     * The most ticks a single turn is simulated for, in case the Waka never reaches the next tile.
+     */
+    private static final int MAX_TURN_TICKS = 8 * GameObject.SPRITE_SIZE;
+
+    private final long budget;
+    private final int threads;
+    private final SplitMix64 random;
+    private int maxIterations;
+    private long iterations;
+
+    /**
+     * A decision point in a search tree: the game as it would be once the Waka is next able to
+     * turn, after taking the moves leading from the root.
+     */
+    private static final class Node {
+
+        private final Node parent;
+        private final GameState state;
+        private final State[] moves;
+        private final Node[] children;
+        private int expanded;
+        private int visits;
+        private double value;
+
+        private Node(Node parent, GameState state) {
+            this.parent = parent;
+            this.state = state;
+            this.moves = state.isRunning() ? MonteCarloPilot.openMoves(state) : new State[0];
+            this.children = new Node[this.moves.length];
+            this.expanded = 0;
+        }
+    }
+
+    /**
+     * A single search, which grows a tree of its own on one thread.
+     */
+    private final class Worker {
+
+        private final SplitMix64 random;
+        private final State[] choices;
+        private final State[] towardsFruit;
+        private int[] distance;
+        private int[] queue;
+        private int rootLives;
+        private int rootFruits;
+
+        private Worker(SplitMix64 random) {
+            this.random = random;
+            this.choices = new State[4];
+            this.towardsFruit = new State[4];
+        }
+
+        /**
+         * Grows a search tree from the given game until the deadline.
+         *
+         * @param state the game to search from, which belongs to this search.
+         * @param deadline the time to stop searching at, as given by System.nanoTime.
+         * @return the visits and total score of every root move, in pairs.
+         */
+        double[] search(GameState state, long deadline) {
+
+            Node root = new Node(null, state);
+            this.rootLives = state.getPlayerLives();
+            this.rootFruits = state.getFruits().getRemaining();
+
+            for (int i = 0; (i < MonteCarloPilot.this.maxIterations)
+                    && (System.nanoTime() < deadline); i ++) {
+
+                // Selects the most promising leaf, then tries one more move from it.
+                Node node = root;
+                while ((node.moves.length > 0) && (node.expanded == node.moves.length)) {
+                    node = MonteCarloPilot.select(node);
+                }
+                if (node.moves.length > 0) {
+                    GameState next = node.state.copy();
+                    if (!MonteCarloPilot.turn(next, node.moves[node.expanded], deadline)) {
+                        break;
+                    }
+                    Node child = new Node(node, next);
+                    node.children[node.expanded ++] = child;
+                    node = child;
+                }
+
+                double score = this.rollout(node.state, deadline);
+                if (Double.isNaN(score)) {
+                    break;
+                }
+                for (Node n = node; n != null; n = n.parent) {
+                    n.visits ++;
+                    n.value += score;
+                }
+            }
+
+            double[] result = new double[2 * root.moves.length];
+            for (int i = 0; i < root.expanded; i ++) {
+                result[2 * i] = root.children[i].visits;
+                result[2 * i + 1] = root.children[i].value;
+            }
+            return result;
+        }
+
+        /**
+         * Plays on from a leaf with random turns, preferring turns towards Fruit and never turning
+         * back unless at a dead end, and scores the outcome.
+         *
+         * @return the score between 0 and 1, or NaN if the deadline passed first.
+         */
+        private double rollout(GameState leaf, long deadline) {
+
+            GameState state = leaf.copy();
+            State[] choices = this.choices;
+            State[] towardsFruit = this.towardsFruit;
+
+            for (int i = 0; (i < ROLLOUT_TURNS) && state.isRunning()
+                    && (state.getPlayerLives() == this.rootLives); i ++) {
+
+                State back = state.getPlayer().getOrientation().getOpposite();
+                int count = 0;
+                int fruitCount = 0;
+                for (State move : MonteCarloPilot.openMoves(state)) {
+                    if (move == back) {
+                        continue;
+                    }
+                    choices[count ++] = move;
+                    if (MonteCarloPilot.leadsToFruit(state, move)) {
+                        towardsFruit[fruitCount ++] = move;
+                    }
+                }
+
+                State move = back;
+                if ((fruitCount > 0) && (this.random.nextInt(4) != 0)) {
+                    move = towardsFruit[this.random.nextInt(fruitCount)];
+                } else if (count > 0) {
+                    move = choices[this.random.nextInt(count)];
+                }
+                if (!MonteCarloPilot.turn(state, move, deadline)) {
+                    return Double.NaN;
+                }
+            }
+            return this.score(state);
+        }
+
+        /**
+         * Scores a simulated future: 0 if the Waka lost a life, 1 if it won, and otherwise more the
+         * more Fruits were eaten, with a little extra for ending up near the remaining Fruit.
+         */
+        private double score(GameState state) {
+
+            if (state.playerWin()) {
+                return 1;
+            }
+            if (state.getPlayerLives() < this.rootLives) {
+                return 0;
+            }
+            int eaten = this.rootFruits - state.getFruits().getRemaining();
+            double fruitScore = Math.min(1, (double) eaten / ROLLOUT_TURNS);
+            return 0.1 + 0.8 * fruitScore + 0.1 / (1 + this.fruitDistance(state));
+        }
+
+        /**
+         * Returns the number of tiles between the Waka and the nearest remaining Fruit, or the
+         * number of tiles on the Map if none can be reached.
+         */
+        private int fruitDistance(GameState state) {
+
+            Map map = state.getMap();
+            FruitStore fruits = state.getFruits();
+            int rows = map.getRows();
+            int cols = map.getCols();
+            Waka player = state.getPlayer();
+            int row = Math.min(Math.max(player.getY() / GameObject.SPRITE_SIZE, 0), rows - 1);
+            int col = Math.min(Math.max(player.getX() / GameObject.SPRITE_SIZE, 0), cols - 1);
+
+            if ((this.distance == null) || (this.distance.length != rows * cols)) {
+                this.distance = new int[rows * cols];
+                this.queue = new int[rows * cols];
+            }
+            int[] distance = this.distance;
+            int[] queue = this.queue;
+            Arrays.fill(distance, -1);
+            int head = 0;
+            int tail = 0;
+            distance[row * cols + col] = 0;
+            queue[tail ++] = row * cols + col;
+
+            while (head < tail) {
+                int tile = queue[head ++];
+                int tileRow = tile / cols;
+                int tileCol = tile % cols;
+                if (fruits.hasFruit(tileRow, tileCol)) {
+                    return distance[tile];
+                }
+
+                int exits = map.getTileExits(tileRow, tileCol);
+                for (State direction : State.values()) {
+                    if (!Map.hasExit(exits, direction)) {
+                        continue;
+                    }
+                    int next = tile;
+                    if ((direction == State.LEFT) && (tileCol > 0)) {
+                        next = tile - 1;
+                    } else if ((direction == State.RIGHT) && (tileCol < cols - 1)) {
+                        next = tile + 1;
+                    } else if ((direction == State.UP) && (tileRow > 0)) {
+                        next = tile - cols;
+                    } else if ((direction == State.DOWN) && (tileRow < rows - 1)) {
+                        next = tile + cols;
+                    }
+                    if (distance[next] < 0) {
+                        distance[next] = distance[tile] + 1;
+                        queue[tail ++] = next;
+                    }
+                }
+            }
+            return distance.length;
+        }
+    }
+
+    /**
+     * Creates an instance of MonteCarloPilot.
+     *
+     * @param budget the time allowed for each decision, in nanoseconds.
+     * @param threads the number of searches run at once for each decision.
+     * @param seed the seed of the random turns taken in simulated futures.
+     */
+    public MonteCarloPilot(long budget, int threads, long seed) {
+
+        if ((budget <= 0) || (threads <= 0)) {
+            throw new IllegalArgumentException("budget and threads must be positive");
+        }
+        this.budget = budget;
+        this.threads = threads;
+        this.random = new SplitMix64(seed);
+        this.maxIterations = Integer.MAX_VALUE;
+        this.iterations = 0;
+    }
+
+    /**
+     * Limits the number of futures each search simulates per decision, so decisions no longer
+     * depend on the speed of the machine if the time allowed is long enough.
+     *
+     * @param maxIterations the most futures simulated by each search.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Returns the number of futures simulated so far, across all decisions and threads.
+     *
+     * @return the number of simulated futures.
+     */
+    public long getIterations() {
+        return this.iterations;
+    }
+
+    /**
+     * Searches for the best move whenever the Waka is aligned to a tile, i.e. whenever it is
+     * able to turn. Returns within the time allowed, plus the time to finish the simulated turn
+     * in progress on each thread.
+     */
+    public State nextMove(GameManager game) {
+
+        Waka player = game.getPlayer();
+        int size = GameObject.SPRITE_SIZE;
+        if ((player.getX() % size != 0) || (player.getY() % size != 0) || !game.isRunning()) {
+            return null;
+        }
+
+        long deadline = System.nanoTime() + this.budget;
+        GameState root = GameState.of(game);
+        State[] moves = MonteCarloPilot.openMoves(root);
+        if (moves.length <= 1) {
+            return (moves.length == 1) ? moves[0] : null;
+        }
+
+        // Every search gets its own copy of the game, taken on this thread, and its own random
+        // generator, so searches share nothing they change.
+        List<ForkJoinTask<double[]>> tasks = new ArrayList<ForkJoinTask<double[]>>();
+        for (int i = 0; i < this.threads; i ++) {
+            GameState state = root.copyForThread();
+            Worker worker = new Worker(this.random.split());
+            tasks.add(ForkJoinTask.adapt(() -> worker.search(state, deadline)));
+        }
+        for (int i = 1; i < tasks.size(); i ++) {
+            tasks.get(i).fork();
+        }
+
+        // Each search returns the visits and total score of every root move, in pairs.
+        double[] totals = new double[2 * moves.length];
+        for (int i = 0; i < tasks.size(); i ++) {
+            double[] result = (i == 0) ? tasks.get(0).invoke() : tasks.get(i).join();
+            for (int j = 0; j < totals.length; j ++) {
+                totals[j] += result[j];
+            }
+        }
+
+        int best = 0;
+        for (int i = 0; i < moves.length; i ++) {
+            this.iterations += (long) totals[2 * i];
+            if (MonteCarloPilot.isBetter(totals, i, best)) {
+                best = i;
+            }
+        }
+        return moves[best];
+    }
+
+    /**
+     * Returns the child of a fully expanded node with the highest upper confidence bound.
+     */
+    private static Node select(Node node) {
+
+        Node best = null;
+        double bestBound = Double.NEGATIVE_INFINITY;
+        double logVisits = Math.log(Math.max(node.visits, 1));
+
+        for (Node child : node.children) {
+            if (child.visits == 0) {
+                return child;
+            }
+            double bound = child.value / child.visits
+                    + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            if (bound > bestBound) {
+                best = child;
+                bestBound = bound;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays a single turn: gives the Waka the move, then ticks until it is next able to turn,
+     * has lost a life or the game ends.
+     *
+     * @return false if the deadline passed first; true otherwise.
+     */
+    private static boolean turn(GameState state, State move, long deadline) {
+
+        Waka player = state.getPlayer();
+        int x = player.getX();
+        int y = player.getY();
+        int lives = state.getPlayerLives();
+        int size = GameObject.SPRITE_SIZE;
+
+        if (System.nanoTime() >= deadline) {
+            return false;
+        }
+        state.step(move);
+        for (int ticks = 1; ticks < MAX_TURN_TICKS; ticks ++) {
+            player = state.getPlayer();
+            boolean moved = (player.getX() != x) || (player.getY() != y);
+            boolean aligned = (player.getX() % size == 0) && (player.getY() % size == 0);
+            if (!state.isRunning() || (state.getPlayerLives() != lives) || (moved && aligned)) {
+                break;
+            }
+            state.step(null);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the directions the Waka can move in from where it is.
+     */
+    private static State[] openMoves(GameState state) {
+
+        Waka player = state.getPlayer();
+        int exits = state.getMap().getExits(player.getX(), player.getY());
+        State[] moves = new State[Integer.bitCount(exits)];
+        int count = 0;
+        for (State move : State.values()) {
+            if (Map.hasExit(exits, move)) {
+                moves[count ++] = move;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Returns whether the tile next to the Waka in the given direction holds a Fruit.
+     */
+    private static boolean leadsToFruit(GameState state, State move) {
+
+        Waka player = state.getPlayer();
+        int row = player.getY() / GameObject.SPRITE_SIZE;
+        int col = player.getX() / GameObject.SPRITE_SIZE;
+        switch (move) {
+            case LEFT:
+                col --;
+                break;
+            case RIGHT:
+                col ++;
+                break;
+            case UP:
+                row --;
+                break;
+            case DOWN:
+                row ++;
+                break;
+        }
+        return state.getFruits().hasFruit(row, col);
+    }
+
+    /**
+     * Returns whether root move i was visited more often than root move j, or as often with a
+     * higher average score.
+     */
+    private static boolean isBetter(double[] totals, int i, int j) {
+
+        double visitsI = totals[2 * i];
+        double visitsJ = totals[2 * j];
+        if (visitsI != visitsJ) {
+            return visitsI > visitsJ;
+        }
+        return (visitsI > 0) && (totals[2 * i + 1] > totals[2 * j + 1]);
+    }
+}
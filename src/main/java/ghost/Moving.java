@@ -11,41 +11,41 @@ enum State {
         public State getOpposite() {
             return RIGHT;
         }
-        public void move(Moving object) {
-            object.x -= object.speed;
-            object.xDraw -= object.speed;
+        public void move(Moving object, int distance) {
+            object.x -= distance;
+            object.xDraw -= distance;
         }
     },
     RIGHT {
         public State getOpposite() {
             return LEFT;
         }
-        public void move(Moving object) {
-            object.x += object.speed;
-            object.xDraw += object.speed;
+        public void move(Moving object, int distance) {
+            object.x += distance;
+            object.xDraw += distance;
         }
     },
     UP {
         public State getOpposite() {
             return DOWN;
         }
-        public void move(Moving object) {
-            object.y -= object.speed;
-            object.yDraw -= object.speed;
+        public void move(Moving object, int distance) {
+            object.y -= distance;
+            object.yDraw -= distance;
         }
     },
     DOWN {
         public State getOpposite() {
             return UP;
         }
-        public void move(Moving object) {
-            object.y += object.speed;
-            object.yDraw += object.speed;
+        public void move(Moving object, int distance) {
+            object.y += distance;
+            object.yDraw += distance;
         }
     };
 
     public abstract State getOpposite();
-    public abstract void move(Moving object);
+    public abstract void move(Moving object, int distance);
 }
 
 public class Moving extends GameObject {
@@ -91,10 +91,30 @@ public class Moving extends GameObject {
     protected State orientation;
 
     /**
-     * Stores speed of the object.
+     * Stores speed of the object, in pixels per sixtieth of a second.
      */
     protected int speed;
 
+    /**
+     * Stores the number of game ticks per second.
+     */
+    protected int tickRate;
+
+    /**
+     * Stores movement accumulated towards the next pixel, in pixels times the tick rate.
+     */
+    protected int progress;
+
+    /**
+     * Stores the x position the object was drawn in before the latest tick.
+     */
+    protected int xLast;
+
+    /**
+     * Stores the y position the object was drawn in before the latest tick.
+     */
+    protected int yLast;
+
     /**
      * Specifies whether or not the object is able to turn in its current position.
      */
@@ -124,6 +144,10 @@ public class Moving extends GameObject {
         // As a default, all Moving objects will begin facing left.
         this.orientation = State.LEFT;
         this.speed = speed;
+        this.tickRate = Settings.DEFAULT_TICK_RATE;
+        this.progress = 0;
+        this.xLast = this.xDraw;
+        this.yLast = this.yDraw;
         this.canTurn = false;
         this.willCollide = false;
     }
@@ -133,7 +157,74 @@ public class Moving extends GameObject {
      * @param app
      */
     public void draw(PApplet app) {
-        app.image(this.sprite, this.xDraw, this.yDraw);
+        this.draw(app, 1);
+    }
+
+    /**
+     * Draws in the offset PImage sprite of the Moving object, interpolated between its positions
+     * before and after the latest tick.
+     * 
+     * @param app
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    public void draw(PApplet app, float alpha) {
+        if (this.sprite == null) {
+            this.loadSprite(app);
+        }
+        app.image(this.sprite, this.getDrawX(alpha), this.getDrawY(alpha));
+    }
+
+    /**
+     * Returns the x position the object is drawn in, interpolated between its positions before
+     * and after the latest tick.
+     * 
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     * @return the interpolated x position.
+     */
+    public float getDrawX(float alpha) {
+        return this.xLast + (this.xDraw - this.xLast) * alpha;
+    }
+
+    /**
+     * Returns the y position the object is drawn in, interpolated between its positions before
+     * and after the latest tick.
+     * 
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     * @return the interpolated y position.
+     */
+    public float getDrawY(float alpha) {
+        return this.yLast + (this.yDraw - this.yLast) * alpha;
+    }
+
+    /**
+     * Returns whether the object will move by at least a pixel on the next tick. At tick rates
+     * above 60 per second, objects do not move on every tick.
+     * 
+     * @return true if the object will move on the next tick; false otherwise.
+     */
+    public boolean movesThisTick() {
+        return this.progress + this.speed * Settings.DEFAULT_TICK_RATE >= this.tickRate;
+    }
+
+    /**
+     * Moves the object in the direction it is facing by the distance covered in one tick. The
+     * distance is the same every tick, or at most a pixel, at the tick rates Settings accepts,
+     * so objects never step past the pixel they are aligned to a tile on.
+     */
+    protected void move() {
+
+        this.progress += this.speed * Settings.DEFAULT_TICK_RATE;
+        int distance = this.progress / this.tickRate;
+        this.progress -= distance * this.tickRate;
+        this.orientation.move(this, distance);
+    }
+
+    /**
+     * Stores the position the object is drawn in before it moves in a new tick.
+     */
+    protected void storeLastPosition() {
+        this.xLast = this.xDraw;
+        this.yLast = this.yDraw;
     }
 
     /**
@@ -144,6 +235,7 @@ public class Moving extends GameObject {
         this.y = this.yStart;
         this.xDraw = this.x - Moving.X_OFFSET;
         this.yDraw = this.y - Moving.Y_OFFSET;
+        this.storeLastPosition();
     }
 
     public State getOrientation() {
@@ -158,6 +250,10 @@ public class Moving extends GameObject {
         this.nextMove = direction;
     }
 
+    public void setTickRate(int tickRate) {
+        this.tickRate = tickRate;
+    }
+
     public void setTurn(boolean validTurn) {
         this.canTurn = validTurn;
     }
@@ -165,4 +261,4 @@ public class Moving extends GameObject {
     public void setCollision(boolean collision) {
         this.willCollide = collision;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
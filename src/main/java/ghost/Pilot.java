@@ -0,0 +1,35 @@
+package ghost;
+
+/**
+ * Pilot interface is implemented by anything that steers the Waka in place of a player, e.g. for
+ * simulating games without a window.
+ */
+public interface Pilot {
+
+    /**
+     * Decides the next move of the Waka. Called once before every game tick.
+     * 
+     * @param game the game being played.
+     * @return the direction the Waka should turn in next, or null to leave its next move as is.
+     */
+    public State nextMove(GameManager game);
+
+    /**
+     * Creates the Pilot named by the autopilot setting.
+     * 
+     * @param settings the game settings.
+     * @return the new Pilot, or null if the autopilot is off.
+     */
+    public static Pilot of(Settings settings) {
+
+        switch (settings.getAutopilot()) {
+            case "greedy":
+                return new GreedyPilot();
+            case "mcts":
+                return new MonteCarloPilot(settings.getAutopilotBudget() * 1000000L, 
+                        settings.getAutopilotThreads(), settings.getSeed());
+            default:
+                return null;
+        }
+    }
+}
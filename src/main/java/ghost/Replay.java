@@ -0,0 +1,268 @@
+package ghost;
+
+import java.util.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+/**
+ * Replay class holds a recorded game: the settings and seed it was played with, a hash of its
+ * Map and every input the player made, and can play it back on a GameManager.
+ * 
+ * Replay files start with a header holding the magic bytes "WKRP", the format version, the seed,
+ * the Map file name and hash, and the remaining game settings. The header is followed by one
+ * record per input, each a single varint holding the number of ticks since the previous record
+ * shifted left by three bits and the record type in the low three bits. Types 0 to 3 are the
+ * ordinals of the direction input; type 4 marks the tick the game ended on.
+ */
+public class Replay {
+
+    public static final int VERSION = 3;
+    public static final int END = 4;
+    private static final byte[] MAGIC = {'W', 'K', 'R', 'P'};
+
+    private Settings settings;
+    private long mapHash;
+    private int[] ticks;
+    private State[] moves;
+    private int endTick;
+    private int next;
+
+    /**
+     * Loads a replay from the given file.
+     * 
+     * @param filename the name of the replay file.
+     */
+    public Replay(String filename) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filename)))) {
+
+            this.settings = new Settings();
+            this.mapHash = Replay.readHeader(in, this.settings);
+
+            List<Integer> ticks = new ArrayList<Integer>();
+            List<State> moves = new ArrayList<State>();
+            State[] states = State.values();
+            int tick = 0;
+            this.endTick = -1;
+
+            // Records are read until the end marker, or the end of the file if the recording was
+            // cut short.
+            while (in.available() > 0) {
+                long record = Replay.readVarint(in);
+                tick += (int) (record >>> 3);
+                int type = (int) (record & 7);
+
+                if (type == Replay.END) {
+                    this.endTick = tick;
+                    break;
+                }
+                ticks.add(tick);
+                moves.add(states[type]);
+            }
+
+            this.ticks = new int[ticks.size()];
+            this.moves = moves.toArray(new State[moves.size()]);
+            for (int i = 0; i < this.ticks.length; i ++) {
+                this.ticks[i] = ticks.get(i);
+            }
+        }
+        this.next = 0;
+    }
+
+    public Settings getSettings() {
+        return this.settings;
+    }
+
+    public long getMapHash() {
+        return this.mapHash;
+    }
+
+    /**
+     * Returns the tick the recorded game ended on.
+     * 
+     * @return the final tick, or -1 if the recording holds no end marker.
+     */
+    public int getEndTick() {
+        return this.endTick;
+    }
+
+    /**
+     * Creates a new game with the recorded settings and starts playback from its first input.
+     * 
+     * @return the game to play the replay on.
+     */
+    public GameManager newGame() throws IOException {
+
+        if (Replay.hashMap(this.settings.getMapName()) != this.mapHash) {
+            throw new IOException("Error: Map " + this.settings.getMapName() 
+                    + " has changed since the replay was recorded.");
+        }
+        this.next = 0;
+        return new GameManager(this.settings);
+    }
+
+    /**
+     * Applies every recorded input made before the next tick of the given game. Called once
+     * before each tick during playback.
+     * 
+     * @param game the game being played back.
+     */
+    public void apply(GameManager game) {
+        while ((this.next < this.ticks.length) && (this.ticks[this.next] <= game.getTicks())) {
+            game.setPlayerMove(this.moves[this.next]);
+            this.next ++;
+        }
+    }
+
+    /**
+     * Returns whether playback has reached the end of the recorded game.
+     * 
+     * @param game the game being played back.
+     * @return true if the game has ended or reached the recorded final tick.
+     */
+    public boolean isFinished(GameManager game) {
+        return !game.isRunning() || ((this.endTick >= 0) && (game.getTicks() >= this.endTick));
+    }
+
+    /**
+     * Writes the header of a replay file.
+     * 
+     * @param out
+     * @param settings the settings of the recorded game.
+     * @param mapHash the hash of the Map file.
+     */
+    public static void writeHeader(DataOutputStream out, Settings settings, long mapHash) 
+            throws IOException {
+
+        out.write(MAGIC);
+        Replay.writeVarint(out, VERSION);
+        out.writeLong(settings.getSeed());
+        out.writeUTF(settings.getMapName());
+        out.writeLong(mapHash);
+
+        Replay.writeVarint(out, settings.getPlayerLives());
+        Replay.writeVarint(out, settings.getSpeed());
+        Replay.writeVarint(out, settings.getTickRate());
+        out.writeBoolean(settings.getMazeTargeting());
+        Replay.writeVarint(out, settings.getFrightenedLength());
+        Replay.writeVarint(out, settings.getGhostModes().length);
+        for (int length : settings.getGhostModes()) {
+            Replay.writeVarint(out, length);
+        }
+    }
+
+    /**
+     * Reads the header of a replay file into the given settings.
+     * 
+     * @param in
+     * @param settings the settings to be filled in.
+     * @return the hash of the Map file.
+     */
+    private static long readHeader(DataInputStream in, Settings settings) throws IOException {
+
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Error: Not a replay file.");
+        }
+        long version = Replay.readVarint(in);
+        if (version != VERSION) {
+            throw new IOException("Error: Unsupported replay version " + version + ".");
+        }
+
+        settings.setSeed(in.readLong());
+        settings.setMapName(in.readUTF());
+        long mapHash = in.readLong();
+
+        settings.setPlayerLives((int) Replay.readVarint(in));
+        settings.setSpeed((int) Replay.readVarint(in));
+        int tickRate = (int) Replay.readVarint(in);
+        if (!Settings.isValidTickRate(tickRate, settings.getSpeed())) {
+            throw new IOException("Error: Invalid tick rate " + tickRate + ".");
+        }
+        settings.setTickRate(tickRate);
+        settings.setMazeTargeting(in.readBoolean());
+        settings.setFrightenedLength((int) Replay.readVarint(in));
+        int[] modes = new int[(int) Replay.readVarint(in)];
+        for (int i = 0; i < modes.length; i ++) {
+            modes[i] = (int) Replay.readVarint(in);
+        }
+        settings.setGhostModes(modes);
+        return mapHash;
+    }
+
+    /**
+     * Writes a non-negative value using 7 bits per byte, with the high bit of each byte set if
+     * more bytes follow.
+     * 
+     * @param out
+     * @param value the value to be written.
+     */
+    public static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Reads a value written by writeVarint.
+     * 
+     * @param in
+     * @return the value read.
+     */
+    public static long readVarint(InputStream in) throws IOException {
+
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Error: Replay file is truncated.");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Error: Invalid replay file.");
+    }
+
+    /**
+     * Returns a hash of the contents of a Map file, used to check that a replay is played back
+     * on the layout it was recorded on.
+     * 
+     * @param filename the name of the Map file.
+     * @return the CRC32 of the file contents.
+     */
+    public static long hashMap(String filename) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(Paths.get(filename)));
+        return crc.getValue();
+    }
+
+    /**
+     * Plays back a replay file without a window as fast as possible and prints the outcome.
+     * 
+     * Usage: Replay <file>
+     */
+    public static void main(String[] args) throws IOException {
+
+        Replay replay = new Replay(args[0]);
+        GameManager game = replay.newGame();
+        long start = System.nanoTime();
+
+        while (!replay.isFinished(game)) {
+            replay.apply(game);
+            game.tick();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("ticks=" + game.getTicks() + " win=" + game.playerWin() + " lives=" 
+                + game.getPlayerLives() + " fruits=" + game.getFruits().getRemaining() 
+                + " ticksPerSecond=" + (long) (game.getTicks() / seconds));
+    }
+}
@@ -0,0 +1,105 @@
+package ghost;
+
+import java.util.concurrent.*;
+import java.io.*;
+
+/**
+ * ReplayWriter records the inputs of a game into a replay file (see Replay for the format). The
+ * header is written when the writer is created; inputs are only queued by the game loop and are
+ * encoded and written by a background thread, so recording never blocks a tick on I/O.
+ */
+public class ReplayWriter {
+
+    private final BlockingQueue<Long> records;
+    private final DataOutputStream out;
+    private final Thread writer;
+    private volatile IOException error;
+
+    /**
+     * Creates a replay file for a game and starts the background writer.
+     * 
+     * @param filename the name of the replay file.
+     * @param settings the settings of the game.
+     */
+    public ReplayWriter(String filename, Settings settings) throws IOException {
+
+        this.records = new LinkedBlockingQueue<Long>();
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        Replay.writeHeader(this.out, settings, Replay.hashMap(settings.getMapName()));
+
+        this.writer = new Thread(this::write, "replay-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an input made before the given tick.
+     * 
+     * @param tick the number of ticks completed when the input was made.
+     * @param direction the direction input.
+     */
+    public void record(int tick, State direction) {
+        this.records.offer(((long) tick << 3) | direction.ordinal());
+    }
+
+    /**
+     * Queues the end marker, after which the writer closes the file. No inputs may be recorded
+     * after the game has finished.
+     * 
+     * @param tick the tick the game ended on.
+     */
+    public void finish(int tick) {
+        this.records.offer(((long) tick << 3) | Replay.END);
+    }
+
+    /**
+     * Waits until the file has been written and closed. Must be called after finish().
+     */
+    public void await() throws IOException, InterruptedException {
+        this.writer.join();
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+
+    /**
+     * Takes queued records and writes them, delta encoding the ticks, until the end marker.
+     */
+    private void write() {
+
+        long lastTick = 0;
+        try {
+            while (true) {
+                long record = this.records.take();
+                long tick = record >>> 3;
+                int type = (int) (record & 7);
+
+                Replay.writeVarint(this.out, ((tick - lastTick) << 3) | type);
+                lastTick = tick;
+
+                if (type == Replay.END) {
+                    break;
+                }
+                // Flushes whenever the game loop has nothing more queued, so a crash loses as
+                // little of the recording as possible.
+                if (this.records.isEmpty()) {
+                    this.out.flush();
+                }
+            }
+        } catch (IOException e) {
+            this.error = e;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        
+        } finally {
+            try {
+                this.out.close();
+            } catch (IOException e) {
+                if (this.error == null) {
+                    this.error = e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ghost;
+
+import java.util.*;
+
+/**
+ * RollingHistogram class keeps the most recent samples of a measurement and answers percentile
+ * queries over them. Samples are counted in logarithmic buckets, four per power of two, so a
+ * percentile is found by walking a few hundred counters and is accurate to within a quarter of
+ * its value. Adding a sample replaces the oldest one once the window is full, and never allocates.
+ */
+public class RollingHistogram {
+
+    /**
+     * The number of buckets, enough for any non-negative long value.
+     */
+    private static final int BUCKETS = 252;
+
+    private long[] window;
+    private int[] buckets;
+    private int next;
+    private int count;
+
+    /**
+     * Creates an empty instance of RollingHistogram keeping the given number of samples.
+     *
+     * @param size the number of most recent samples kept.
+     */
+    public RollingHistogram(int size) {
+
+        this.window = new long[size];
+        this.buckets = new int[BUCKETS];
+        this.next = 0;
+        this.count = 0;
+    }
+
+    /**
+     * Adds a sample, replacing the oldest sample if the window is full.
+     *
+     * @param value the sample, which must not be negative.
+     */
+    public void add(long value) {
+
+        if (this.count == this.window.length) {
+            this.buckets[RollingHistogram.bucket(this.window[this.next])] --;
+        } else {
+            this.count ++;
+        }
+        this.window[this.next] = value;
+        this.buckets[RollingHistogram.bucket(value)] ++;
+        this.next = (this.next + 1) % this.window.length;
+    }
+
+    /**
+     * Removes every sample.
+     */
+    public void clear() {
+
+        Arrays.fill(this.buckets, 0);
+        this.next = 0;
+        this.count = 0;
+    }
+
+    /**
+     * Returns the number of samples in the window.
+     *
+     * @return the number of samples.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the most recent sample.
+     *
+     * @return the latest sample, or 0 if there are none.
+     */
+    public long getLast() {
+
+        if (this.count == 0) {
+            return 0;
+        }
+        return this.window[(this.next + this.window.length - 1) % this.window.length];
+    }
+
+    /**
+     * Returns the largest sample in the window.
+     *
+     * @return the largest sample, or 0 if there are none.
+     */
+    public long getMax() {
+
+        long max = 0;
+        for (int i = 0; i < this.count; i ++) {
+            max = Math.max(max, this.window[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the samples in the window.
+     *
+     * @param percentile the percentile, from 0 to 100.
+     * @return the largest value in the bucket holding the percentile, or 0 if there are no
+     * samples.
+     */
+    public long getPercentile(double percentile) {
+
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100 * this.count), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i ++) {
+            seen += this.buckets[i];
+            if (seen >= rank) {
+                return RollingHistogram.upperBound(i);
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Returns the bucket of a value. Values below 4 have a bucket each; larger values share a
+     * bucket with the values that have the same highest three bits.
+     */
+    static int bucket(long value) {
+
+        if (value < 4) {
+            return (int) Math.max(value, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int fraction = (int) (value >>> (exponent - 2)) & 3;
+        return (exponent << 2) + fraction - 4;
+    }
+
+    /**
+     * Returns the largest value that falls into the given bucket.
+     */
+    static long upperBound(int bucket) {
+
+        if (bucket < 4) {
+            return bucket;
+        }
+        int exponent = (bucket + 4) >> 2;
+        long lower = (long) (4 + ((bucket + 4) & 3)) << (exponent - 2);
+        return lower + (1L << (exponent - 2)) - 1;
+    }
+}
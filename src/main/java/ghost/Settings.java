@@ -9,33 +9,181 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 public class Settings {
+
+    /**
+     * The default number of game ticks per second, which all speeds and animations are given in.
+     */
+    public static final int DEFAULT_TICK_RATE = 60;
+
+    /**
+     * The default time a MonteCarloPilot may take for each decision, in milliseconds: a quarter
+     * of a frame.
+     */
+    public static final int DEFAULT_AUTOPILOT_BUDGET = 4;
+
+    /**
+     * The default number of ticks that may be run to catch up after a slow frame.
+     */
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
     
     private int playerLives;
     private int speed;
     private int frightenedLength;
     private int[] ghostModes;
     private String mapName;
+    private long seed = System.nanoTime();
+    private boolean seeded = false;
+    private int tickRate = DEFAULT_TICK_RATE;
+    private int maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+    private boolean interpolate = false;
+    private boolean mazeTargeting = false;
+    private boolean ghostSwarm = false;
+    private boolean dirtyRendering = false;
+    private String autopilot = "off";
+    private int autopilotBudget = DEFAULT_AUTOPILOT_BUDGET;
+    private int autopilotThreads = Runtime.getRuntime().availableProcessors();
 
     public int getPlayerLives() {
         return this.playerLives;
     }
 
+    public void setPlayerLives(int playerLives) {
+        this.playerLives = playerLives;
+    }
+
     public int getSpeed() {
         return this.speed;
     }
 
+    public void setSpeed(int speed) {
+        this.speed = speed;
+    }
+
     public int getFrightenedLength() {
         return this.frightenedLength;
     }
 
+    public void setFrightenedLength(int frightenedLength) {
+        this.frightenedLength = frightenedLength;
+    }
+
     public int[] getGhostModes() {
         return this.ghostModes;
     }
 
+    public void setGhostModes(int[] ghostModes) {
+        this.ghostModes = ghostModes;
+    }
+
     public String getMapName() {
         return this.mapName;
     }
 
+    public void setMapName(String mapName) {
+        this.mapName = mapName;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.seeded = true;
+    }
+
+    /**
+     * Returns whether the seed was given, rather than taken from the clock.
+     * 
+     * @return true if the seed was configured or set; false otherwise.
+     */
+    public boolean isSeeded() {
+        return this.seeded;
+    }
+
+    public int getTickRate() {
+        return this.tickRate;
+    }
+
+    public void setTickRate(int tickRate) {
+        this.tickRate = tickRate;
+    }
+
+    public int getMaxCatchUpTicks() {
+        return this.maxCatchUpTicks;
+    }
+
+    /**
+     * Returns whether objects moving at the given speed step onto every pixel they may turn on
+     * at the given tick rate, i.e. the rate is 60 or at least 60 times the speed.
+     *
+     * @param tickRate the number of ticks per second.
+     * @param speed the speed of the Waka and Ghosts.
+     * @return true if the tick rate may be used; false otherwise.
+     */
+    public static boolean isValidTickRate(int tickRate, int speed) {
+        return (tickRate == DEFAULT_TICK_RATE)
+                || ((tickRate > DEFAULT_TICK_RATE) && (tickRate >= DEFAULT_TICK_RATE * speed));
+    }
+
+    public boolean getInterpolate() {
+        return this.interpolate;
+    }
+
+    public boolean getMazeTargeting() {
+        return this.mazeTargeting;
+    }
+
+    public void setMazeTargeting(boolean mazeTargeting) {
+        this.mazeTargeting = mazeTargeting;
+    }
+
+    public boolean getGhostSwarm() {
+        return this.ghostSwarm;
+    }
+
+    public void setGhostSwarm(boolean ghostSwarm) {
+        this.ghostSwarm = ghostSwarm;
+    }
+
+    public boolean getDirtyRendering() {
+        return this.dirtyRendering;
+    }
+
+    /**
+     * Returns what steers the Waka in place of the player.
+     * 
+     * @return "off" for the player, "greedy" for a GreedyPilot or "mcts" for a MonteCarloPilot.
+     */
+    public String getAutopilot() {
+        return this.autopilot;
+    }
+
+    public void setAutopilot(String autopilot) {
+        this.autopilot = autopilot;
+    }
+
+    /**
+     * Returns the time a MonteCarloPilot may take for each decision.
+     * 
+     * @return the time allowed in milliseconds.
+     */
+    public int getAutopilotBudget() {
+        return this.autopilotBudget;
+    }
+
+    public void setAutopilotBudget(int autopilotBudget) {
+        this.autopilotBudget = autopilotBudget;
+    }
+
+    public int getAutopilotThreads() {
+        return this.autopilotThreads;
+    }
+
+    public void setAutopilotThreads(int autopilotThreads) {
+        this.autopilotThreads = autopilotThreads;
+    }
+
     /**
      * Processes and stores game settings from the configuration file for later use in setting
      * up the game.
@@ -72,6 +220,109 @@ public class Settings {
                 // Retrieves the name of the map layout that is to be used in game.
                 this.mapName = (String)description.get("map");
 
+                // Retrieves the optional random seed. Without one, every game is seeded
+                // differently.
+                if (description.get("seed") != null) {
+                    this.seed = ((Long)description.get("seed")).longValue();
+                    this.seeded = true;
+                }
+
+                // Retrieves the optional simulation rate, the most ticks that may be run to
+                // catch up after a slow frame, and whether drawing interpolates between ticks.
+                if (description.get("tickRate") != null) {
+                    this.tickRate = ((Long)description.get("tickRate")).intValue();
+
+                    // Slower ticks would move objects several pixels at once, past tile edges.
+                    // Objects step their whole speed every tick at 60 ticks per second, and at
+                    // most a pixel per tick from 60 times their speed upwards; rates in between
+                    // mix longer and shorter steps, which skip the pixels objects turn on.
+                    int fastest = DEFAULT_TICK_RATE * this.speed;
+                    if (this.tickRate < DEFAULT_TICK_RATE) {
+                        System.out.println("Error: Tick rate must be at least 60.");
+                        this.tickRate = DEFAULT_TICK_RATE;
+                    } else if (!Settings.isValidTickRate(this.tickRate, this.speed)) {
+                        System.out.println("Error: Tick rate must be 60 or at least " + fastest
+                                + " at speed " + this.speed + ".");
+                        this.tickRate = DEFAULT_TICK_RATE;
+                    }
+                }
+                if (description.get("maxCatchUpTicks") != null) {
+                    this.maxCatchUpTicks = ((Long)description.get("maxCatchUpTicks")).intValue();
+                    if (this.maxCatchUpTicks <= 0) {
+                        System.out.println("Error: Max catch up ticks must be positive.");
+                        this.maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+                    }
+                }
+                if (description.get("interpolate") != null) {
+                    this.interpolate = ((Boolean)description.get("interpolate")).booleanValue();
+                }
+
+                // Retrieves the optional Ghost targeting, either "euclidean" for straight line
+                // distances or "maze" for the number of tiles to walk.
+                String targeting = (String)description.get("targeting");
+                if (targeting != null) {
+                    if (targeting.equals("maze")) {
+                        this.mazeTargeting = true;
+                    } else if (targeting.equals("euclidean")) {
+                        this.mazeTargeting = false;
+                    } else {
+                        System.out.println("Error: Unknown targeting " + targeting + ".");
+                    }
+                }
+
+                // Retrieves the optional Ghost store, either "objects" for a Ghost object each or
+                // "swarm" for a single GhostSwarm holding every Ghost in arrays.
+                String ghostStore = (String)description.get("ghostStore");
+                if (ghostStore != null) {
+                    if (ghostStore.equals("swarm")) {
+                        this.ghostSwarm = true;
+                    } else if (ghostStore.equals("objects")) {
+                        this.ghostSwarm = false;
+                    } else {
+                        System.out.println("Error: Unknown ghost store " + ghostStore + ".");
+                    }
+                }
+
+                // Retrieves the optional render mode, either "full" to draw the whole screen
+                // every frame or "dirty" to only draw the parts that have changed.
+                String render = (String)description.get("render");
+                if (render != null) {
+                    if (render.equals("dirty")) {
+                        this.dirtyRendering = true;
+                    } else if (render.equals("full")) {
+                        this.dirtyRendering = false;
+                    } else {
+                        System.out.println("Error: Unknown render mode " + render + ".");
+                    }
+                }
+
+                // Retrieves the optional autopilot, either "off", "greedy" or "mcts", and the
+                // milliseconds and threads a Monte Carlo search may use for each decision.
+                String autopilot = (String)description.get("autopilot");
+                if (autopilot != null) {
+                    if (autopilot.equals("off") || autopilot.equals("greedy") 
+                            || autopilot.equals("mcts")) {
+                        this.autopilot = autopilot;
+                    } else {
+                        System.out.println("Error: Unknown autopilot " + autopilot + ".");
+                    }
+                }
+                if (description.get("autopilotBudget") != null) {
+                    this.autopilotBudget = ((Long)description.get("autopilotBudget")).intValue();
+                    if (this.autopilotBudget <= 0) {
+                        System.out.println("Error: Autopilot budget must be positive.");
+                        this.autopilotBudget = DEFAULT_AUTOPILOT_BUDGET;
+                    }
+                }
+                if (description.get("autopilotThreads") != null) {
+                    this.autopilotThreads = 
+                            ((Long)description.get("autopilotThreads")).intValue();
+                    if (this.autopilotThreads <= 0) {
+                        System.out.println("Error: Autopilot threads must be positive.");
+                        this.autopilotThreads = 1;
+                    }
+                }
+
             } catch (FileNotFoundException e) {
                 System.out.println("Error: File does not exist.");
 
@@ -0,0 +1,196 @@
+package ghost;
+
+import java.util.*;
+
+/**
+ * SpatialGrid class buckets GameObjects by the square cell of the Map their centre is in, so the
+ * objects in an area can be found by visiting only the cells that overlap it rather than every
+ * object. Cells are several tiles wide, and only cells that hold objects keep a bucket. The grid
+ * remembers the cell of every object, so objects that move only change bucket when they cross
+ * into another cell.
+ *
+ * @param <T> the type of GameObject held.
+ */
+public class SpatialGrid<T extends GameObject> {
+
+    /**
+     * The default width and height of a cell, in tiles.
+     */
+    public static final int DEFAULT_CELL_TILES = 8;
+
+    private int cellSize;
+    private int rows;
+    private int cols;
+
+    /**
+     * Stores the objects in each cell by cell index, in row-major order.
+     */
+    private HashMap<Integer, List<T>> cells;
+
+    /**
+     * Stores the cell index of every object in the grid. Buckets are emptied rather than
+     * discarded, so moving objects around does not create new buckets.
+     */
+    private IdentityHashMap<T, Integer> cellOf;
+
+    /**
+     * Creates an empty instance of SpatialGrid covering the given Map.
+     *
+     * @param map the game map.
+     * @param cellTiles the width and height of a cell, in tiles.
+     */
+    public SpatialGrid(Map map, int cellTiles) {
+
+        this.cellSize = cellTiles * GameObject.SPRITE_SIZE;
+        this.rows = (map.getRows() + cellTiles - 1) / cellTiles;
+        this.cols = (map.getCols() + cellTiles - 1) / cellTiles;
+        this.cells = new HashMap<Integer, List<T>>();
+        this.cellOf = new IdentityHashMap<T, Integer>();
+    }
+
+    /**
+     * Removes every object from the grid.
+     */
+    public void clear() {
+
+        if (this.cellOf.isEmpty()) {
+            return;
+        }
+        for (List<T> cell : this.cells.values()) {
+            cell.clear();
+        }
+        this.cellOf.clear();
+    }
+
+    /**
+     * Adds an object to the cell its centre is in. Objects outside the Map are added to the
+     * nearest edge cell. Objects already in the grid are moved with update instead.
+     *
+     * @param object the object to be added.
+     */
+    public void insert(T object) {
+
+        int index = this.cellIndex(object);
+        this.bucket(index).add(object);
+        this.cellOf.put(object, index);
+    }
+
+    /**
+     * Moves an object that is already in the grid to the cell its centre is now in. Objects that
+     * have stayed inside their cell are not moved.
+     *
+     * @param object the object that may have moved.
+     */
+    public void update(T object) {
+
+        Integer previous = this.cellOf.get(object);
+        if (previous == null) {
+            this.insert(object);
+            return;
+        }
+        int index = this.cellIndex(object);
+        if (index != previous) {
+            this.cells.get(previous).remove(object);
+            this.bucket(index).add(object);
+            this.cellOf.put(object, index);
+        }
+    }
+
+    /**
+     * Removes an object from the grid.
+     *
+     * @param object the object to be removed.
+     * @return true if the object was in the grid; false otherwise.
+     */
+    public boolean remove(T object) {
+
+        Integer previous = this.cellOf.remove(object);
+        if (previous == null) {
+            return false;
+        }
+        this.cells.get(previous).remove(object);
+        return true;
+    }
+
+    /**
+     * Returns the number of objects in the grid.
+     *
+     * @return the number of objects.
+     */
+    public int size() {
+        return this.cellOf.size();
+    }
+
+    /**
+     * Removes every object from the grid and adds the given objects.
+     *
+     * @param objects the objects to be held.
+     */
+    public void rebuild(List<? extends T> objects) {
+
+        this.clear();
+        for (int i = 0; i < objects.size(); i ++) {
+            this.insert(objects.get(i));
+        }
+    }
+
+    /**
+     * Finds the objects whose centre may lie inside the given rectangle, adding every object in
+     * the cells the rectangle overlaps to the given list.
+     *
+     * @param left the left edge of the rectangle, in pixels.
+     * @param top the top edge of the rectangle, in pixels.
+     * @param right the right edge of the rectangle, exclusive.
+     * @param bottom the bottom edge of the rectangle, exclusive.
+     * @param found the list the objects are added to.
+     */
+    public void query(int left, int top, int right, int bottom, List<T> found) {
+
+        int firstRow = this.clampRow(Math.floorDiv(top, this.cellSize));
+        int lastRow = this.clampRow(Math.floorDiv(bottom - 1, this.cellSize));
+        int firstCol = this.clampCol(Math.floorDiv(left, this.cellSize));
+        int lastCol = this.clampCol(Math.floorDiv(right - 1, this.cellSize));
+
+        for (int i = firstRow; i <= lastRow; i ++) {
+            for (int j = firstCol; j <= lastCol; j ++) {
+                List<T> cell = this.cells.get(i * this.cols + j);
+                if (cell != null) {
+                    found.addAll(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the index of the cell the centre of the given object is in. Objects outside the Map
+     * are given the nearest edge cell.
+     */
+    private int cellIndex(T object) {
+
+        int centre = GameObject.SPRITE_SIZE / 2;
+        int row = this.clampRow(Math.floorDiv(object.getY() + centre, this.cellSize));
+        int col = this.clampCol(Math.floorDiv(object.getX() + centre, this.cellSize));
+        return row * this.cols + col;
+    }
+
+    /**
+     * Returns the bucket of the cell with the given index, creating it if required.
+     */
+    private List<T> bucket(int index) {
+
+        List<T> cell = this.cells.get(index);
+        if (cell == null) {
+            cell = new ArrayList<T>();
+            this.cells.put(index, cell);
+        }
+        return cell;
+    }
+
+    private int clampRow(int row) {
+        return Math.min(Math.max(row, 0), this.rows - 1);
+    }
+
+    private int clampCol(int col) {
+        return Math.min(Math.max(col, 0), this.cols - 1);
+    }
+}
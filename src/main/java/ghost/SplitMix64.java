@@ -0,0 +1,112 @@
+package ghost;
+
+/**
+ * SplitMix64 class is a random generator producing exactly the same values as SplittableRandom
+ * for the same seed, and splitting the same way. Unlike SplittableRandom it can be copied, so a
+ * game can be forked with every Ghost continuing the same random sequence in both games.
+ */
+public class SplitMix64 {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    private final long gamma;
+
+    /**
+     * Creates an instance of SplitMix64 with the given seed.
+     *
+     * @param seed the initial seed.
+     */
+    public SplitMix64(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates an instance of SplitMix64 seeded from the clock.
+     */
+    public SplitMix64() {
+        this(SplitMix64.mix64(System.currentTimeMillis()) ^ SplitMix64.mix64(System.nanoTime()));
+    }
+
+    private SplitMix64(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Returns a new generator split off this one, which shares no state with it.
+     *
+     * @return the new generator.
+     */
+    public SplitMix64 split() {
+        return new SplitMix64(this.nextLong(), SplitMix64.mixGamma(this.nextSeed()));
+    }
+
+    /**
+     * Returns a copy of the generator, which produces the same values from now on.
+     *
+     * @return the copy.
+     */
+    public SplitMix64 copy() {
+        return new SplitMix64(this.seed, this.gamma);
+    }
+
+    public long nextLong() {
+        return SplitMix64.mix64(this.nextSeed());
+    }
+
+    public int nextInt() {
+        return SplitMix64.mix32(this.nextSeed());
+    }
+
+    /**
+     * Returns a random value between 0 and the bound, without bias.
+     *
+     * @param bound the upper bound, exclusive, which must be positive.
+     * @return the random value.
+     */
+    public int nextInt(int bound) {
+
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        int r = this.nextInt();
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+
+        // Rejects the values of the last, partial range of the bound.
+        int u = r >>> 1;
+        while (u + m - (r = u % bound) < 0) {
+            u = this.nextInt() >>> 1;
+        }
+        return r;
+    }
+
+    private long nextSeed() {
+        return this.seed += this.gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    /**
+     * Returns an odd gamma with enough bit transitions to give a good sequence.
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
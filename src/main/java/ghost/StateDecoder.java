@@ -0,0 +1,310 @@
+package ghost;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * StateDecoder class follows a game remotely from the frames a StateEncoder writes, holding the
+ * state of the game as of the last frame read. It does not need the Map, so it can be used by
+ * clients that only draw or measure the game.
+ */
+public class StateDecoder {
+
+    private boolean started;
+    private int tick;
+    private int rows;
+    private int cols;
+    private int lives;
+    private boolean running;
+    private boolean win;
+    private int playerX;
+    private int playerY;
+    private int ghostCount;
+    private int[] ghostX;
+    private int[] ghostY;
+    private GhostState[] ghostStates;
+    private BitSet fruits;
+    private int frames;
+
+    /**
+     * Creates an instance of StateDecoder, which waits for a keyframe.
+     */
+    public StateDecoder() {
+        this.started = false;
+        this.ghostX = new int[0];
+        this.ghostY = new int[0];
+        this.ghostStates = new GhostState[0];
+        this.fruits = new BitSet();
+        this.frames = 0;
+    }
+
+    /**
+     * Reads the next frame from the buffer and applies it, if the whole frame has arrived. An
+     * incomplete frame is left in the buffer for when the rest of it has been received.
+     *
+     * @param in the received bytes, ready to be read.
+     * @return true if a frame was read; false if the next frame is incomplete.
+     * @throws IllegalArgumentException if the frame is not valid, or is a delta before the first
+     * keyframe.
+     */
+    public boolean decode(ByteBuffer in) {
+
+        int start = in.position();
+        int length = StateDecoder.peekLength(in);
+        if ((length < 0) || (in.remaining() < length)) {
+            in.position(start);
+            return false;
+        }
+        int end = in.position() + length;
+
+        int flags = in.get();
+        if (flags == StateEncoder.KEYFRAME) {
+            this.readKeyframe(in);
+        } else if (this.started) {
+            this.readDelta(in, flags);
+        } else {
+            throw new IllegalArgumentException("Delta before the first keyframe");
+        }
+        if (in.position() != end) {
+            throw new IllegalArgumentException("Frame length does not match its contents");
+        }
+        this.frames ++;
+        return true;
+    }
+
+    private void readKeyframe(ByteBuffer in) {
+
+        this.tick = StateDecoder.getVarint(in);
+        this.rows = StateDecoder.getVarint(in);
+        this.cols = StateDecoder.getVarint(in);
+        this.lives = StateDecoder.getVarint(in);
+        int status = in.get();
+        this.running = (status & 1) != 0;
+        this.win = (status & 2) != 0;
+        this.playerX = StateDecoder.getZigzag(in);
+        this.playerY = StateDecoder.getZigzag(in);
+        this.readGhostList(in);
+
+        this.fruits.clear();
+        this.readTiles(in, true);
+        this.started = true;
+    }
+
+    private void readDelta(ByteBuffer in, int flags) {
+
+        this.tick += StateDecoder.getVarint(in);
+        if ((flags & StateEncoder.PLAYER_X) != 0) {
+            this.playerX += StateDecoder.getZigzag(in);
+        }
+        if ((flags & StateEncoder.PLAYER_Y) != 0) {
+            this.playerY += StateDecoder.getZigzag(in);
+        }
+        if ((flags & StateEncoder.LIVES) != 0) {
+            this.lives = StateDecoder.getVarint(in);
+        }
+        if ((flags & StateEncoder.GHOST_LIST) != 0) {
+            this.readGhostList(in);
+        } else if ((flags & StateEncoder.GHOSTS) != 0) {
+            this.readChangedGhosts(in);
+        }
+        if ((flags & StateEncoder.FRUITS) != 0) {
+            this.readTiles(in, false);
+        }
+        if ((flags & StateEncoder.END) != 0) {
+            this.running = false;
+            this.win = in.get() != 0;
+        }
+    }
+
+    private void readGhostList(ByteBuffer in) {
+
+        this.ghostCount = StateDecoder.getVarint(in);
+        if (this.ghostCount > this.ghostX.length) {
+            this.ghostX = new int[this.ghostCount];
+            this.ghostY = new int[this.ghostCount];
+            this.ghostStates = new GhostState[this.ghostCount];
+        }
+        for (int i = 0; i < this.ghostCount; i ++) {
+            this.ghostX[i] = StateDecoder.getZigzag(in);
+            this.ghostY[i] = StateDecoder.getZigzag(in);
+            this.ghostStates[i] = StateDecoder.ghostState(in.get());
+        }
+    }
+
+    private void readChangedGhosts(ByteBuffer in) {
+
+        int changed = StateDecoder.getVarint(in);
+        for (int i = 0; i < changed; i ++) {
+            int entry = StateDecoder.getVarint(in);
+            int index = entry >>> 3;
+            if (index >= this.ghostCount) {
+                throw new IllegalArgumentException("Ghost index out of range: " + index);
+            }
+            int fields = entry & 7;
+            if ((fields & StateEncoder.GHOST_X) != 0) {
+                this.ghostX[index] += StateDecoder.getZigzag(in);
+            }
+            if ((fields & StateEncoder.GHOST_Y) != 0) {
+                this.ghostY[index] += StateDecoder.getZigzag(in);
+            }
+            if ((fields & StateEncoder.GHOST_STATE) != 0) {
+                this.ghostStates[index] = StateDecoder.ghostState(in.get());
+            }
+        }
+    }
+
+    /**
+     * Reads a count and the gaps between tiles, setting or clearing the Fruit on each tile.
+     */
+    private void readTiles(ByteBuffer in, boolean value) {
+
+        int count = StateDecoder.getVarint(in);
+        int tile = 0;
+        for (int i = 0; i < count; i ++) {
+            tile += StateDecoder.getVarint(in);
+            this.fruits.set(tile, value);
+        }
+    }
+
+    private static GhostState ghostState(int ordinal) {
+
+        GhostState[] states = GhostState.values();
+        if ((ordinal < 0) || (ordinal >= states.length)) {
+            throw new IllegalArgumentException("Unknown GhostState: " + ordinal);
+        }
+        return states[ordinal];
+    }
+
+    /**
+     * Reads the length of the next frame, leaving the buffer just after it.
+     *
+     * @return the length, or -1 if the length itself has not fully arrived.
+     */
+    private static int peekLength(ByteBuffer in) {
+
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!in.hasRemaining()) {
+                return -1;
+            }
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+
+    /**
+     * Reads an unsigned varint written by StateEncoder.putVarint.
+     *
+     * @param in
+     * @return the value.
+     */
+    public static int getVarint(ByteBuffer in) {
+
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+
+    /**
+     * Reads a signed value written by StateEncoder.putZigzag.
+     *
+     * @param in
+     * @return the value.
+     */
+    public static int getZigzag(ByteBuffer in) {
+
+        int value = StateDecoder.getVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Returns whether a keyframe has been read, so the state is known.
+     *
+     * @return true if the state is known; false otherwise.
+     */
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    public int getTicks() {
+        return this.tick;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public int getCols() {
+        return this.cols;
+    }
+
+    public int getPlayerLives() {
+        return this.lives;
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    public boolean playerWin() {
+        return this.win;
+    }
+
+    public int getPlayerX() {
+        return this.playerX;
+    }
+
+    public int getPlayerY() {
+        return this.playerY;
+    }
+
+    public int getGhostCount() {
+        return this.ghostCount;
+    }
+
+    public int getGhostX(int index) {
+        return this.ghostX[index];
+    }
+
+    public int getGhostY(int index) {
+        return this.ghostY[index];
+    }
+
+    public GhostState getGhostState(int index) {
+        return this.ghostStates[index];
+    }
+
+    /**
+     * Returns whether there is an uneaten Fruit on the given tile.
+     *
+     * @param row the row of the tile.
+     * @param col the column of the tile.
+     * @return true if a Fruit remains on the tile; false otherwise.
+     */
+    public boolean hasFruit(int row, int col) {
+        return this.fruits.get(row * this.cols + col);
+    }
+
+    public int getFruitCount() {
+        return this.fruits.cardinality();
+    }
+
+    /**
+     * Returns the number of frames read so far.
+     *
+     * @return the number of frames.
+     */
+    public int getFrames() {
+        return this.frames;
+    }
+}
@@ -0,0 +1,351 @@
+package ghost;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * StateEncoder class writes the state of a game as compact binary frames, for a client following
+ * the game remotely (see StateDecoder). The first frame is a keyframe holding the whole state;
+ * every later frame is a delta holding only what changed since the last frame written, so frames
+ * the client could not take in time can simply be left out. Nothing is written for ticks in
+ * which nothing changed.
+ *
+ * Every frame is a varint length followed by a byte of flags and the payload, where no flags
+ * mark a keyframe. Numbers are varints, and positions and their changes are zigzag varints, so
+ * small changes take a single byte.
+ *
+ * Keyframe: tick, rows, columns, lives, a status byte (1 if running, 2 if won), Waka x and y,
+ * the number of Ghosts and the x, y and GhostState ordinal byte of each, then the number of
+ * Fruits and the gaps between the indices of their tiles in row-major order.
+ *
+ * Delta: ticks since the last frame, then a section for each flag set, in order: PLAYER_X and
+ * PLAYER_Y the change in Waka x or y; LIVES the lives; GHOST_LIST every Ghost as in a keyframe,
+ * when Ghosts were eaten; GHOSTS the number of changed Ghosts and for each a varint of its index
+ * shifted left by three and its GHOST_X, GHOST_Y and GHOST_STATE flags, then the changes
+ * flagged; FRUITS the number of eaten Fruits and the gaps between their tiles; END a byte, 1 if
+ * the Waka won.
+ */
+public class StateEncoder {
+
+    public static final byte KEYFRAME = 0;
+
+    public static final int PLAYER_X = 1;
+    public static final int PLAYER_Y = 2;
+    public static final int LIVES = 4;
+    public static final int GHOST_LIST = 8;
+    public static final int GHOSTS = 16;
+    public static final int FRUITS = 32;
+    public static final int END = 64;
+
+    public static final int GHOST_X = 1;
+    public static final int GHOST_Y = 2;
+    public static final int GHOST_STATE = 4;
+
+    /**
+     * The most bytes a varint of an int takes.
+     */
+    private static final int VARINT_BYTES = 5;
+
+    private final int rows;
+    private final int cols;
+    private final int maxFrameSize;
+
+    /**
+     * Stores the state as of the last frame written, i.e. as the client knows it.
+     */
+    private boolean keyframe;
+    private boolean ended;
+    private int tick;
+    private int lives;
+    private int playerX;
+    private int playerY;
+    private int ghostCount;
+    private int[] ghostX;
+    private int[] ghostY;
+    private byte[] ghostState;
+    private FruitStore fruits;
+    private int[] tiles;
+
+    /**
+     * Creates an instance of StateEncoder for games on the Map of the given game, whose next
+     * frame is a keyframe.
+     *
+     * @param game a game on the Map, as it started.
+     */
+    public StateEncoder(GameManager game) {
+
+        this.rows = game.getMap().getRows();
+        this.cols = game.getMap().getCols();
+        int ghosts = game.getGhostCount();
+        int fruits = game.getFruits().getRemaining();
+        this.ghostX = new int[ghosts];
+        this.ghostY = new int[ghosts];
+        this.ghostState = new byte[ghosts];
+        this.tiles = new int[fruits];
+
+        // Bounds the length, type, numbers and flag bytes of either kind of frame, with every
+        // Ghost changed and every Fruit listed.
+        this.maxFrameSize = 10 * VARINT_BYTES + 3 + ghosts * (3 * VARINT_BYTES + 2)
+                + fruits * VARINT_BYTES;
+        this.keyframe = true;
+    }
+
+    /**
+     * Returns the most bytes a single frame can take, including its length.
+     *
+     * @return the maximum frame size.
+     */
+    public int getMaxFrameSize() {
+        return this.maxFrameSize;
+    }
+
+    /**
+     * Makes the next frame a keyframe, e.g. for a restarted game.
+     */
+    public void reset() {
+        this.keyframe = true;
+        this.fruits = null;
+    }
+
+    /**
+     * Writes a frame bringing the client from the last frame written up to the game's current
+     * state, unless nothing has changed.
+     *
+     * @param game the game, on the Map this encoder was created for.
+     * @param out receives the frame, and must have at least getMaxFrameSize bytes remaining.
+     * @return true if a frame was written; false if nothing had changed.
+     */
+    public boolean encode(GameManager game, ByteBuffer out) {
+
+        // The payload is written after a single length byte, and moved if it needs more.
+        int start = out.position();
+        out.position(start + 1);
+        boolean written;
+        if (this.keyframe) {
+            this.writeKeyframe(game, out);
+            written = true;
+        } else {
+            written = this.writeDelta(game, out);
+        }
+        if (!written) {
+            out.position(start);
+            return false;
+        }
+
+        int length = out.position() - start - 1;
+        int lengthBytes = StateEncoder.varintSize(length);
+        if (lengthBytes > 1) {
+            byte[] array = out.array();
+            int offset = out.arrayOffset() + start;
+            System.arraycopy(array, offset + 1, array, offset + lengthBytes, length);
+        }
+        out.position(start);
+        StateEncoder.putVarint(out, length);
+        out.position(start + lengthBytes + length);
+        return true;
+    }
+
+    private void writeKeyframe(GameManager game, ByteBuffer out) {
+
+        out.put(KEYFRAME);
+        this.remember(game, game.getGhosts());
+        StateEncoder.putVarint(out, this.tick);
+        StateEncoder.putVarint(out, this.rows);
+        StateEncoder.putVarint(out, this.cols);
+        StateEncoder.putVarint(out, this.lives);
+        out.put((byte) ((game.isRunning() ? 1 : 0) | (game.playerWin() ? 2 : 0)));
+        StateEncoder.putZigzag(out, this.playerX);
+        StateEncoder.putZigzag(out, this.playerY);
+        this.writeGhostList(out);
+
+        int count = this.fruits.getTiles(this.tiles);
+        StateEncoder.putVarint(out, count);
+        StateEncoder.putGaps(out, this.tiles, count);
+        this.keyframe = false;
+    }
+
+    /**
+     * Writes the changes since the last frame, or nothing if there are none.
+     *
+     * @return true if anything had changed; false otherwise.
+     */
+    private boolean writeDelta(GameManager game, ByteBuffer out) {
+
+        Waka player = game.getPlayer();
+        List<Ghost> ghosts = game.getGhosts();
+        FruitStore fruits = game.getFruits();
+        boolean ended = !game.isRunning();
+
+        int flags = 0;
+        if (player.getX() != this.playerX) {
+            flags |= PLAYER_X;
+        }
+        if (player.getY() != this.playerY) {
+            flags |= PLAYER_Y;
+        }
+        if (game.getPlayerLives() != this.lives) {
+            flags |= LIVES;
+        }
+        if (ghosts.size() != this.ghostCount) {
+            flags |= GHOST_LIST;
+        } else if (this.countChangedGhosts(ghosts) > 0) {
+            flags |= GHOSTS;
+        }
+        int eaten = fruits.eatenSince(this.fruits, this.tiles);
+        if (eaten > 0) {
+            flags |= FRUITS;
+        }
+        if (ended && !this.ended) {
+            flags |= END;
+        }
+        if (flags == 0) {
+            return false;
+        }
+
+        out.put((byte) flags);
+        StateEncoder.putVarint(out, game.getTicks() - this.tick);
+        if ((flags & PLAYER_X) != 0) {
+            StateEncoder.putZigzag(out, player.getX() - this.playerX);
+        }
+        if ((flags & PLAYER_Y) != 0) {
+            StateEncoder.putZigzag(out, player.getY() - this.playerY);
+        }
+        if ((flags & LIVES) != 0) {
+            StateEncoder.putVarint(out, game.getPlayerLives());
+        }
+        if ((flags & GHOST_LIST) != 0) {
+            this.remember(game, ghosts);
+            this.writeGhostList(out);
+        } else if ((flags & GHOSTS) != 0) {
+            this.writeChangedGhosts(ghosts, out);
+        }
+        if ((flags & FRUITS) != 0) {
+            StateEncoder.putVarint(out, eaten);
+            StateEncoder.putGaps(out, this.tiles, eaten);
+        }
+        if ((flags & END) != 0) {
+            out.put((byte) (game.playerWin() ? 1 : 0));
+        }
+        this.remember(game, ghosts);
+        return true;
+    }
+
+    private int countChangedGhosts(List<Ghost> ghosts) {
+
+        int changed = 0;
+        for (int i = 0; i < ghosts.size(); i ++) {
+            Ghost ghost = ghosts.get(i);
+            if ((ghost.getX() != this.ghostX[i]) || (ghost.getY() != this.ghostY[i])
+                    || (ghost.getState().ordinal() != this.ghostState[i])) {
+                changed ++;
+            }
+        }
+        return changed;
+    }
+
+    private void writeChangedGhosts(List<Ghost> ghosts, ByteBuffer out) {
+
+        StateEncoder.putVarint(out, this.countChangedGhosts(ghosts));
+        for (int i = 0; i < ghosts.size(); i ++) {
+            Ghost ghost = ghosts.get(i);
+            int dx = ghost.getX() - this.ghostX[i];
+            int dy = ghost.getY() - this.ghostY[i];
+            int state = ghost.getState().ordinal();
+            int fields = ((dx != 0) ? GHOST_X : 0) | ((dy != 0) ? GHOST_Y : 0)
+                    | ((state != this.ghostState[i]) ? GHOST_STATE : 0);
+            if (fields == 0) {
+                continue;
+            }
+            StateEncoder.putVarint(out, (i << 3) | fields);
+            if (dx != 0) {
+                StateEncoder.putZigzag(out, dx);
+            }
+            if (dy != 0) {
+                StateEncoder.putZigzag(out, dy);
+            }
+            if (state != this.ghostState[i]) {
+                out.put((byte) state);
+            }
+        }
+    }
+
+    private void writeGhostList(ByteBuffer out) {
+
+        StateEncoder.putVarint(out, this.ghostCount);
+        for (int i = 0; i < this.ghostCount; i ++) {
+            StateEncoder.putZigzag(out, this.ghostX[i]);
+            StateEncoder.putZigzag(out, this.ghostY[i]);
+            out.put(this.ghostState[i]);
+        }
+    }
+
+    /**
+     * Stores the current state of the game as the state the client knows. The Fruits are only
+     * copied once some have been eaten, as copying makes the game copy them again on its next
+     * meal.
+     */
+    private void remember(GameManager game, List<Ghost> ghosts) {
+
+        this.ended = !game.isRunning();
+        this.tick = game.getTicks();
+        this.lives = game.getPlayerLives();
+        this.playerX = game.getPlayer().getX();
+        this.playerY = game.getPlayer().getY();
+        FruitStore fruits = game.getFruits();
+        if ((this.fruits == null) || (this.fruits.getRemaining() != fruits.getRemaining())) {
+            this.fruits = fruits.copy();
+        }
+
+        this.ghostCount = ghosts.size();
+        for (int i = 0; i < this.ghostCount; i ++) {
+            Ghost ghost = ghosts.get(i);
+            this.ghostX[i] = ghost.getX();
+            this.ghostY[i] = ghost.getY();
+            this.ghostState[i] = (byte) ghost.getState().ordinal();
+        }
+    }
+
+    private static void putGaps(ByteBuffer out, int[] tiles, int count) {
+
+        int last = 0;
+        for (int i = 0; i < count; i ++) {
+            StateEncoder.putVarint(out, tiles[i] - last);
+            last = tiles[i];
+        }
+    }
+
+    /**
+     * Writes an unsigned varint: seven bits per byte, least significant first, with the top bit
+     * set on every byte but the last.
+     *
+     * @param out
+     * @param value the value, treated as unsigned.
+     */
+    public static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Writes a signed value as a varint, mapping small negative values to small unsigned ones.
+     *
+     * @param out
+     * @param value the value.
+     */
+    public static void putZigzag(ByteBuffer out, int value) {
+        StateEncoder.putVarint(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int varintSize(int value) {
+
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size ++;
+        }
+        return size;
+    }
+}
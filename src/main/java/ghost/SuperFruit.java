@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
  * SuperFruit class defines a subclass of Edible items. SuperFruit objects have the ability
@@ -11,13 +10,20 @@ import processing.core.PImage;
 public class SuperFruit extends Edible {
     
     /**
-     * Creates an instance of SuperFruit, given an x and y position, and an application.
+     * Creates an instance of SuperFruit, given an x and y position.
      * @param x
      * @param y
-     * @param app
      */
-    public SuperFruit(int x, int y, PApplet app) {
+    public SuperFruit(int x, int y) {
         super(x, y);
-        this.sprite = app.loadImage("src/main/resources/superFruit.png");
     }
-}
\ No newline at end of file
+
+    /**
+     * Loads the SuperFruit sprite.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {
+        this.sprite = Assets.getImage(app, "superFruit.png");
+    }
+}
\ No newline at end of file
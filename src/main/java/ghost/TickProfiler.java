@@ -0,0 +1,205 @@
+package ghost;
+
+import java.util.*;
+
+import processing.core.PApplet;
+
+/**
+ * Phase enumeration defines the parts of a game tick, and drawing, that are timed separately.
+ */
+enum Phase {
+    COLLISION("collision"),
+    PLAYER("player"),
+    FRUIT("fruit"),
+    TARGETING("targeting"),
+    STEERING("steering"),
+    MOVEMENT("movement"),
+    DRAW("draw");
+
+    private String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+}
+
+/**
+ * TickProfiler class times each phase of every tick, and drawing, and keeps the timings of the
+ * most recent ticks in rolling histograms, along with the number of Wall collision checks made
+ * per tick. Timing only takes place while the profiler is enabled, so the game runs at full speed
+ * otherwise. The percentiles are shown in an overlay in debug mode.
+ *
+ * Phases that are run once per Ghost are timed for each Ghost and summed over the tick.
+ */
+public class TickProfiler {
+
+    /**
+     * The number of most recent ticks, or frames, the percentiles are taken over.
+     */
+    public static final int WINDOW = 600;
+
+    /**
+     * The screen position and size of the overlay.
+     */
+    public static final int OVERLAY_X = 4;
+    public static final int OVERLAY_Y = 4;
+    public static final int OVERLAY_WIDTH = 200;
+    public static final int OVERLAY_HEIGHT = 12 * (Phase.values().length + 2) + 4;
+
+    private static final int LINE_HEIGHT = 12;
+
+    private boolean enabled;
+    private RollingHistogram[] timings;
+    private RollingHistogram wallChecks;
+
+    /**
+     * Stores the time spent in each phase during the current tick, in nanoseconds.
+     */
+    private long[] pending;
+
+    /**
+     * Creates a disabled instance of TickProfiler.
+     */
+    public TickProfiler() {
+
+        this.enabled = false;
+        this.timings = new RollingHistogram[Phase.values().length];
+        for (int i = 0; i < this.timings.length; i ++) {
+            this.timings[i] = new RollingHistogram(WINDOW);
+        }
+        this.wallChecks = new RollingHistogram(WINDOW);
+        this.pending = new long[this.timings.length];
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Starts or stops timing. Timings of the current tick are discarded when timing stops.
+     *
+     * @param enabled whether to time ticks and drawing.
+     */
+    public void setEnabled(boolean enabled) {
+
+        this.enabled = enabled;
+        Arrays.fill(this.pending, 0);
+    }
+
+    /**
+     * Returns the current time to start timing a phase from.
+     *
+     * @return the current time in nanoseconds, or 0 if the profiler is disabled.
+     */
+    public long start() {
+
+        if (!this.enabled) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Adds the time since the given start to a phase of the current tick, and returns the current
+     * time to time the next phase from.
+     *
+     * @param phase the phase that has just finished.
+     * @param start the time the phase started, as returned by start or lap.
+     * @return the current time in nanoseconds, or 0 if the profiler is disabled.
+     */
+    public long lap(Phase phase, long start) {
+
+        if (!this.enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        this.pending[phase.ordinal()] += now - start;
+        return now;
+    }
+
+    /**
+     * Records the timings of the phases of the tick that has just finished, and the number of Wall
+     * collision checks made during it.
+     *
+     * @param wallChecks the number of Wall collision checks made during the tick.
+     */
+    public void endTick(long wallChecks) {
+
+        if (!this.enabled) {
+            return;
+        }
+        for (Phase phase : Phase.values()) {
+            if (phase != Phase.DRAW) {
+                this.timings[phase.ordinal()].add(this.pending[phase.ordinal()]);
+                this.pending[phase.ordinal()] = 0;
+            }
+        }
+        this.wallChecks.add(wallChecks);
+    }
+
+    /**
+     * Records the time taken to draw a frame.
+     *
+     * @param start the time drawing started, as returned by start.
+     */
+    public void endDraw(long start) {
+
+        if (this.enabled) {
+            this.timings[Phase.DRAW.ordinal()].add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the rolling histogram of the timings of a phase, in nanoseconds.
+     *
+     * @param phase
+     * @return the histogram of the phase.
+     */
+    public RollingHistogram getTimings(Phase phase) {
+        return this.timings[phase.ordinal()];
+    }
+
+    /**
+     * Returns the rolling histogram of the number of Wall collision checks per tick.
+     *
+     * @return the histogram of Wall collision checks.
+     */
+    public RollingHistogram getWallChecks() {
+        return this.wallChecks;
+    }
+
+    /**
+     * Draws the median and 99th percentile of each phase in microseconds, and of the Wall
+     * collision checks per tick, in the top left corner of the screen.
+     *
+     * @param app
+     */
+    public void draw(PApplet app) {
+
+        app.pushStyle();
+        app.noStroke();
+        app.fill(0);
+        app.rect(OVERLAY_X, OVERLAY_Y, OVERLAY_WIDTH, OVERLAY_HEIGHT);
+        app.fill(255);
+        app.textAlign(PApplet.LEFT);
+        app.textSize(8);
+
+        int x = OVERLAY_X + 4;
+        int y = OVERLAY_Y + LINE_HEIGHT;
+        app.text(String.format("%-10s%7s%7s", "us", "p50", "p99"), x, y);
+        for (Phase phase : Phase.values()) {
+            RollingHistogram timing = this.timings[phase.ordinal()];
+            y += LINE_HEIGHT;
+            app.text(String.format("%-10s%7.1f%7.1f", phase.getLabel(),
+                    timing.getPercentile(50) / 1000.0, timing.getPercentile(99) / 1000.0), x, y);
+        }
+        y += LINE_HEIGHT;
+        app.text(String.format("%-10s%7d%7d", "walls", this.wallChecks.getPercentile(50),
+                this.wallChecks.getPercentile(99)), x, y);
+        app.popStyle();
+    }
+}
@@ -8,7 +8,7 @@ import processing.core.PImage;
  */
 public class Waka extends Moving {
 
-    private PImage currDirection;
+    private boolean mouthClosed;
     private PImage closedSprite;
     private PImage leftSprite;
     private PImage rightSprite;
@@ -22,48 +22,81 @@ public class Waka extends Moving {
      * @param x starting x position
      * @param y starting y position
      * @param speed movement speed
-     * @param app
      */
-    public Waka(int x, int y, int speed, PApplet app) {
+    public Waka(int x, int y, int speed) {
         
         super(x, y, speed);
-        this.sprite = app.loadImage("src/main/resources/playerLeft.png");
-        this.currDirection = this.sprite;
+        this.mouthClosed = false;
+    }
 
-        this.closedSprite = app.loadImage("src/main/resources/playerClosed.png");
-        this.leftSprite = app.loadImage("src/main/resources/playerLeft.png");
-        this.rightSprite = app.loadImage("src/main/resources/playerRight.png");
-        this.upSprite = app.loadImage("src/main/resources/playerUp.png");
-        this.downSprite = app.loadImage("src/main/resources/playerDown.png");
+    public Waka copy() {
+        return (Waka) super.copy();
     }
 
     /**
-     * Commands Waka movement and sprite logic. If Waka is able to turn, it will turn. If Waka
-     * will not collide with a wall upon further movement, Waka will move. Waka sprite state 
-     * switches every 8 frames.
+     * Loads the open and closed Waka sprites for every direction.
      * 
      * @param app
      */
-    public void tick(PApplet app) {
+    protected void loadSprite(PApplet app) {
 
-        if ((app.frameCount + 4) % 8 == 0) {
-            this.switchSprite();
+        this.closedSprite = Assets.getImage(app, "playerClosed.png");
+        this.leftSprite = Assets.getImage(app, "playerLeft.png");
+        this.rightSprite = Assets.getImage(app, "playerRight.png");
+        this.upSprite = Assets.getImage(app, "playerUp.png");
+        this.downSprite = Assets.getImage(app, "playerDown.png");
+        this.sprite = this.leftSprite;
+    }
+
+    /**
+     * Draws in the Waka sprite matching its current direction and mouth state.
+     * 
+     * @param app
+     * @param alpha the fraction of the next tick that has elapsed, from 0 to 1.
+     */
+    public void draw(PApplet app, float alpha) {
+
+        if (this.sprite == null) {
+            this.loadSprite(app);
         }
-        this.turn();
 
-        if (!this.willCollide) {
-            this.orientation.move(this);
+        if (this.mouthClosed) {
+            this.sprite = this.closedSprite;
+        } else {
+            switch (this.orientation) {
+                case LEFT:
+                    this.sprite = this.leftSprite;
+                    break;
+                case RIGHT:
+                    this.sprite = this.rightSprite;
+                    break;
+                case UP:
+                    this.sprite = this.upSprite;
+                    break;
+                case DOWN:
+                    this.sprite = this.downSprite;
+                    break;
+            }
         }
+        super.draw(app, alpha);
     }
-    
+
     /**
-     * Switches Waka's current sprite between its open and closed states.
+     * Commands Waka movement and sprite logic. If Waka is able to turn, it will turn. If Waka
+     * will not collide with a wall upon further movement, Waka will move. Waka sprite state 
+     * switches every 8 frames at 60 frames per second, whatever the tick rate.
+     * 
+     * @param frame the number of the current game tick.
      */
-    public void switchSprite() {
-        if (this.sprite == this.closedSprite) {
-            this.sprite = this.currDirection;
-        } else {
-            this.sprite = this.closedSprite;
+    public void tick(int frame) {
+
+        this.storeLastPosition();
+        int animationFrame = (int) ((long) frame * Settings.DEFAULT_TICK_RATE / this.tickRate);
+        this.mouthClosed = ((animationFrame + 4) / 8) % 2 == 1;
+        this.turn();
+
+        if (!this.willCollide) {
+            this.move();
         }
     }
 
@@ -75,25 +108,9 @@ public class Waka extends Moving {
         if (this.canTurn) {
             if (this.nextMove != null) {
                 this.orientation = this.nextMove;
-                
-                // Switches Waka sprites according to its new orientation.
-                switch (this.orientation) {
-                    case LEFT:
-                        this.currDirection = this.leftSprite;
-                        break;
-                    case RIGHT:
-                        this.currDirection = this.rightSprite;
-                        break;
-                    case UP:
-                        this.currDirection = this.upSprite;
-                        break;
-                    case DOWN:
-                        this.currDirection = this.downSprite;
-                        break;
-                }
                 this.nextMove = null;
             }
         }
         
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -53,49 +53,42 @@ public class Wall extends Fixed {
      * @param x Wall x position
      * @param y Wall y position
      * @param character character corresponding to WallType
-     * @param app
      */
-    public Wall(int x, int y, char character, PApplet app) {
+    public Wall(int x, int y, char character) {
 
         super(x, y);
-        this.sprite = app.loadImage("src/main/resources/horizontal.png");
-        this.setSprite(character, app);
+
+        // Sets Wall orientation according to its character representation.
+        this.orientation = WallType.HORIZONTAL.charToWall(character);
     }
 
     /**
-     * Sets Wall object's WallType sprite and orientation according to the
-     * character representation
+     * Sets Wall object's sprite according to its WallType orientation.
      * 
-     * @param character character corresponding to a WallType.
      * @param app
      */
-    private void setSprite(char character, PApplet app) {
+    protected void loadSprite(PApplet app) {
         
-        // Sets WallType to Horizontal and sprite to null by default.
-        this.orientation = WallType.HORIZONTAL;
         PImage sprite = null;
-        
-        // Sets Wall orientation according to its character representation.
-        this.orientation = this.orientation.charToWall(character);
 
         switch (this.orientation) {
             case HORIZONTAL:
-                sprite = app.loadImage("src/main/resources/horizontal.png");
+                sprite = Assets.getImage(app, "horizontal.png");
                 break;
             case VERTICAL:
-                sprite = app.loadImage("src/main/resources/vertical.png");
+                sprite = Assets.getImage(app, "vertical.png");
                 break;
             case UPLEFT:
-                sprite = app.loadImage("src/main/resources/upLeft.png");
+                sprite = Assets.getImage(app, "upLeft.png");
                 break;
             case UPRIGHT:
-                sprite = app.loadImage("src/main/resources/upRight.png");
+                sprite = Assets.getImage(app, "upRight.png");
                 break;
             case DOWNLEFT:
-                sprite = app.loadImage("src/main/resources/downLeft.png");
+                sprite = Assets.getImage(app, "downLeft.png");
                 break;
             case DOWNRIGHT:
-                sprite = app.loadImage("src/main/resources/downRight.png");
+                sprite = Assets.getImage(app, "downRight.png");
                 break;
         }
         this.sprite = sprite;
@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
  * Whim Class represents the Whim type Ghost.
@@ -14,15 +13,22 @@ public class Whim extends Ghost {
      * @param x Whim starting x position
      * @param y Whim starting y position
      * @param speed Whim movement speed
-     * @param app
      */
-    public Whim(int x, int y, int speed, PApplet app) {
+    public Whim(int x, int y, int speed) {
         
-        super(x, y, speed, app);
-        this.sprite = app.loadImage("src/main/resources/whim.png");
-        this.normalSprite = this.sprite;
+        super(x, y, speed);
         this.orientation = State.RIGHT;
     }
+
+    /**
+     * Loads the Whim and frightened sprites.
+     * 
+     * @param app
+     */
+    protected void loadSprite(PApplet app) {
+        super.loadSprite(app);
+        this.normalSprite = Assets.getImage(app, "whim.png");
+    }
     
     /**
      * In Scatter mode, Whim targets bottom right corner of the Map. In Chase mode, Whim
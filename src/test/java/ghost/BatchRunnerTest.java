@@ -0,0 +1,43 @@
+package ghost;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTest {
+
+    /**
+     * Runs a small batch steered by the given pilot and returns the lines of its CSV file.
+     */
+    private static List<String> run(String pilot, String threads) throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        File output = File.createTempFile("batch", ".csv");
+        output.deleteOnExit();
+
+        BatchRunner runner = new BatchRunner(settings);
+        runner.parseArguments(new String[] {"--runs", "3", "--seed", "7", "--max-ticks", "900",
+                "--lives", "1,3", "--pilot", pilot, "--budget", "20", "--threads", threads,
+                "--out", output.getPath()});
+        runner.run();
+        return Files.readAllLines(output.toPath());
+    }
+
+    @Test
+    public void sameSeedWritesSameResults() throws Exception {
+        List<String> lines = BatchRunnerTest.run("mcts", "2");
+        assertEquals(7, lines.size());
+        assertEquals(lines, BatchRunnerTest.run("mcts", "1"));
+        assertEquals(BatchRunnerTest.run("greedy", "2"), BatchRunnerTest.run("greedy", "1"));
+    }
+
+    @Test
+    public void budgetMustBePositive() {
+        BatchRunner runner = new BatchRunner(new Settings());
+        assertThrows(IllegalArgumentException.class,
+                () -> runner.parseArguments(new String[] {"--budget", "0"}));
+    }
+}
@@ -0,0 +1,35 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CameraTest {
+    @Test
+    public void smallMapStaysInPlace() throws Exception {
+        Map map = new Map("map.txt");
+        Camera camera = new Camera(448, 576);
+        camera.follow(400, 500, map);
+
+        assertEquals(0, camera.getX());
+        assertEquals(0, camera.getY());
+        assertEquals(0, camera.getFirstCol());
+        assertEquals(27, camera.getLastCol());
+        assertEquals(35, camera.getLastRow());
+    }
+
+    @Test
+    public void followWithinMap() throws Exception {
+        Map map = new Map("map.txt");
+        Camera camera = new Camera(160, 160);
+
+        camera.follow(200, 300, map);
+        assertEquals(120, camera.getX());
+        assertEquals(220, camera.getY());
+        assertEquals(7, camera.getFirstCol());
+        assertEquals(17, camera.getLastCol());
+
+        camera.follow(0, 10000, map);
+        assertEquals(0, camera.getX());
+        assertEquals(36 * 16 - 160, camera.getY());
+    }
+}
@@ -0,0 +1,79 @@
+package ghost;
+
+import java.nio.file.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigWatcherTest {
+    private static void writeConfig(Path config, Path map, int lives) throws Exception {
+        ConfigWatcherTest.writeConfig(config, map, lives, "[7, 20]");
+    }
+
+    private static void writeConfig(Path config, Path map, int lives, String modeLengths)
+            throws Exception {
+        String json = "{\"map\": \"" + map.toString().replace("\\", "\\\\") + "\", \"lives\": "
+                + lives + ", \"speed\": 1, \"frightenedLength\": 7, \"modeLengths\": "
+                + modeLengths + "}";
+        Files.write(config, json.getBytes("UTF-8"));
+    }
+
+    /**
+     * Waits for the watcher to prepare a new game, for at most ten seconds.
+     */
+    private static GameManager await(ConfigWatcher watcher) throws Exception {
+        for (int i = 0; i < 100; i ++) {
+            GameManager game = watcher.poll();
+            if (game != null) {
+                return game;
+            }
+            Thread.sleep(100);
+        }
+        return null;
+    }
+
+    @Test
+    public void reloadChangedFiles() throws Exception {
+        Path directory = Files.createTempDirectory("config");
+        Path config = directory.resolve("config.json");
+        Path map = directory.resolve("map.txt");
+        Files.copy(Paths.get("map.txt"), map);
+        ConfigWatcherTest.writeConfig(config, map, 3);
+
+        try (ConfigWatcher watcher = new ConfigWatcher(config.toString(), map.toString(),
+                settings -> settings.setSeed(9))) {
+            assertNull(watcher.poll());
+
+            ConfigWatcherTest.writeConfig(config, map, 5);
+            GameManager game = ConfigWatcherTest.await(watcher);
+            assertNotNull(game);
+            assertEquals(5, game.getPlayerLives());
+            assertEquals(9, game.getSettings().getSeed());
+
+            // Invalid configurations are ignored.
+            Files.write(config, "{\"map\": ".getBytes("UTF-8"));
+            Thread.sleep(2 * ConfigWatcher.SETTLE_TIME + 500);
+            assertNull(watcher.poll());
+
+            // So are configurations that parse but cannot make a game, without stopping the
+            // watcher.
+            ConfigWatcherTest.writeConfig(config, map, 4, "[]");
+            Thread.sleep(2 * ConfigWatcher.SETTLE_TIME + 500);
+            assertNull(watcher.poll());
+
+            ConfigWatcherTest.writeConfig(config, map, 4);
+            assertNotNull(ConfigWatcherTest.await(watcher));
+
+            // Saving the Map reloads the game as well.
+            Files.write(map, Files.readAllBytes(map));
+            game = ConfigWatcherTest.await(watcher);
+            assertNotNull(game);
+            assertEquals(4, game.getPlayerLives());
+
+        } finally {
+            Files.deleteIfExists(config);
+            Files.deleteIfExists(map);
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirtyRegionsTest {
+    @Test
+    public void mergeNearbyRegions() {
+        DirtyRegions regions = new DirtyRegions();
+        regions.add(0, 0, 16, 16);
+        regions.add(100, 100, 16, 16);
+        assertEquals(2, regions.size());
+
+        // Close enough to the first region to be merged with it.
+        regions.add(20, 0, 16, 16);
+        assertEquals(2, regions.size());
+        assertEquals(36 * 16 + 16 * 16, regions.getArea());
+
+        // Joins both regions into one.
+        regions.add(10, 10, 100, 100);
+        assertEquals(1, regions.size());
+        assertEquals(0, regions.getX(0));
+        assertEquals(116, regions.getWidth(0));
+        assertTrue(regions.intersects(0, 50, 50, 1, 1));
+        assertFalse(regions.intersects(0, 116, 0, 16, 16));
+
+        regions.clear();
+        regions.add(0, 0, 0, 16);
+        assertEquals(0, regions.size());
+    }
+}
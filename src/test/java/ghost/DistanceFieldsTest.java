@@ -0,0 +1,123 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistanceFieldsTest {
+    @Test
+    public void walkingDistances() throws Exception {
+        Map map = new Map("map.txt");
+        DistanceFields distances = new DistanceFields(map, DistanceFields.DEFAULT_CAPACITY);
+        char[] field = distances.getField(1 * 16, 4 * 16);
+
+        assertEquals(0, distances.getDistance(field, 4, 1));
+        assertEquals(1, distances.getDistance(field, 4, 2));
+        assertEquals(4, distances.getDistance(field, 4, 5));
+        assertEquals(DistanceFields.UNREACHABLE, distances.getDistance(field, 3, 1));
+        assertEquals(DistanceFields.UNREACHABLE, distances.getDistance(field, 0, 0));
+        assertEquals(DistanceFields.UNREACHABLE, distances.getDistance(field, -1, 0));
+    }
+
+    @Test
+    public void wallTargetsMoveToPlayfield() throws Exception {
+        Map map = new Map("map.txt");
+        DistanceFields distances = new DistanceFields(map, DistanceFields.DEFAULT_CAPACITY);
+
+        assertArrayEquals(distances.getField(1 * 16, 4 * 16), distances.getField(1 * 16, 3 * 16));
+    }
+
+    @Test
+    public void leastRecentlyUsedFieldsEvicted() throws Exception {
+        Map map = new Map("map.txt");
+        DistanceFields distances = new DistanceFields(map, 2);
+        char[] first = distances.getField(1 * 16, 4 * 16);
+        distances.getField(2 * 16, 4 * 16);
+        distances.getField(1 * 16, 4 * 16);
+        distances.getField(3 * 16, 4 * 16);
+
+        assertEquals(2, distances.size());
+        assertSame(first, distances.getField(1 * 16, 4 * 16));
+    }
+
+    @Test
+    public void newTargetsFindFields() throws Exception {
+        Map map = new Map("map.txt");
+        DistanceFields distances = new DistanceFields(map, DistanceFields.DEFAULT_CAPACITY);
+        int builds = distances.getBuildCount();
+
+        char[] field = distances.findField(1 * 16, 4 * 16);
+        assertArrayEquals(distances.getField(1 * 16, 4 * 16), field);
+        assertSame(field, distances.findField(1 * 16, 4 * 16));
+        assertEquals(builds + 1, distances.getBuildCount());
+    }
+
+    @Test
+    public void newFieldsLimitedPerTick() throws Exception {
+        Map map = new Map("map.txt");
+        DistanceFields distances = new DistanceFields(map, DistanceFields.DEFAULT_CAPACITY);
+        int limit = DistanceFields.NEW_FIELDS_PER_TICK;
+        for (int col = 1; col <= limit; col ++) {
+            assertNotNull(distances.findField(col * 16, 4 * 16));
+        }
+        assertNull(distances.findField((limit + 1) * 16, 4 * 16));
+
+        // Recent targets keep their fields, and forks keep the targets of the game.
+        assertNotNull(distances.findField(1 * 16, 4 * 16));
+        DistanceFields fork = distances.fork();
+        assertNotNull(fork.findField(2 * 16, 4 * 16));
+        assertNull(fork.findField((limit + 1) * 16, 4 * 16));
+        distances.startTick();
+        assertNotNull(distances.findField((limit + 1) * 16, 4 * 16));
+        assertNull(fork.findField((limit + 1) * 16, 4 * 16));
+    }
+
+    @Test
+    public void mazeTargetingChangesMoves() throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        settings.setSeed(5);
+        GameManager euclidean = new GameManager(settings);
+        settings.setMazeTargeting(true);
+        GameManager maze = new GameManager(settings);
+
+        // The games only differ in how Ghosts measure distance, so their moves must part ways.
+        int differentTicks = 0;
+        for (int i = 0; i < 1000 && euclidean.isRunning() && maze.isRunning(); i ++) {
+            euclidean.tick();
+            maze.tick();
+            Ghost expected = euclidean.getGhosts().get(0);
+            Ghost actual = maze.getGhosts().get(0);
+            if ((expected.getX() != actual.getX()) || (expected.getY() != actual.getY())) {
+                differentTicks ++;
+            }
+        }
+        assertTrue(differentTicks > 100);
+    }
+
+    @Test
+    public void frightenedGhostsBuildNoFields() throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        settings.setMazeTargeting(true);
+        GameManager game = new GameManager(settings);
+        DistanceFields distances = game.getGhosts().get(0).distances;
+
+        for (Ghost ghost : game.getGhosts()) {
+            ghost.frightenGhost();
+        }
+        int builds = distances.getBuildCount();
+        for (int i = 0; i < 5 * settings.getTickRate(); i ++) {
+            game.tick();
+            for (Ghost ghost : game.getGhosts()) {
+                assertEquals(GhostState.FRIGHTENED, ghost.getState());
+            }
+        }
+        assertEquals(builds, distances.getBuildCount());
+
+        // Once they stop being frightened, Ghosts steer by fields again.
+        for (int i = 0; i < 5 * settings.getTickRate(); i ++) {
+            game.tick();
+        }
+        assertTrue(distances.getBuildCount() > builds);
+    }
+}
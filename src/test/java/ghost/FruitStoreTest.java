@@ -0,0 +1,87 @@
+package ghost;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FruitStoreTest {
+    private static FruitStore newStore() throws Exception {
+        return new FruitStore(new Map(TestGames.write("111111\n1p7801\n170781\n111111\n")));
+    }
+
+    @Test
+    public void loadFruitsFromMap() throws Exception {
+        FruitStore store = FruitStoreTest.newStore();
+
+        assertEquals(5, store.getRemaining());
+        assertTrue(store.hasFruit(1, 2));
+        assertFalse(store.hasSuperFruit(1, 2));
+        assertTrue(store.hasFruit(1, 3));
+        assertTrue(store.hasSuperFruit(1, 3));
+        assertFalse(store.hasFruit(1, 1));
+        assertFalse(store.hasFruit(5, 5));
+        assertFalse(store.hasFruit(-1, 2));
+
+        int[] tiles = new int[5];
+        assertEquals(5, store.getTiles(tiles));
+        assertArrayEquals(new int[] {8, 9, 13, 15, 16}, tiles);
+    }
+
+    @Test
+    public void eatFruits() throws Exception {
+        FruitStore store = FruitStoreTest.newStore();
+        FruitStore copy = store.copy();
+
+        assertTrue(store.eat(1, 3));
+        assertFalse(store.eat(1, 3));
+        assertFalse(store.hasSuperFruit(1, 3));
+        assertEquals(4, store.getRemaining());
+
+        // Copies keep their Fruits when the store they were taken from eats one.
+        assertTrue(copy.hasSuperFruit(1, 3));
+        assertEquals(5, copy.getRemaining());
+    }
+
+    @Test
+    public void findEatenTiles() throws Exception {
+        FruitStore store = FruitStoreTest.newStore();
+        FruitStore start = store.copy();
+        store.eat(1, 3);
+        FruitStore later = store.copy();
+
+        int[] tiles = new int[5];
+        assertEquals(0, store.eatenSince(later, tiles));
+        store.eat(2, 4);
+        store.eat(1, 2);
+        assertEquals(2, store.eatenSince(later, tiles));
+        assertEquals(8, tiles[0]);
+        assertEquals(16, tiles[1]);
+        assertEquals(3, store.eatenSince(start, tiles));
+        assertArrayEquals(new int[] {8, 9, 16}, Arrays.copyOf(tiles, 3));
+
+        assertEquals(2, store.getTiles(tiles));
+        assertEquals(13, tiles[0]);
+        assertEquals(15, tiles[1]);
+    }
+
+    @Test
+    public void eatFruitOnTileEdge() throws Exception {
+        Settings settings = TestGames.settings();
+        settings.setMapName(TestGames.write("11111\n1p771\n11111\n"));
+        settings.setSpeed(1);
+        GameManager game = new GameManager(settings);
+        game.setPlayerMove(State.RIGHT);
+
+        // The Fruit is eaten once the Waka's centre reaches the edge of its tile, not before.
+        int size = GameObject.SPRITE_SIZE;
+        int edge = 2 * size;
+        while (game.getPlayer().getX() + size / 2 < edge) {
+            assertTrue(game.getFruits().hasFruit(1, 2));
+            game.tick();
+        }
+        assertEquals(edge, game.getPlayer().getX() + size / 2);
+        assertFalse(game.getFruits().hasFruit(1, 2));
+        assertTrue(game.getFruits().hasFruit(1, 3));
+    }
+}
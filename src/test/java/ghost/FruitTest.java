@@ -6,8 +6,7 @@ import static org.junit.jupiter.api.Assertions.*;
 public class FruitTest {
     @Test
     public void createFruit() {
-        App app = new App();
-        Fruit fruitObject = new Fruit(0, 0, app);
+        Fruit fruitObject = new Fruit(0, 0);
         assertNotNull(fruitObject);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package ghost;
+
+import java.nio.file.*;
+import java.util.*;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEventsTest {
+    /**
+     * Records the events of a game played for the given number of ticks and then reset, or of a
+     * fork of it stepped in the same way.
+     */
+    private static List<RecordedEvent> record(boolean swarm, int ticks, boolean forked)
+            throws Exception {
+        Path file = Files.createTempFile("game", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ghost.Tick");
+            recording.enable("ghost.MapLoad");
+            recording.enable("ghost.GhostModeSwitch");
+            recording.enable("ghost.GameReset");
+            recording.start();
+
+            Settings settings = new Settings();
+            settings.parseConfigFile("config.json");
+            settings.setSeed(3);
+            settings.setGhostSwarm(swarm);
+            GameManager game = new GameManager(settings);
+            if (forked) {
+                game = game.fork();
+            }
+            for (int i = 0; i < ticks; i ++) {
+                if (forked) {
+                    game.step();
+                } else {
+                    game.tick();
+                }
+            }
+            game.resetGame();
+
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Returns the events of the given type, in the order they were committed.
+     */
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> found = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                found.add(event);
+            }
+        }
+        found.sort(Comparator.comparing(RecordedEvent::getEndTime));
+        return found;
+    }
+
+    @Test
+    public void recordGameLoop() throws Exception {
+        for (boolean swarm : new boolean[] {false, true}) {
+            List<RecordedEvent> events = GameEventsTest.record(swarm, 1000, false);
+
+            List<RecordedEvent> ticks = GameEventsTest.named(events, "ghost.Tick");
+            assertEquals(1000, ticks.size());
+            RecordedEvent last = ticks.get(ticks.size() - 1);
+            assertEquals(swarm, last.getBoolean("swarm"));
+            assertTrue(last.getInt("ghosts") > 0);
+            assertTrue(last.getInt("fruits") > 0);
+            assertTrue(last.getLong("wallChecks") > 0);
+
+            List<RecordedEvent> loads = GameEventsTest.named(events, "ghost.MapLoad");
+            assertEquals(1, loads.size());
+            assertTrue(loads.get(0).getInt("rows") > 0);
+
+            // Every Ghost leaves Scatter mode once its first mode is over.
+            List<RecordedEvent> switches = GameEventsTest.named(events, "ghost.GhostModeSwitch");
+            assertTrue(switches.size() >= last.getInt("ghosts"));
+            assertEquals("SCATTER", switches.get(0).getString("from"));
+            assertEquals("CHASE", switches.get(0).getString("to"));
+
+            // The Waka may lose lives before the game is reset at the end.
+            List<RecordedEvent> resets = GameEventsTest.named(events, "ghost.GameReset");
+            assertEquals(1000, resets.get(resets.size() - 1).getInt("tick"));
+        }
+    }
+
+    @Test
+    public void forksCommitNoEvents() throws Exception {
+        for (boolean swarm : new boolean[] {false, true}) {
+            List<RecordedEvent> events = GameEventsTest.record(swarm, 1000, true);
+
+            assertEquals(1, GameEventsTest.named(events, "ghost.MapLoad").size());
+            assertTrue(GameEventsTest.named(events, "ghost.Tick").isEmpty());
+            assertTrue(GameEventsTest.named(events, "ghost.GhostModeSwitch").isEmpty());
+            assertTrue(GameEventsTest.named(events, "ghost.GameReset").isEmpty());
+        }
+    }
+}
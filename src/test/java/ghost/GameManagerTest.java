@@ -0,0 +1,137 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameManagerTest {
+    @Test
+    public void tickWithoutApp() throws Exception {
+        GameManager game = new GameManager(TestGames.settings());
+
+        for (int i = 0; i < 1000 && game.isRunning(); i ++) {
+            game.tick();
+        }
+        assertTrue(game.getTicks() > 0);
+    }
+
+    @Test
+    public void sameSeedSameGame() throws Exception {
+        GameManager first = TestGames.newGame(7);
+        GameManager second = TestGames.newGame(7);
+
+        int[] keys = {37, 38, 39, 40};
+        for (int i = 0; i < 5000 && first.isRunning(); i ++) {
+            if (i % 40 == 0) {
+                first.keyCommands(keys[(i / 40) % 4]);
+                second.keyCommands(keys[(i / 40) % 4]);
+            }
+            first.tick();
+            second.tick();
+        }
+        assertEquals(first.isRunning(), second.isRunning());
+        assertEquals(first.getTicks(), second.getTicks());
+    }
+
+    @Test
+    public void queuedInputPlaysLikeKeyCommands() throws Exception {
+        GameManager direct = TestGames.newGame(7);
+        GameManager queued = TestGames.newGame(7);
+        InputQueue input = new InputQueue();
+        queued.setInput(input);
+
+        int[] keys = {37, 38, 39, 40};
+        for (int i = 0; i < 3000 && direct.isRunning(); i ++) {
+            if (i % 40 == 0) {
+                direct.keyCommands(keys[(i / 40) % 4]);
+                input.offer(keys[(i / 40) % 4], System.nanoTime());
+            }
+            direct.tick();
+            queued.tick();
+            assertEquals(direct.getPlayer().getX(), queued.getPlayer().getX());
+            assertEquals(direct.getPlayer().getY(), queued.getPlayer().getY());
+        }
+        assertTrue(queued.hasPlayerInput());
+    }
+
+    @Test
+    public void takeOneMovePerTick() throws Exception {
+        GameManager game = new GameManager(TestGames.settings());
+        InputQueue input = new InputQueue();
+        game.setInput(input);
+        assertFalse(game.hasPlayerInput());
+
+        // Both turns pressed between two ticks are kept, along with the key between them.
+        input.offer(38, 0);
+        input.offer(32, 0);
+        input.offer(40, 0);
+        game.tick();
+        assertEquals(1, input.size());
+        assertTrue(game.hasPlayerInput());
+        assertTrue(game.getProfiler().isEnabled());
+        Waka player = game.getPlayer();
+        assertTrue((player.getNextMove() == State.UP) || (player.getOrientation() == State.UP));
+        game.tick();
+        assertEquals(0, input.size());
+        assertTrue((player.getNextMove() == State.DOWN) 
+                || (player.getOrientation() == State.DOWN));
+
+        game.restart();
+        assertFalse(game.hasPlayerInput());
+    }
+
+    @Test
+    public void eatEveryCollidingGhost() throws Exception {
+        Settings settings = TestGames.settings();
+        GameManager game = new GameManager(settings);
+
+        // Moves every Ghost onto the Waka, and frightens them.
+        Waka player = game.getPlayer();
+        for (Ghost ghost : game.getGhosts()) {
+            ghost.xStart = player.getX();
+            ghost.yStart = player.getY();
+        }
+        game.resetGame();
+        for (Ghost ghost : game.getGhosts()) {
+            ghost.frightenGhost();
+        }
+
+        game.playerGhostCollision();
+        assertTrue(game.getGhosts().isEmpty());
+        assertEquals(settings.getPlayerLives(), game.getPlayerLives());
+    }
+
+    /**
+     * Plays a game with fixed inputs, and returns the positions of the Waka and every Ghost,
+     * the lives and the Fruits remaining after each tick.
+     */
+    private static String play(GameManager game) {
+        StringBuilder trace = new StringBuilder();
+        int[] keys = {37, 38, 39, 40};
+        for (int i = 0; i < 3000 && game.isRunning(); i ++) {
+            if (i % 40 == 0) {
+                game.keyCommands(keys[(i / 40) % 4]);
+            }
+            game.tick();
+            trace.append(game.getPlayer().getX()).append(',').append(game.getPlayer().getY());
+            for (Ghost ghost : game.getGhosts()) {
+                trace.append(';').append(ghost.getX()).append(',').append(ghost.getY());
+                trace.append(ghost.getState());
+            }
+            trace.append(';').append(game.getPlayerLives());
+            trace.append(';').append(game.getFruits().getRemaining()).append('\n');
+        }
+        return trace.toString();
+    }
+
+    @Test
+    public void restartPlaysLikeNewGame() throws Exception {
+        for (boolean swarm : new boolean[] {false, true}) {
+            String expected = GameManagerTest.play(TestGames.newGame(11, swarm));
+            GameManager game = TestGames.newGame(11, swarm);
+            GameManagerTest.play(game);
+            game.restart();
+            assertEquals(0, game.getTicks());
+            assertEquals(expected, GameManagerTest.play(game));
+        }
+    }
+}
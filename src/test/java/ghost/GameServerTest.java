@@ -0,0 +1,107 @@
+package ghost;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServerTest {
+
+    /**
+     * Reads frames until the game has reached the given tick.
+     */
+    private static void follow(SocketChannel channel, StateDecoder decoder, ByteBuffer in,
+            int ticks) throws Exception {
+        while (!decoder.isStarted() || (decoder.getTicks() < ticks)) {
+            assertTrue(channel.read(in) >= 0);
+            in.flip();
+            while (decoder.decode(in)) {
+                continue;
+            }
+            in.compact();
+        }
+    }
+
+    /**
+     * Sends a move, gives the Waka time to reach a tile it can turn on, and returns how far it
+     * moved along x over the following ticks.
+     */
+    private static int moveX(SocketChannel channel, StateDecoder decoder, ByteBuffer in,
+            State move) throws Exception {
+        channel.write(ByteBuffer.wrap(new byte[] {(byte) move.ordinal()}));
+        int turned = decoder.getTicks() + 2 * GameObject.SPRITE_SIZE;
+        GameServerTest.follow(channel, decoder, in, turned);
+        int x = decoder.getPlayerX();
+        int y = decoder.getPlayerY();
+        GameServerTest.follow(channel, decoder, in, decoder.getTicks() + 8);
+        assertEquals(y, decoder.getPlayerY());
+        return decoder.getPlayerX() - x;
+    }
+
+    @Test
+    public void sessionsPlayOwnGames() throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        settings.setSeed(3);
+        GameManager game = new GameManager(settings);
+
+        try (GameServer server = new GameServer(settings, 0, 2)) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+            try (SocketChannel first = SocketChannel.open(address);
+                    SocketChannel second = SocketChannel.open(address)) {
+                StateDecoder firstGame = new StateDecoder();
+                StateDecoder secondGame = new StateDecoder();
+                ByteBuffer in = ByteBuffer.allocate(1 << 16);
+
+                GameServerTest.follow(first, firstGame, in, 1);
+                assertEquals(game.getMap().getRows(), firstGame.getRows());
+                assertEquals(game.getMap().getCols(), firstGame.getCols());
+                assertEquals(game.getGhostCount(), firstGame.getGhostCount());
+                assertEquals(game.getFruits().getRemaining(), firstGame.getFruitCount());
+                assertEquals(settings.getPlayerLives(), firstGame.getPlayerLives());
+                assertTrue(firstGame.isRunning());
+
+                // The Waka starts in a corridor, so it moves whichever way it is turned.
+                assertTrue(GameServerTest.moveX(first, firstGame, in, State.LEFT) < 0);
+                assertTrue(GameServerTest.moveX(first, firstGame, in, State.RIGHT) > 0);
+                assertTrue(GameServerTest.moveX(first, firstGame, in, State.LEFT) < 0);
+
+                in.clear();
+                GameServerTest.follow(second, secondGame, in, 30);
+                assertEquals(2, server.getSessionCount());
+            }
+        }
+    }
+
+    @Test
+    public void invalidInputClosesSession() throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+
+        try (GameServer server = new GameServer(settings, 0, 1)) {
+            server.start();
+            try (SocketChannel channel = SocketChannel.open(
+                    new InetSocketAddress("localhost", server.getPort()))) {
+                channel.write(ByteBuffer.wrap(new byte[] {9}));
+
+                // Frames written before the bad byte was read may still arrive first.
+                ByteBuffer in = ByteBuffer.allocate(1 << 16);
+                int read = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                    int bytes;
+                    while ((bytes = channel.read(in)) > 0) {
+                        in.clear();
+                    }
+                    return bytes;
+                });
+                assertEquals(-1, read);
+            }
+            while (server.getSessionCount() > 0) {
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateTest {
+    private static final State[] MOVES = {State.LEFT, State.UP, State.RIGHT, State.DOWN};
+
+    /**
+     * Returns the input given before the tick after the given one, in every game of these tests.
+     */
+    private static State input(int ticks) {
+        return (ticks % 40 == 0) ? MOVES[(ticks / 40) % MOVES.length] : null;
+    }
+
+    private static void describe(StringBuilder trace, Waka player, Iterable<Ghost> ghosts,
+            int lives, int fruits) {
+        trace.append(player.getX()).append(',').append(player.getY());
+        for (Ghost ghost : ghosts) {
+            trace.append(';').append(ghost.getX()).append(',').append(ghost.getY());
+            trace.append(ghost.getState());
+        }
+        trace.append(';').append(lives).append(';').append(fruits).append('\n');
+    }
+
+    private static String play(GameManager game, int ticks) {
+        StringBuilder trace = new StringBuilder();
+        for (int i = 0; i < ticks && game.isRunning(); i ++) {
+            State input = GameStateTest.input(game.getTicks());
+            if (input != null) {
+                game.setPlayerMove(input);
+            }
+            game.tick();
+            GameStateTest.describe(trace, game.getPlayer(), game.getGhosts(),
+                    game.getPlayerLives(), game.getFruits().getRemaining());
+        }
+        return trace.toString();
+    }
+
+    private static String play(GameState state, int ticks) {
+        StringBuilder trace = new StringBuilder();
+        for (int i = 0; i < ticks && state.isRunning(); i ++) {
+            state.step(GameStateTest.input(state.getTicks()));
+            GameStateTest.describe(trace, state.getPlayer(), state.getGhosts(),
+                    state.getPlayerLives(), state.getFruits().getRemaining());
+        }
+        return trace.toString();
+    }
+
+    @Test
+    public void forkPlaysLikeGame() throws Exception {
+        for (boolean swarm : new boolean[] {false, true}) {
+            GameManager untouched = TestGames.newGame(13, swarm);
+            GameManager game = TestGames.newGame(13, swarm);
+            GameStateTest.play(untouched, 500);
+            GameStateTest.play(game, 500);
+
+            // Playing a snapshot, and a copy of it, leaves the game as it was.
+            GameState state = GameState.of(game);
+            GameState copy = state.copy();
+            String forked = GameStateTest.play(state, 3000);
+            assertEquals(forked, GameStateTest.play(copy, 3000));
+            assertEquals(500, game.getTicks());
+
+            String played = GameStateTest.play(game, 3000);
+            assertEquals(played, GameStateTest.play(untouched, 3000));
+            assertEquals(played, forked);
+        }
+    }
+
+    @Test
+    public void threadCopiesPlayLikeGame() throws Exception {
+        for (boolean swarm : new boolean[] {false, true}) {
+            Settings settings = TestGames.settings(13);
+            settings.setGhostSwarm(swarm);
+            settings.setMazeTargeting(true);
+            GameManager game = new GameManager(settings);
+            GameStateTest.play(game, 500);
+
+            // Copies for other threads play at once, each looking up its own distance fields.
+            GameState state = GameState.of(game);
+            String[] traces = new String[4];
+            Thread[] threads = new Thread[traces.length];
+            for (int i = 0; i < threads.length; i ++) {
+                final int index = i;
+                final GameState copy = state.copyForThread();
+                threads[i] = new Thread(() -> traces[index] = GameStateTest.play(copy, 3000));
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            String played = GameStateTest.play(game, 3000);
+            for (String trace : traces) {
+                assertEquals(played, trace);
+            }
+        }
+    }
+
+    @Test
+    public void copyFruitsOnWrite() throws Exception {
+        GameManager game = TestGames.newGame(13, false);
+        int fruits = game.getFruits().getRemaining();
+        GameState state = GameState.of(game);
+        GameState copy = state.copy();
+
+        for (int i = 0; i < 200; i ++) {
+            copy.step(State.LEFT);
+        }
+        assertTrue(copy.getFruits().getRemaining() < fruits);
+        assertEquals(fruits, state.getFruits().getRemaining());
+        assertEquals(fruits, game.getFruits().getRemaining());
+        assertEquals(0, game.getTicks());
+
+        // Eating Fruits in the game leaves the snapshots as they were.
+        for (int i = 0; i < 200; i ++) {
+            game.setPlayerMove(State.RIGHT);
+            game.tick();
+        }
+        assertTrue(game.getFruits().getRemaining() < fruits);
+        assertEquals(fruits, state.getFruits().getRemaining());
+        assertTrue(state.getFruits().hasFruit(game.getPlayer().getY() / GameObject.SPRITE_SIZE,
+                game.getPlayer().getX() / GameObject.SPRITE_SIZE - 1));
+    }
+}
@@ -0,0 +1,54 @@
+package ghost;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GhostSwarmTest {
+    private static GameManager newGame(boolean swarm, boolean maze) throws Exception {
+        Settings settings = TestGames.settings(5);
+        settings.setGhostSwarm(swarm);
+        settings.setMazeTargeting(maze);
+        return new GameManager(settings);
+    }
+
+    private static void playSame(boolean maze) throws Exception {
+        GameManager objects = GhostSwarmTest.newGame(false, maze);
+        GameManager swarm = GhostSwarmTest.newGame(true, maze);
+
+        int[] keys = {37, 38, 39, 40};
+        for (int i = 0; i < 5000 && objects.isRunning(); i ++) {
+            if (i % 37 == 0) {
+                objects.keyCommands(keys[(i / 37) % 4]);
+                swarm.keyCommands(keys[(i / 37) % 4]);
+            }
+            objects.tick();
+            swarm.tick();
+
+            List<Ghost> expected = objects.getGhosts();
+            List<Ghost> actual = swarm.getGhosts();
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j ++) {
+                assertEquals(expected.get(j).getX(), actual.get(j).getX());
+                assertEquals(expected.get(j).getY(), actual.get(j).getY());
+                assertEquals(expected.get(j).getState(), actual.get(j).getState());
+                assertEquals(expected.get(j).getTargetX(), actual.get(j).getTargetX());
+                assertEquals(expected.get(j).getTargetY(), actual.get(j).getTargetY());
+            }
+            assertEquals(objects.getPlayerLives(), swarm.getPlayerLives());
+        }
+        assertEquals(objects.isRunning(), swarm.isRunning());
+        assertEquals(objects.getTicks(), swarm.getTicks());
+    }
+
+    @Test
+    public void sameAsObjects() throws Exception {
+        GhostSwarmTest.playSame(false);
+    }
+
+    @Test
+    public void sameAsObjectsWithMazeTargeting() throws Exception {
+        GhostSwarmTest.playSame(true);
+    }
+}
@@ -0,0 +1,74 @@
+package ghost;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputQueueTest {
+    @Test
+    public void drainInOrderUntilFull() {
+        InputQueue queue = new InputQueue(5);
+        assertEquals(8, queue.getCapacity());
+
+        for (int i = 0; i < 8; i ++) {
+            assertTrue(queue.offer(i, 100 + i));
+        }
+        assertFalse(queue.offer(8, 108));
+        assertEquals(8, queue.size());
+
+        List<Long> times = new ArrayList<Long>();
+        assertEquals(8, queue.drain((key, time) -> {
+            assertEquals(100 + key, time);
+            return times.add(time);
+        }));
+        assertEquals(Arrays.asList(100L, 101L, 102L, 103L, 104L, 105L, 106L, 107L), times);
+        assertEquals(0, queue.size());
+        assertTrue(queue.offer(8, 108));
+    }
+
+    @Test
+    public void leaveEventsForNextDrain() {
+        InputQueue queue = new InputQueue(4);
+        queue.offer(1, 0);
+        queue.offer(2, 0);
+        queue.offer(3, 0);
+
+        List<Integer> keys = new ArrayList<Integer>();
+        assertEquals(1, queue.drain((key, time) -> (key < 2) && keys.add(key)));
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.drain((key, time) -> keys.add(key)));
+        assertEquals(Arrays.asList(1, 2, 3), keys);
+    }
+
+    @Test
+    public void passEventsBetweenThreads() throws Exception {
+        InputQueue queue = new InputQueue(16);
+        int count = 1000000;
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i ++) {
+                while (!queue.offer(i, i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        // Every event arrives once, whole and in order.
+        int[] next = {0};
+        while (next[0] < count) {
+            int taken = queue.drain((key, time) -> {
+                assertEquals(next[0], key);
+                assertEquals(next[0], time);
+                next[0] ++;
+                return true;
+            });
+            if (taken == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        assertEquals(0, queue.size());
+    }
+}
@@ -0,0 +1,106 @@
+package ghost;
+
+import java.io.*;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapTest {
+    @Test
+    public void loadLayout() throws Exception {
+        Map map = new Map(TestGames.write("1111\r\n7p0c\r\n1111"));
+
+        assertEquals(3, map.getRows());
+        assertEquals(4, map.getCols());
+        assertEquals('7', map.getTile(1, 0));
+        assertTrue(map.isWall(0, 3));
+        assertFalse(map.isWall(1, 1));
+        assertEquals(1, map.getGhosts().size());
+        assertEquals(1, map.getPlayerRow());
+        assertEquals(1, map.getPlayerCol());
+    }
+
+    @Test
+    public void countWallChecksWhenAsked() throws Exception {
+        Map map = new Map(TestGames.write("1111\n7p0c\n1111\n"));
+
+        map.checkWallCollision(16, 16, State.LEFT);
+        map.getExits(17, 16);
+        assertEquals(0, map.getWallChecks());
+
+        map.setCountWallChecks(true);
+        map.checkWallCollision(16, 16, State.LEFT);
+        map.getExits(17, 16);
+        assertEquals(5, map.getWallChecks());
+
+        // Views for forks share the layout but never count.
+        Map uncounted = map.getUncounted();
+        uncounted.setCountWallChecks(true);
+        assertTrue(uncounted.checkWallCollision(16, 16, State.UP));
+        assertEquals(0, uncounted.getWallChecks());
+        assertEquals(5, map.getWallChecks());
+    }
+
+    @Test
+    public void reportLinePosition() throws Exception {
+        MapFormatException shorter = assertThrows(MapFormatException.class, 
+            () -> new Map(TestGames.write("1111\n7p0\n1111\n")));
+        assertEquals(2, shorter.getLine());
+        assertEquals(4, shorter.getColumn());
+
+        MapFormatException empty = assertThrows(MapFormatException.class, 
+            () -> new Map(TestGames.write("1111\n7p00\n\n1111\n")));
+        assertEquals(3, empty.getLine());
+        assertEquals(1, empty.getColumn());
+    }
+
+    @Test
+    public void loadCompiled() throws Exception {
+        Map map = new Map(TestGames.write("111111\n7p0c81\n1a0i01\n111111\n"));
+        File compiled = File.createTempFile("map", MapCompiler.EXTENSION);
+        compiled.deleteOnExit();
+        map.compile(compiled.getPath());
+
+        Map loaded = new Map(compiled.getPath());
+        assertEquals(map.getRows(), loaded.getRows());
+        assertEquals(map.getCols(), loaded.getCols());
+        assertEquals(map.getPlayerRow(), loaded.getPlayerRow());
+        assertEquals(map.getPlayerCol(), loaded.getPlayerCol());
+        assertEquals(map.getFruitGrid(), loaded.getFruitGrid());
+        assertEquals(map.getSuperFruitGrid(), loaded.getSuperFruitGrid());
+        for (int i = 0; i < map.getRows(); i ++) {
+            for (int j = 0; j < map.getCols(); j ++) {
+                assertEquals(map.getTile(i, j), loaded.getTile(i, j));
+                assertEquals(map.getTileExits(i, j), loaded.getTileExits(i, j));
+            }
+        }
+
+        assertEquals(3, loaded.getGhosts().size());
+        for (int i = 0; i < 3; i ++) {
+            Ghost ghost = map.getGhosts().get(i);
+            Ghost other = loaded.getGhosts().get(i);
+            assertEquals(ghost.getClass(), other.getClass());
+            assertEquals(ghost.getX(), other.getX());
+            assertEquals(ghost.getY(), other.getY());
+        }
+    }
+
+    @Test
+    public void reportTruncatedCompiled() throws Exception {
+        Map map = new Map(TestGames.write("1111\n7p0c\n1111\n"));
+        File compiled = File.createTempFile("map", MapCompiler.EXTENSION);
+        compiled.deleteOnExit();
+        map.compile(compiled.getPath());
+
+        byte[] bytes = Files.readAllBytes(compiled.toPath());
+        Files.write(compiled.toPath(), java.util.Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(MapFormatException.class, () -> new Map(compiled.getPath()));
+    }
+
+    @Test
+    public void reportMissingPlayer() throws Exception {
+        assertThrows(MapFormatException.class, () -> new Map(TestGames.write("1111\n7000\n")));
+        assertThrows(FileNotFoundException.class, () -> new Map("missing.txt"));
+    }
+}
@@ -0,0 +1,76 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonteCarloPilotTest {
+
+    /**
+     * Plays the game with the pilot steering, and returns the moves it chose.
+     */
+    private static String play(GameManager game, Pilot pilot, int ticks) {
+        StringBuilder moves = new StringBuilder();
+        for (int i = 0; i < ticks && game.isRunning(); i ++) {
+            State move = pilot.nextMove(game);
+            if (move != null) {
+                game.setPlayerMove(move);
+                moves.append(move.name().charAt(0));
+            }
+            game.tick();
+        }
+        return moves.toString();
+    }
+
+    @Test
+    public void decidesWithinBudget() throws Exception {
+        GameManager game = TestGames.newGame(5);
+        MonteCarloPilot pilot = new MonteCarloPilot(20000000L, 2, 1);
+
+        // Moves to a tile with a choice of directions.
+        game.setPlayerMove(State.LEFT);
+        game.tick();
+        assertNull(pilot.nextMove(game));
+        while ((game.getPlayer().getX() % GameObject.SPRITE_SIZE != 0) 
+                || (Integer.bitCount(game.getMap().getExits(game.getPlayer().getX(), 
+                        game.getPlayer().getY())) < 2)) {
+            game.tick();
+        }
+
+        long start = System.nanoTime();
+        State move = pilot.nextMove(game);
+        long elapsed = System.nanoTime() - start;
+        assertNotNull(move);
+        assertTrue(Map.hasExit(game.getMap().getExits(game.getPlayer().getX(), 
+                game.getPlayer().getY()), move));
+        assertTrue(pilot.getIterations() > 0);
+        assertTrue(elapsed < 1000000000L, "took " + elapsed + "ns");
+    }
+
+    @Test
+    public void playsTheSameWithIterationLimit() throws Exception {
+        GameManager game = TestGames.newGame(5);
+        GameManager other = TestGames.newGame(5);
+        int fruits = game.getFruits().getRemaining();
+
+        MonteCarloPilot pilot = new MonteCarloPilot(10000000000L, 1, 3);
+        pilot.setMaxIterations(20);
+        MonteCarloPilot otherPilot = new MonteCarloPilot(10000000000L, 1, 3);
+        otherPilot.setMaxIterations(20);
+
+        String moves = MonteCarloPilotTest.play(game, pilot, 2000);
+        assertEquals(moves, MonteCarloPilotTest.play(other, otherPilot, 2000));
+        assertTrue(game.getFruits().getRemaining() < fruits - 50);
+        assertEquals(game.getPlayer().getX(), other.getPlayer().getX());
+        assertEquals(game.getPlayer().getY(), other.getPlayer().getY());
+    }
+
+    @Test
+    public void createdFromSettings() {
+        Settings settings = new Settings();
+        assertNull(Pilot.of(settings));
+        settings.setAutopilot("greedy");
+        assertTrue(Pilot.of(settings) instanceof GreedyPilot);
+        settings.setAutopilot("mcts");
+        assertTrue(Pilot.of(settings) instanceof MonteCarloPilot);
+    }
+}
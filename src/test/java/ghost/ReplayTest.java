@@ -0,0 +1,69 @@
+package ghost;
+
+import java.io.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayTest {
+    @Test
+    public void varintRoundTrip() throws IOException {
+        long[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, Long.MAX_VALUE};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long value : values) {
+            Replay.writeVarint(out, value);
+        }
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        for (long value : values) {
+            assertEquals(value, Replay.readVarint(in));
+        }
+    }
+
+    @Test
+    public void rejectInvalidTickRate() throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        settings.setTickRate(0);
+        File file = File.createTempFile("replay", ".wkrp");
+        file.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            Replay.writeHeader(out, settings, 0);
+        }
+
+        assertThrows(IOException.class, () -> new Replay(file.getPath()));
+    }
+
+    @Test
+    public void playbackReproducesGame() throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        settings.setSeed(11);
+        File file = File.createTempFile("replay", ".wkrp");
+        file.deleteOnExit();
+
+        GameManager recorded = new GameManager(settings);
+        ReplayWriter recorder = new ReplayWriter(file.getPath(), settings);
+        recorded.setRecorder(recorder);
+        Pilot pilot = new GreedyPilot();
+        while (recorded.isRunning() && recorded.getTicks() < 20000) {
+            State move = pilot.nextMove(recorded);
+            if (move != null) {
+                recorded.setPlayerMove(move);
+            }
+            recorded.tick();
+        }
+        recorder.finish(recorded.getTicks());
+        recorder.await();
+
+        Replay replay = new Replay(file.getPath());
+        GameManager played = replay.newGame();
+        while (!replay.isFinished(played)) {
+            replay.apply(played);
+            played.tick();
+        }
+        assertEquals(recorded.getTicks(), played.getTicks());
+        assertEquals(recorded.getPlayerLives(), played.getPlayerLives());
+        assertEquals(recorded.getFruits().getRemaining(), played.getFruits().getRemaining());
+    }
+}
@@ -0,0 +1,47 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingHistogramTest {
+    @Test
+    public void percentileBounds() {
+        RollingHistogram histogram = new RollingHistogram(100);
+        assertEquals(0, histogram.getPercentile(50));
+
+        for (int i = 1; i <= 100; i ++) {
+            histogram.add(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(3, histogram.getPercentile(3));
+
+        // The median, 50, shares a bucket with the values from 48 to 55.
+        assertEquals(55, histogram.getPercentile(50));
+        assertTrue(histogram.getPercentile(99) >= 99);
+        assertTrue(histogram.getPercentile(99) <= 99 * 5 / 4);
+    }
+
+    @Test
+    public void evictOldestSamples() {
+        RollingHistogram histogram = new RollingHistogram(4);
+        for (int i = 0; i < 4; i ++) {
+            histogram.add(1000000);
+        }
+        histogram.add(1);
+        histogram.add(2);
+        histogram.add(3);
+        assertEquals(4, histogram.getCount());
+        assertTrue(histogram.getPercentile(100) >= 1000000);
+
+        histogram.add(3);
+        assertEquals(3, histogram.getLast());
+        assertEquals(3, histogram.getMax());
+        assertEquals(3, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(25));
+
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getLast());
+    }
+}
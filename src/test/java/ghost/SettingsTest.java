@@ -0,0 +1,89 @@
+package ghost;
+
+import java.io.*;
+import java.nio.file.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SettingsTest {
+    private static Settings parse(int speed, int tickRate) throws Exception {
+        return SettingsTest.parse(speed, tickRate, Settings.DEFAULT_MAX_CATCH_UP_TICKS);
+    }
+
+    private static Settings parse(int speed, int tickRate, int maxCatchUpTicks)
+            throws Exception {
+        File config = File.createTempFile("config", ".json");
+        config.deleteOnExit();
+        String json = "{\"map\": \"map.txt\", \"lives\": 3, \"speed\": " + speed
+                + ", \"tickRate\": " + tickRate + ", \"maxCatchUpTicks\": " + maxCatchUpTicks
+                + ", \"frightenedLength\": 7, \"modeLengths\": [7, 20]}";
+        Files.write(config.toPath(), json.getBytes("UTF-8"));
+
+        Settings settings = new Settings();
+        settings.parseConfigFile(config.getPath());
+        return settings;
+    }
+
+    @Test
+    public void rejectUnevenTickRates() throws Exception {
+        assertEquals(60, SettingsTest.parse(1, 30).getTickRate());
+        assertEquals(90, SettingsTest.parse(1, 90).getTickRate());
+        assertEquals(60, SettingsTest.parse(2, 60).getTickRate());
+        assertEquals(60, SettingsTest.parse(2, 70).getTickRate());
+        assertEquals(60, SettingsTest.parse(2, 90).getTickRate());
+        assertEquals(120, SettingsTest.parse(2, 120).getTickRate());
+        assertEquals(144, SettingsTest.parse(2, 144).getTickRate());
+    }
+
+    @Test
+    public void rejectMaxCatchUpTicksBelowOne() throws Exception {
+        assertEquals(1, SettingsTest.parse(1, 60, 1).getMaxCatchUpTicks());
+        assertEquals(Settings.DEFAULT_MAX_CATCH_UP_TICKS,
+                SettingsTest.parse(1, 60, 0).getMaxCatchUpTicks());
+        assertEquals(Settings.DEFAULT_MAX_CATCH_UP_TICKS,
+                SettingsTest.parse(1, 60, -3).getMaxCatchUpTicks());
+    }
+
+    /**
+     * Lets a GreedyPilot steer the Waka for the given time, and returns the number of times it
+     * turned aside.
+     */
+    private static int turns(Settings settings, int seconds) throws Exception {
+        GameManager game = new GameManager(settings);
+        Pilot pilot = new GreedyPilot();
+        State orientation = game.getPlayer().getOrientation();
+        int turns = 0;
+        for (int i = 0; i < seconds * settings.getTickRate() && game.isRunning(); i ++) {
+            State move = pilot.nextMove(game);
+            if (move != null) {
+                game.setPlayerMove(move);
+            }
+            int x = game.getPlayer().getX();
+            int y = game.getPlayer().getY();
+            int lives = game.getPlayerLives();
+            game.tick();
+
+            // Objects turn aside only on tile aligned pixels, before moving on in the new
+            // direction. Losing a life puts the Waka back at the start.
+            State next = game.getPlayer().getOrientation();
+            if ((next != orientation) && (next != orientation.getOpposite())
+                    && (game.getPlayerLives() == lives)) {
+                assertEquals(0, x % GameObject.SPRITE_SIZE);
+                assertEquals(0, y % GameObject.SPRITE_SIZE);
+                turns ++;
+            }
+            orientation = next;
+        }
+        return turns;
+    }
+
+    @Test
+    public void fastObjectsKeepTurning() throws Exception {
+        for (int tickRate : new int[] {70, 90, 120}) {
+            Settings settings = SettingsTest.parse(2, tickRate);
+            settings.setSeed(9);
+            assertTrue(SettingsTest.turns(settings, 30) > 20, "tick rate " + tickRate);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ghost;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialGridTest {
+    @Test
+    public void queryNearbyCells() throws Exception {
+        Map map = new Map("map.txt");
+        SpatialGrid<Fruit> grid = new SpatialGrid<Fruit>(map, 4);
+        Fruit near = new Fruit(1, 1);
+        Fruit far = new Fruit(20, 30);
+        grid.rebuild(Arrays.asList(near, far));
+
+        List<Fruit> found = new ArrayList<Fruit>();
+        grid.query(0, 0, 64, 64, found);
+        assertEquals(Arrays.asList(near), found);
+
+        found.clear();
+        grid.query(0, 0, 28 * 16, 36 * 16, found);
+        assertEquals(2, found.size());
+
+        grid.clear();
+        found.clear();
+        grid.query(0, 0, 28 * 16, 36 * 16, found);
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    public void updateMovedObjects() throws Exception {
+        Map map = new Map("map.txt");
+        SpatialGrid<Waka> grid = new SpatialGrid<Waka>(map, 1);
+        Waka waka = new Waka(1, 1, 1);
+        grid.insert(waka);
+
+        waka.x += 16;
+        grid.update(waka);
+        List<Waka> found = new ArrayList<Waka>();
+        grid.query(16, 16, 32, 32, found);
+        assertTrue(found.isEmpty());
+        grid.query(32, 16, 48, 32, found);
+        assertEquals(Arrays.asList(waka), found);
+
+        assertTrue(grid.remove(waka));
+        assertFalse(grid.remove(waka));
+        assertEquals(0, grid.size());
+    }
+}
@@ -0,0 +1,47 @@
+package ghost;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SplitMix64Test {
+    @Test
+    public void matchSplittableRandom() {
+        int[] bounds = {1, 2, 7, 64, 449, 577, 1 << 30, Integer.MAX_VALUE};
+        for (long seed = -3; seed <= 3; seed ++) {
+            SplittableRandom expected = new SplittableRandom(seed);
+            SplitMix64 random = new SplitMix64(seed);
+
+            for (int i = 0; i < 1000; i ++) {
+                int bound = bounds[i % bounds.length];
+                assertEquals(expected.nextInt(bound), random.nextInt(bound));
+                assertEquals(expected.nextLong(), random.nextLong());
+            }
+
+            // Splitting twice in a row tests the gammas of the split generators too.
+            SplittableRandom expectedSplit = expected.split().split();
+            SplitMix64 split = random.split().split();
+            for (int i = 0; i < 100; i ++) {
+                assertEquals(expectedSplit.nextInt(449), split.nextInt(449));
+            }
+            assertEquals(expected.nextInt(), random.nextInt());
+        }
+    }
+
+    @Test
+    public void copyContinuesSequence() {
+        SplitMix64 random = new SplitMix64(42);
+        random.nextLong();
+        SplitMix64 copy = random.copy();
+
+        long[] values = new long[10];
+        for (int i = 0; i < values.length; i ++) {
+            values[i] = random.nextLong();
+        }
+        for (int i = 0; i < values.length; i ++) {
+            assertEquals(values[i], copy.nextLong());
+        }
+        assertThrows(IllegalArgumentException.class, () -> random.nextInt(0));
+    }
+}
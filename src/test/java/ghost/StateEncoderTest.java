@@ -0,0 +1,138 @@
+package ghost;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateEncoderTest {
+
+    private static void assertDecoded(GameManager game, StateDecoder decoder) {
+        assertEquals(game.getTicks(), decoder.getTicks());
+        assertEquals(game.getPlayerLives(), decoder.getPlayerLives());
+        assertEquals(game.isRunning(), decoder.isRunning());
+        assertEquals(game.playerWin(), decoder.playerWin());
+        assertEquals(game.getPlayer().getX(), decoder.getPlayerX());
+        assertEquals(game.getPlayer().getY(), decoder.getPlayerY());
+
+        List<Ghost> ghosts = game.getGhosts();
+        assertEquals(ghosts.size(), decoder.getGhostCount());
+        for (int i = 0; i < ghosts.size(); i ++) {
+            assertEquals(ghosts.get(i).getX(), decoder.getGhostX(i));
+            assertEquals(ghosts.get(i).getY(), decoder.getGhostY(i));
+            assertEquals(ghosts.get(i).getState(), decoder.getGhostState(i));
+        }
+
+        FruitStore fruits = game.getFruits();
+        assertEquals(fruits.getRemaining(), decoder.getFruitCount());
+        for (int row = 0; row < decoder.getRows(); row ++) {
+            for (int col = 0; col < decoder.getCols(); col ++) {
+                assertEquals(fruits.hasFruit(row, col), decoder.hasFruit(row, col));
+            }
+        }
+    }
+
+    /**
+     * Plays a whole game, encoding only every given number of ticks, and checks the decoded
+     * state after every frame. Returns the bytes of every frame but the keyframe.
+     */
+    private static int playEncoded(GameManager game, int every) {
+        StateEncoder encoder = new StateEncoder(game);
+        StateDecoder decoder = new StateDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(encoder.getMaxFrameSize());
+        Pilot pilot = new GreedyPilot();
+        int deltaBytes = 0;
+
+        assertTrue(encoder.encode(game, buffer));
+        int keyframe = buffer.position();
+        buffer.flip();
+        assertTrue(decoder.decode(buffer));
+        assertDecoded(game, decoder);
+
+        while (game.isRunning() && (game.getTicks() < 20000)) {
+            State move = pilot.nextMove(game);
+            if (move != null) {
+                game.setPlayerMove(move);
+            }
+            game.tick();
+            if ((game.getTicks() % every != 0) && game.isRunning()) {
+                continue;
+            }
+
+            buffer.clear();
+            if (encoder.encode(game, buffer)) {
+                assertTrue(buffer.position() < keyframe);
+                deltaBytes += buffer.position();
+                buffer.flip();
+                assertTrue(decoder.decode(buffer));
+                assertFalse(buffer.hasRemaining());
+            }
+            assertDecoded(game, decoder);
+        }
+        assertFalse(game.isRunning());
+        return deltaBytes;
+    }
+
+    @Test
+    public void deltasFollowWholeGame() throws Exception {
+        GameManager game = TestGames.newGame(21);
+        int deltaBytes = StateEncoderTest.playEncoded(game, 1);
+
+        // Most ticks move the Waka and a Ghost or two by a pixel.
+        assertTrue(deltaBytes < 12 * game.getTicks());
+    }
+
+    @Test
+    public void deltasCatchUpSkippedTicks() throws Exception {
+        StateEncoderTest.playEncoded(TestGames.newGame(21), 7);
+    }
+
+    @Test
+    public void keyframeAfterReset() throws Exception {
+        GameManager game = TestGames.newGame(21);
+        StateEncoder encoder = new StateEncoder(game);
+        StateDecoder decoder = new StateDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(4 * encoder.getMaxFrameSize());
+
+        encoder.encode(game, buffer);
+        for (int i = 0; i < 100; i ++) {
+            game.tick();
+            encoder.encode(game, buffer);
+        }
+        game.restart(22);
+        encoder.reset();
+        assertTrue(encoder.encode(game, buffer));
+        assertFalse(encoder.encode(game, buffer));
+
+        // Frames split between reads are left until the rest arrives.
+        buffer.flip();
+        ByteBuffer received = ByteBuffer.allocate(buffer.capacity());
+        while (buffer.hasRemaining()) {
+            received.put(buffer.get());
+            received.flip();
+            while (decoder.decode(received)) {
+                assertTrue(decoder.isStarted());
+            }
+            received.compact();
+        }
+        assertEquals(102, decoder.getFrames());
+        assertDecoded(game, decoder);
+    }
+
+    @Test
+    public void varints() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, -1};
+        for (int value : values) {
+            StateEncoder.putVarint(buffer, value);
+            StateEncoder.putZigzag(buffer, value);
+        }
+        buffer.flip();
+        for (int value : values) {
+            assertEquals(value, StateDecoder.getVarint(buffer));
+            assertEquals(value, StateDecoder.getZigzag(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+}
@@ -0,0 +1,57 @@
+package ghost;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Builds the settings, games and files the tests play with.
+ */
+class TestGames {
+
+    /**
+     * Returns the settings in config.json, which are seeded differently every time.
+     */
+    static Settings settings() throws Exception {
+        Settings settings = new Settings();
+        settings.parseConfigFile("config.json");
+        return settings;
+    }
+
+    /**
+     * Returns the settings in config.json with the given seed.
+     */
+    static Settings settings(long seed) throws Exception {
+        Settings settings = TestGames.settings();
+        settings.setSeed(seed);
+        return settings;
+    }
+
+    /**
+     * Returns a game of the settings in config.json with the given seed.
+     */
+    static GameManager newGame(long seed) throws Exception {
+        return new GameManager(TestGames.settings(seed));
+    }
+
+    /**
+     * Returns a game of the settings in config.json with the given seed, keeping its Ghosts in a
+     * GhostSwarm or as Ghost objects.
+     */
+    static GameManager newGame(long seed, boolean swarm) throws Exception {
+        Settings settings = TestGames.settings(seed);
+        settings.setGhostSwarm(swarm);
+        return new GameManager(settings);
+    }
+
+    /**
+     * Writes the given text to a temporary file, deleted once the tests end, and returns its
+     * path.
+     */
+    static String write(String text) throws IOException {
+        File file = File.createTempFile("map", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+        return file.getPath();
+    }
+}